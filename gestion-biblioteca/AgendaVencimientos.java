@@ -0,0 +1,186 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Agenda de préstamos abiertos ordenada por fecha de vencimiento.
+ * Se implementa como un montículo binario de mínimos: el préstamo que vence
+ * primero está siempre en la raíz. Cada {@link Prestamo} recuerda su posición
+ * en el montículo, por lo que las devoluciones se quitan en tiempo
+ * logarítmico sin búsquedas.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class AgendaVencimientos {
+    /** Capacidad inicial del montículo. */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /** Préstamos abiertos, organizados como montículo de mínimos. */
+    private Prestamo[] prestamos;
+    /** Clave de orden (día época de vencimiento) de cada posición del montículo. */
+    private int[] vencimientos;
+    /** Cantidad de préstamos en la agenda. */
+    private int cantidad;
+
+    /**
+     * Constructor para una agenda vacía.
+     */
+    public AgendaVencimientos() {
+        this.prestamos = new Prestamo[CAPACIDAD_INICIAL];
+        this.vencimientos = new int[CAPACIDAD_INICIAL];
+        this.cantidad = 0;
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos abiertos en la agenda.
+     *
+     * @return El número de préstamos abiertos.
+     */
+    public int getCantidad() {
+        return this.cantidad;
+    }
+
+    /**
+     * Agrega un préstamo abierto a la agenda.
+     *
+     * @param p_prestamo El préstamo a agendar.
+     */
+    public void agregar(Prestamo p_prestamo) {
+        if (this.cantidad == this.prestamos.length) {
+            this.prestamos = Arrays.copyOf(this.prestamos, this.cantidad * 2);
+            this.vencimientos = Arrays.copyOf(this.vencimientos, this.cantidad * 2);
+        }
+        int i = this.cantidad++;
+        this.ubicar(i, p_prestamo, p_prestamo.getDiaVencimiento());
+        this.subir(i);
+    }
+
+    /**
+     * Quita un préstamo de la agenda (por ejemplo, al ser devuelto).
+     *
+     * @param p_prestamo El préstamo a quitar.
+     * @return true si el préstamo estaba en la agenda.
+     */
+    public boolean quitar(Prestamo p_prestamo) {
+        int i = p_prestamo.getPosicionAgenda();
+        if (i < 0 || i >= this.cantidad || this.prestamos[i] != p_prestamo) {
+            return false;
+        }
+
+        int ultimo = --this.cantidad;
+        p_prestamo.setPosicionAgenda(-1);
+        if (i != ultimo) {
+            // Ocupa el hueco con el último elemento y restaura el orden
+            this.ubicar(i, this.prestamos[ultimo], this.vencimientos[ultimo]);
+            this.prestamos[ultimo] = null;
+            this.subir(i);
+            this.bajar(i);
+        } else {
+            this.prestamos[ultimo] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Obtiene los préstamos que están vencidos en el día dado (su día de
+     * vencimiento es igual o anterior), ordenados por fecha de vencimiento (y,
+     * a igual fecha, por identificador del ejemplar).
+     * Solo recorre las ramas del montículo que contienen préstamos vencidos, por
+     * lo que su costo es proporcional a la cantidad de vencidos y no al total
+     * de préstamos.
+     *
+     * @param p_dia Día época de referencia.
+     * @return Un ArrayList con los préstamos vencidos en ese día.
+     */
+    public ArrayList<Prestamo> vencidosAl(int p_dia) {
+        ArrayList<Prestamo> vencidos = new ArrayList<Prestamo>();
+        if (this.cantidad == 0 || this.vencimientos[0] > p_dia) {
+            return vencidos;
+        }
+
+        int[] pendientes = new int[16];
+        int tope = 0;
+        pendientes[tope++] = 0;
+        while (tope > 0) {
+            int i = pendientes[--tope];
+            vencidos.add(this.prestamos[i]);
+            for (int hijo = 2 * i + 1; hijo <= 2 * i + 2 && hijo < this.cantidad; hijo++) {
+                if (this.vencimientos[hijo] <= p_dia) {
+                    if (tope == pendientes.length) {
+                        pendientes = Arrays.copyOf(pendientes, tope * 2);
+                    }
+                    pendientes[tope++] = hijo;
+                }
+            }
+        }
+
+        vencidos.sort((a, b) -> a.getDiaVencimiento() != b.getDiaVencimiento()
+                ? Integer.compare(a.getDiaVencimiento(), b.getDiaVencimiento())
+                : Integer.compare(a.getLibro().getId(), b.getLibro().getId()));
+        return vencidos;
+    }
+
+    /**
+     * Coloca un préstamo en una posición del montículo, actualizando su índice.
+     *
+     * @param p_posicion    La posición destino.
+     * @param p_prestamo    El préstamo a colocar.
+     * @param p_vencimiento La clave de vencimiento del préstamo.
+     */
+    private void ubicar(int p_posicion, Prestamo p_prestamo, int p_vencimiento) {
+        this.prestamos[p_posicion] = p_prestamo;
+        this.vencimientos[p_posicion] = p_vencimiento;
+        p_prestamo.setPosicionAgenda(p_posicion);
+    }
+
+    /**
+     * Sube un elemento mientras su vencimiento sea menor que el de su padre.
+     *
+     * @param p_posicion La posición inicial del elemento.
+     */
+    private void subir(int p_posicion) {
+        Prestamo prestamo = this.prestamos[p_posicion];
+        int vencimiento = this.vencimientos[p_posicion];
+        int i = p_posicion;
+        while (i > 0) {
+            int padre = (i - 1) >>> 1;
+            if (this.vencimientos[padre] <= vencimiento) {
+                break;
+            }
+            this.ubicar(i, this.prestamos[padre], this.vencimientos[padre]);
+            i = padre;
+        }
+        this.ubicar(i, prestamo, vencimiento);
+    }
+
+    /**
+     * Baja un elemento mientras su vencimiento sea mayor que el de alguno de sus
+     * hijos.
+     *
+     * @param p_posicion La posición inicial del elemento.
+     */
+    private void bajar(int p_posicion) {
+        Prestamo prestamo = this.prestamos[p_posicion];
+        int vencimiento = this.vencimientos[p_posicion];
+        int i = p_posicion;
+        while (true) {
+            int hijo = 2 * i + 1;
+            if (hijo >= this.cantidad) {
+                break;
+            }
+            if (hijo + 1 < this.cantidad && this.vencimientos[hijo + 1] < this.vencimientos[hijo]) {
+                hijo++;
+            }
+            if (this.vencimientos[hijo] >= vencimiento) {
+                break;
+            }
+            this.ubicar(i, this.prestamos[hijo], this.vencimientos[hijo]);
+            i = hijo;
+        }
+        this.ubicar(i, prestamo, vencimiento);
+    }
+}
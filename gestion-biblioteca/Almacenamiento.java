@@ -0,0 +1,552 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Persistencia de la {@link Biblioteca} en archivos: carga los datos
+ * guardados en segundo plano, registra las operaciones posteriores en el
+ * {@link DiarioOperaciones}, compacta periódicamente con el
+ * {@link Compactador} y guarda todo al cerrar.
+ * La utilizan tanto la interfaz gráfica ({@link VentanaPrincipal}) como el
+ * modo servidor ({@link ServidorBiblioteca}).
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class Almacenamiento {
+    /** La biblioteca que se persiste. */
+    private Biblioteca biblioteca;
+    /** Guarda periódicamente la biblioteca y descarta el diario ya incluido. */
+    private Compactador compactador;
+    /** Carga de los datos persistidos, que se realiza en segundo plano. */
+    private CompletableFuture<Void> carga;
+
+    // Nombres de archivos para la persistencia de datos
+    private final String ARCHIVO_SOCIOS = "socios.dat";
+    private final String ARCHIVO_LIBROS = "libros.dat";
+    private final String ARCHIVO_PRESTAMOS = "prestamos.dat";
+    /** Diario con las operaciones realizadas desde el último guardado completo. */
+    private final String ARCHIVO_DIARIO = "diario.dat";
+    /** Historial de préstamos devueltos. */
+    private final String ARCHIVO_HISTORIAL = "historial.dat";
+    /**
+     * Milisegundos entre sincronizaciones del diario con el disco (0 sincroniza
+     * cada operación).
+     */
+    private final long INTERVALO_SINCRONIZACION_DIARIO = 50;
+    /** Milisegundos entre revisiones del tamaño del diario para compactarlo. */
+    private final long INTERVALO_COMPACTACION = 60 * 1000;
+    /** Tamaño del diario (bytes) a partir del cual se guarda una copia completa. */
+    private final long UMBRAL_COMPACTACION = 4 * 1024 * 1024;
+
+    /**
+     * Abre el historial de préstamos, prepara el compactador e inicia la carga
+     * de los datos persistidos en segundo plano.
+     *
+     * @param p_biblioteca La biblioteca (vacía) donde se cargan los datos.
+     */
+    public Almacenamiento(Biblioteca p_biblioteca) {
+        this.setBiblioteca(p_biblioteca);
+        HistorialPrestamos historial = this.abrirHistorial();
+        this.getBiblioteca().setHistorial(historial);
+        this.setCompactador(new Compactador(this.getBiblioteca(), ARCHIVO_SOCIOS, ARCHIVO_LIBROS,
+                ARCHIVO_PRESTAMOS, ARCHIVO_DIARIO, historial, INTERVALO_COMPACTACION, UMBRAL_COMPACTACION));
+        this.setCarga(this.cargarDatosDesdeArchivos());
+    }
+
+    /**
+     * Establece la biblioteca que se persiste.
+     *
+     * @param p_biblioteca La instancia de Biblioteca.
+     */
+    private void setBiblioteca(Biblioteca p_biblioteca) {
+        this.biblioteca = p_biblioteca;
+    }
+
+    /**
+     * Establece el compactador de los datos persistidos.
+     *
+     * @param p_compactador La instancia de Compactador.
+     */
+    private void setCompactador(Compactador p_compactador) {
+        this.compactador = p_compactador;
+    }
+
+    /**
+     * Establece la carga en segundo plano de los datos persistidos.
+     *
+     * @param p_carga La carga en curso.
+     */
+    private void setCarga(CompletableFuture<Void> p_carga) {
+        this.carga = p_carga;
+    }
+
+    /**
+     * Obtiene la carga en segundo plano de los datos persistidos.
+     *
+     * @return La carga (en curso o terminada).
+     */
+    private CompletableFuture<Void> getCarga() {
+        return this.carga;
+    }
+
+    /**
+     * Indica si terminó la carga de los datos persistidos.
+     *
+     * @return true si la carga terminó (correctamente o no).
+     */
+    public boolean estaCargada() {
+        return this.getCarga().isDone();
+    }
+
+    /**
+     * Espera a que termine la carga de los datos persistidos. Las acciones que
+     * consultan o modifican la biblioteca deben llamarlo antes de operar.
+     *
+     * @return true si la carga terminó correctamente; false si falló (el error
+     *         ya fue informado).
+     */
+    public boolean esperarCarga() {
+        try {
+            this.getCarga().join();
+            return true;
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Obtiene la biblioteca que se persiste.
+     *
+     * @return La instancia de Biblioteca.
+     */
+    public Biblioteca getBiblioteca() {
+        return this.biblioteca;
+    }
+
+    /**
+     * Obtiene el compactador de los datos persistidos.
+     *
+     * @return La instancia de Compactador.
+     */
+    public Compactador getCompactador() {
+        return this.compactador;
+    }
+
+    /**
+     * Cierra el almacenamiento: espera la carga, detiene el compactador, guarda
+     * una copia completa y cierra el diario. Si la carga falló, no se guarda,
+     * para no pisar los archivos con datos parciales.
+     */
+    public void cerrar() {
+        boolean cargada = this.esperarCarga();
+        this.getCompactador().detener();
+        if (cargada) {
+            this.guardarDatosEnArchivos();
+        }
+        this.cerrarDiario();
+    }
+
+    /**
+     * Guarda el estado actual de la biblioteca (Socios, Libros y Préstamos activos)
+     * en archivos binarios (.dat) para persistencia.
+     * El guardado lo realiza el {@link Compactador}: escribe archivos temporales
+     * y los renombra atómicamente, y descarta el diario que la copia ya incluye.
+     *
+     * @return true si los archivos se guardaron sin errores.
+     */
+    private boolean guardarDatosEnArchivos() {
+        return this.getCompactador().compactar();
+    }
+
+    /**
+     * Abre el historial de préstamos devueltos. Solo se lee su encabezado: los
+     * préstamos se leen al consultar el historial de un socio.
+     * Si no puede abrirse, la aplicación continúa sin guardar el historial.
+     *
+     * @return El historial, o null si no pudo abrirse.
+     */
+    private HistorialPrestamos abrirHistorial() {
+        try {
+            return new HistorialPrestamos(ARCHIVO_HISTORIAL);
+        } catch (IOException e) {
+            System.err.println("Error al abrir el historial de préstamos: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Termina de instalar (o descarta) una compactación que quedó a medias por
+     * una interrupción de la aplicación.
+     */
+    private void recuperarCompactacion() {
+        try {
+            this.getCompactador().recuperar();
+        } catch (IOException e) {
+            System.err.println("Error al recuperar la última compactación: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Abre el diario de operaciones, reproduce sobre la biblioteca las
+     * operaciones registradas desde el último guardado completo y lo asigna a
+     * la biblioteca para que registre las siguientes.
+     * Si el diario no puede abrirse, la aplicación continúa sin él (los datos
+     * se guardarán solo al cerrar).
+     */
+    private void abrirDiario() {
+        try {
+            int reproducidas = 0;
+            // Primero los tramos sellados que ninguna copia completa incluyó
+            for (File unSegmento : DiarioOperaciones.segmentos(ARCHIVO_DIARIO)) {
+                DiarioOperaciones tramo = new DiarioOperaciones(unSegmento.getPath(), 0);
+                reproducidas += tramo.reproducirEn(this.getBiblioteca());
+                tramo.cerrar();
+            }
+
+            DiarioOperaciones diario = new DiarioOperaciones(ARCHIVO_DIARIO, INTERVALO_SINCRONIZACION_DIARIO);
+            reproducidas += diario.reproducirEn(this.getBiblioteca());
+            if (reproducidas > 0) {
+                System.out.println("Se recuperaron " + reproducidas + " operaciones de " + ARCHIVO_DIARIO + ".");
+            }
+            this.getBiblioteca().setDiario(diario);
+        } catch (IOException e) {
+            System.err.println("Error al abrir el diario de operaciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cierra el diario de operaciones, sincronizando lo pendiente con el disco.
+     * Si el último guardado falló, el diario conserva las operaciones para
+     * reproducirlas en el próximo inicio.
+     */
+    private void cerrarDiario() {
+        DiarioOperaciones diario = this.getBiblioteca().getDiario();
+        if (diario == null) {
+            return;
+        }
+        this.getBiblioteca().setDiario(null);
+        try {
+            diario.cerrar();
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el diario de operaciones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carga el estado de la biblioteca desde los archivos binarios (.dat) en
+     * segundo plano. Reconstruye los objetos Socio, Libro y Prestamo.
+     * <p>
+     * Los tres archivos se decodifican en paralelo. Los socios y los libros se
+     * incorporan a la biblioteca apenas se terminan de leer; los préstamos
+     * (ya decodificados) se vinculan cuando ambos están incorporados. Luego se
+     * reproduce el diario y se inicia el compactador.
+     * <p>
+     * Acepta tanto el formato versionado ({@link ArchivoDatos}) como el formato
+     * anterior, sin encabezado. Si es la primera ejecución, los archivos no
+     * existen y la biblioteca queda vacía.
+     *
+     * @return La carga en curso; termina cuando la biblioteca está lista.
+     */
+    private CompletableFuture<Void> cargarDatosDesdeArchivos() {
+        ExecutorService hilos = Executors.newFixedThreadPool(3, tarea -> {
+            Thread hilo = new Thread(tarea, "carga-datos");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        // Termina (o descarta) una compactación interrumpida antes de leer
+        CompletableFuture<Void> recuperada = CompletableFuture.runAsync(this::recuperarCompactacion, hilos);
+        CompletableFuture<ArrayList<Socio>> socios = recuperada.thenApplyAsync(
+                v -> this.leerArchivo(ARCHIVO_SOCIOS, ArchivoDatos.SOCIOS, "socios", this::leerSocio), hilos);
+        CompletableFuture<ArrayList<Libro>> libros = recuperada.thenApplyAsync(
+                v -> this.leerArchivo(ARCHIVO_LIBROS, ArchivoDatos.LIBROS, "libros", this::leerLibro), hilos);
+        CompletableFuture<ArrayList<PrestamoGuardado>> prestamos = recuperada.thenApplyAsync(
+                v -> this.leerArchivo(ARCHIVO_PRESTAMOS, ArchivoDatos.PRESTAMOS, "préstamos", this::leerPrestamo),
+                hilos);
+
+        CompletableFuture<Void> sociosCargados = socios.thenAccept(this::agregarSocios);
+        CompletableFuture<Void> librosCargados = libros.thenAccept(this::agregarLibros);
+        CompletableFuture<Void> lista = CompletableFuture.allOf(sociosCargados, librosCargados, prestamos)
+                .thenRun(() -> {
+                    // (Debe ejecutarse después de cargar Socios y Libros)
+                    this.vincularPrestamos(prestamos.join());
+                    this.abrirDiario(); // Aplica las operaciones posteriores al último guardado
+                    this.getCompactador().iniciar();
+                });
+        lista.whenComplete((resultado, error) -> {
+            hilos.shutdown();
+            if (error != null) {
+                System.err.println("Error al cargar los datos: " + error.getMessage());
+            }
+        });
+        return lista;
+    }
+
+    /**
+     * Lee todos los registros de un archivo de datos.
+     * Si el archivo está dañado, se conservan los registros leídos hasta el
+     * daño, se informa el error y el archivo se aparta con la extensión
+     * {@code .corrupto} para que el próximo guardado no lo pise.
+     *
+     * @param <T>           Tipo de los elementos leídos.
+     * @param p_archivo     Ruta del archivo.
+     * @param p_tipo        Tipo de archivo en el formato versionado.
+     * @param p_descripcion Descripción del contenido (para los mensajes).
+     * @param p_lector      Acción que decodifica un registro.
+     * @return Los elementos leídos (los registros descartados no se incluyen).
+     */
+    private <T> ArrayList<T> leerArchivo(String p_archivo, byte p_tipo, String p_descripcion,
+            LectorRegistro<T> p_lector) {
+        ArrayList<T> elementos = new ArrayList<T>();
+        File archivo = new File(p_archivo);
+        if (!archivo.exists()) {
+            System.out.println("No se encontró " + p_archivo + ", se creará uno nuevo al cerrar.");
+            return elementos;
+        }
+
+        try {
+            if (ArchivoDatos.esVersionado(archivo)) {
+                try (ArchivoDatos.Lector lector = new ArchivoDatos.Lector(archivo, p_tipo)) {
+                    elementos.ensureCapacity((int) Math.min(lector.getCantidad(), Integer.MAX_VALUE - 8));
+                    DataInputStream registro;
+                    while ((registro = lector.siguiente()) != null) {
+                        agregarLeido(elementos, p_lector.leer(registro, true));
+                    }
+                }
+            } else {
+                // Formato anterior: registros consecutivos hasta el final del archivo
+                try (DataInputStream entrada = new DataInputStream(
+                        new BufferedInputStream(new FileInputStream(archivo), 64 * 1024))) {
+                    while (entrada.available() > 0) {
+                        agregarLeido(elementos, p_lector.leer(entrada, false));
+                    }
+                }
+            }
+        } catch (ArchivoCorruptoException e) {
+            this.apartarArchivoDanado(archivo, p_descripcion, e);
+        } catch (IOException e) {
+            System.err.println("Error al cargar " + p_descripcion + ": " + e.getMessage());
+        }
+        return elementos;
+    }
+
+    /**
+     * Informa que un archivo de datos está dañado y lo aparta con la extensión
+     * {@code .corrupto} para que el próximo guardado no lo pise.
+     *
+     * @param p_archivo     El archivo dañado.
+     * @param p_descripcion Descripción del contenido (para los mensajes).
+     * @param p_error       El daño encontrado.
+     */
+    private void apartarArchivoDanado(File p_archivo, String p_descripcion, ArchivoCorruptoException p_error) {
+        System.err.println("Error al cargar " + p_descripcion + ": " + p_error.getMessage());
+        File apartado = new File(p_archivo.getPath() + ".corrupto");
+        if (p_archivo.renameTo(apartado)) {
+            System.err.println("Se conservó una copia del archivo dañado en " + apartado.getName());
+        }
+    }
+
+    /**
+     * Agrega un elemento leído a la lista, salvo que el registro se haya
+     * descartado (null).
+     *
+     * @param <T>         Tipo de los elementos.
+     * @param p_elementos La lista de elementos leídos.
+     * @param p_elemento  El elemento leído, o null.
+     */
+    private static <T> void agregarLeido(ArrayList<T> p_elementos, T p_elemento) {
+        if (p_elemento != null) {
+            p_elementos.add(p_elemento);
+        }
+    }
+
+    /**
+     * Decodifica un socio a partir de su registro. En el formato versionado,
+     * los docentes conservan sus devoluciones tardías.
+     *
+     * @param p_registro   Los campos del registro.
+     * @param p_versionado true si el archivo está en el formato versionado;
+     *                     false si está en el anterior.
+     * @return El socio, o null si el tipo de socio es desconocido.
+     * @throws IOException Si el registro está incompleto.
+     */
+    private Socio leerSocio(DataInputStream p_registro, boolean p_versionado) throws IOException {
+        String tipo = p_registro.readUTF();
+        int dni = p_registro.readInt();
+        String nombre = p_registro.readUTF();
+
+        if (tipo.equals("Estudiante")) {
+            return new Estudiante(dni, nombre, p_registro.readUTF());
+        } else if (tipo.equals("Docente")) {
+            Docente docente = new Docente(dni, nombre, p_registro.readUTF());
+            if (p_versionado) {
+                docente.restaurarDevolucionesTardias(p_registro.readInt());
+            }
+            return docente;
+        }
+        return null;
+    }
+
+    /**
+     * Decodifica un libro a partir de su registro. En el formato versionado,
+     * el ejemplar conserva su identificador.
+     *
+     * @param p_registro   Los campos del registro.
+     * @param p_versionado true si el archivo está en el formato versionado;
+     *                     false si está en el anterior.
+     * @return El libro.
+     * @throws IOException Si el registro está incompleto.
+     */
+    private Libro leerLibro(DataInputStream p_registro, boolean p_versionado) throws IOException {
+        String titulo = p_registro.readUTF();
+        int edicion = p_registro.readInt();
+        String editorial = p_registro.readUTF();
+        int anio = p_registro.readInt();
+        Libro libro = new Libro(titulo, edicion, editorial, anio);
+        if (p_versionado) {
+            libro.asignarId(p_registro.readInt());
+        }
+        return libro;
+    }
+
+    /**
+     * Decodifica un préstamo activo a partir de su registro. En el formato
+     * versionado, el préstamo referencia al ejemplar por su identificador y
+     * guarda su vencimiento; en el anterior, referencia al ejemplar por su
+     * título y el vencimiento se calcula al vincularlo.
+     *
+     * @param p_registro   Los campos del registro.
+     * @param p_versionado true si el archivo está en el formato versionado;
+     *                     false si está en el anterior.
+     * @return El préstamo guardado, sin vincular.
+     * @throws IOException Si el registro está incompleto.
+     */
+    private PrestamoGuardado leerPrestamo(DataInputStream p_registro, boolean p_versionado) throws IOException {
+        int dniSocio = p_registro.readInt();
+        if (p_versionado) {
+            int idLibro = p_registro.readInt();
+            int diaRetiro = p_registro.readInt();
+            return new PrestamoGuardado(dniSocio, idLibro, null, diaRetiro, p_registro.readInt());
+        }
+        String titulo = p_registro.readUTF();
+        return new PrestamoGuardado(dniSocio, Libro.SIN_ID, titulo, Fechas.diaEpoch(p_registro.readLong()), 0);
+    }
+
+    /**
+     * Incorpora a la biblioteca los socios leídos.
+     *
+     * @param p_socios Los socios leídos.
+     */
+    private void agregarSocios(ArrayList<Socio> p_socios) {
+        ResultadoLote[] resultados = this.getBiblioteca().nuevosSocios(p_socios);
+        for (int i = 0; i < resultados.length; i++) {
+            // Los registros duplicados se descartan; el resto ya se incorporó
+            if (resultados[i] != ResultadoLote.REALIZADO) {
+                System.err.println("Error al cargar socios: " + resultados[i].getDescripcion()
+                        + " (" + p_socios.get(i).getDniSocio() + ")");
+            }
+        }
+    }
+
+    /**
+     * Incorpora a la biblioteca los libros leídos.
+     *
+     * @param p_libros Los libros leídos.
+     */
+    private void agregarLibros(ArrayList<Libro> p_libros) {
+        this.getBiblioteca().nuevosLibros(p_libros);
+    }
+
+    /**
+     * Re-crea los préstamos activos leídos, vinculándolos con el socio (por
+     * DNI) y con el ejemplar (por identificador), con el vencimiento guardado.
+     * Los préstamos del formato anterior se vinculan con el primer ejemplar
+     * disponible con su título, y su vencimiento se calcula con los días de
+     * préstamo del socio.
+     *
+     * @param p_prestamos Los préstamos leídos.
+     */
+    private void vincularPrestamos(ArrayList<PrestamoGuardado> p_prestamos) {
+        for (PrestamoGuardado unPrestamo : p_prestamos) {
+            Socio unSocio = this.getBiblioteca().buscarSocio(unPrestamo.dniSocio);
+            Libro unLibro;
+            if (unPrestamo.titulo == null) {
+                unLibro = this.getBiblioteca().buscarLibroPorId(unPrestamo.idLibro);
+            } else {
+                unLibro = this.getBiblioteca().buscarLibroDisponible(unPrestamo.titulo);
+            }
+
+            if (unSocio != null && unLibro != null && !unLibro.prestado()) {
+                // Re-crea el préstamo (ya aceptado: no se vuelve a verificar al socio)
+                if (unPrestamo.titulo == null) {
+                    this.getBiblioteca().registrarPrestamo(unPrestamo.diaRetiro, unPrestamo.diaVencimiento,
+                            unSocio, unLibro);
+                } else {
+                    this.getBiblioteca().registrarPrestamo(unPrestamo.diaRetiro, unSocio, unLibro);
+                }
+            }
+        }
+    }
+
+    /**
+     * Acción que decodifica un registro leído de un archivo.
+     *
+     * @param <T> Tipo del elemento decodificado.
+     */
+    private interface LectorRegistro<T> {
+        /**
+         * Decodifica un registro.
+         *
+         * @param p_registro   Los campos del registro.
+         * @param p_versionado true si el archivo está en el formato
+         *                     versionado; false si está en el anterior, sin
+         *                     encabezado.
+         * @return El elemento decodificado, o null si se descarta.
+         * @throws IOException Si el registro está incompleto.
+         */
+        T leer(DataInputStream p_registro, boolean p_versionado) throws IOException;
+    }
+
+    /**
+     * Préstamo activo leído de prestamos.dat, antes de vincularlo con el socio
+     * y el ejemplar.
+     */
+    private static class PrestamoGuardado {
+        /** DNI del socio. */
+        private final int dniSocio;
+        /** Identificador del ejemplar ({@link Libro#SIN_ID} si se usa el título). */
+        private final int idLibro;
+        /** Título del libro (solo en el formato anterior), o null. */
+        private final String titulo;
+        /** Día época de retiro. */
+        private final int diaRetiro;
+        /** Día época de vencimiento (solo en el formato versionado). */
+        private final int diaVencimiento;
+
+        /**
+         * Constructor del préstamo leído.
+         *
+         * @param p_dniSocio       DNI del socio.
+         * @param p_idLibro        Identificador del ejemplar.
+         * @param p_titulo         Título del libro, o null.
+         * @param p_diaRetiro      Día época de retiro.
+         * @param p_diaVencimiento Día época de vencimiento (no se usa si se
+         *                         indica el título).
+         */
+        PrestamoGuardado(int p_dniSocio, int p_idLibro, String p_titulo, int p_diaRetiro, int p_diaVencimiento) {
+            this.dniSocio = p_dniSocio;
+            this.idLibro = p_idLibro;
+            this.titulo = p_titulo;
+            this.diaRetiro = p_diaRetiro;
+            this.diaVencimiento = p_diaVencimiento;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+import java.io.IOException;
+
+/**
+ * Excepción personalizada utilizada para señalar que un archivo de datos está
+ * dañado o incompleto (encabezado inválido, suma de verificación incorrecta o
+ * menos registros que los declarados).
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class ArchivoCorruptoException extends IOException {
+
+    /**
+     * Constructor que acepta un mensaje detallado sobre el error.
+     *
+     * @param message El mensaje de error descriptivo.
+     */
+    public ArchivoCorruptoException(String message) {
+        super(message);
+    }
+}
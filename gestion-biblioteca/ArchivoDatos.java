@@ -0,0 +1,445 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato versionado de los archivos de datos (.dat) de la biblioteca.
+ * <p>
+ * Estructura del archivo:
+ * <ul>
+ * <li>Encabezado (16 bytes): número mágico {@code "BIBL"} (int), versión
+ * (short), tipo de archivo (byte), reservado (byte) y cantidad total de
+ * registros (long).</li>
+ * <li>Bloques de hasta {@link #TAMANIO_BLOQUE} bytes, cada uno con su longitud
+ * (int), su cantidad de registros (int), el CRC32C de su contenido (int) y el
+ * contenido: una sucesión de registros precedidos por su longitud (int).</li>
+ * </ul>
+ * Los registros se leen y escriben por bloques grandes, por lo que no hay una
+ * llamada al sistema por campo. Un bloque dañado o un archivo truncado (con
+ * menos registros que los declarados) se informa con
+ * {@link ArchivoCorruptoException} en lugar de descartarse en silencio.
+ * <p>
+ * Los archivos del formato anterior (sin encabezado) se reconocen con
+ * {@link #esVersionado(File)} para poder seguir leyéndolos.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public final class ArchivoDatos {
+    /** Número mágico del encabezado ("BIBL"). */
+    private static final int MAGIA = 0x4249424C;
+    /** Versión del formato; los archivos de otra versión no se leen. */
+    public static final short VERSION = 1;
+    /** Tamaño del encabezado en bytes. */
+    private static final int TAMANIO_ENCABEZADO = 16;
+    /** Tamaño del encabezado de cada bloque en bytes. */
+    private static final int TAMANIO_ENCABEZADO_BLOQUE = 12;
+    /** Tamaño máximo del contenido de un bloque. */
+    public static final int TAMANIO_BLOQUE = 256 * 1024;
+    /** Tamaño máximo aceptado para un bloque al leer (protege de datos dañados). */
+    private static final int TAMANIO_BLOQUE_MAXIMO = 64 * 1024 * 1024;
+
+    /** Tipo de archivo: socios. */
+    public static final byte SOCIOS = 1;
+    /** Tipo de archivo: libros. */
+    public static final byte LIBROS = 2;
+    /** Tipo de archivo: préstamos activos. */
+    public static final byte PRESTAMOS = 3;
+
+    /**
+     * Constructor privado: clase contenedora, no se instancia.
+     */
+    private ArchivoDatos() {
+    }
+
+    /**
+     * Indica si un archivo está en el formato versionado (comienza con el
+     * número mágico) o en el formato anterior.
+     *
+     * @param p_archivo El archivo a examinar.
+     * @return true si el archivo tiene el encabezado del formato versionado.
+     * @throws IOException Si no se puede leer el archivo.
+     */
+    public static boolean esVersionado(File p_archivo) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new FileInputStream(p_archivo))) {
+            return entrada.readInt() == MAGIA;
+        } catch (EOFException e) {
+            return false; // Archivo vacío o de menos de 4 bytes
+        }
+    }
+
+    /**
+     * Escritor de un archivo de datos. Los registros se acumulan en un bloque
+     * en memoria y se escriben de a un bloque por vez; al cerrar se completa
+     * la cantidad de registros del encabezado y se sincroniza con el disco.
+     */
+    public static class Escritor implements Closeable {
+        /** Flujo del archivo destino. */
+        private final FileOutputStream archivo;
+        /** Canal de escritura del archivo. */
+        private final FileChannel canal;
+        /** Tipo de archivo. */
+        private final byte tipo;
+        /** Registro en construcción (se reutiliza). */
+        private final Bufer registro;
+        /** Escritor de datos sobre {@code registro}. */
+        private final DataOutputStream datos;
+        /** Bloque en construcción: encabezado reservado y registros. */
+        private final Bufer bloque;
+        /** Cantidad de registros del bloque en construcción. */
+        private int registrosEnBloque;
+        /** Cantidad total de registros escritos. */
+        private long total;
+        /** Calculador del CRC de cada bloque. */
+        private final CRC32C crc;
+
+        /**
+         * Crea (o reemplaza) un archivo de datos y escribe su encabezado
+         * provisorio.
+         *
+         * @param p_archivo El archivo destino.
+         * @param p_tipo    El tipo de archivo ({@link ArchivoDatos#SOCIOS}, etc.).
+         * @throws IOException Si no se puede crear el archivo.
+         */
+        public Escritor(File p_archivo, byte p_tipo) throws IOException {
+            this.archivo = new FileOutputStream(p_archivo);
+            this.canal = this.archivo.getChannel();
+            this.tipo = p_tipo;
+            this.registro = new Bufer(256);
+            this.datos = new DataOutputStream(this.registro);
+            this.bloque = new Bufer(TAMANIO_BLOQUE + TAMANIO_ENCABEZADO_BLOQUE);
+            this.bloque.reservar(TAMANIO_ENCABEZADO_BLOQUE);
+            this.crc = new CRC32C();
+            this.escribirEncabezado(-1); // La cantidad se completa al cerrar
+        }
+
+        /**
+         * Comienza un registro nuevo.
+         *
+         * @return El flujo donde escribir los campos del registro.
+         */
+        public DataOutputStream iniciarRegistro() {
+            this.registro.reset();
+            return this.datos;
+        }
+
+        /**
+         * Termina el registro en curso y lo agrega al bloque. Si el bloque se
+         * llena, se escribe en el archivo.
+         *
+         * @throws IOException Si falla la escritura.
+         */
+        public void terminarRegistro() throws IOException {
+            int longitud = this.registro.size();
+            if (this.registrosEnBloque > 0
+                    && this.bloque.size() - TAMANIO_ENCABEZADO_BLOQUE + 4 + longitud > TAMANIO_BLOQUE) {
+                this.escribirBloque();
+            }
+            this.bloque.escribirInt(longitud);
+            this.bloque.write(this.registro.getBytes(), 0, longitud);
+            this.registrosEnBloque++;
+            this.total++;
+        }
+
+        /**
+         * Escribe el último bloque, completa el encabezado con la cantidad de
+         * registros, sincroniza con el disco y cierra el archivo.
+         *
+         * @throws IOException Si falla la escritura.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                if (this.registrosEnBloque > 0) {
+                    this.escribirBloque();
+                }
+                this.canal.position(0);
+                this.escribirEncabezado(this.total);
+                this.canal.force(true);
+            } finally {
+                this.archivo.close();
+            }
+        }
+
+        /**
+         * Escribe el encabezado del archivo en la posición actual del canal.
+         *
+         * @param p_cantidad Cantidad total de registros.
+         * @throws IOException Si falla la escritura.
+         */
+        private void escribirEncabezado(long p_cantidad) throws IOException {
+            ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_ENCABEZADO);
+            encabezado.putInt(MAGIA).putShort(VERSION).put(this.tipo).put((byte) 0).putLong(p_cantidad);
+            encabezado.flip();
+            while (encabezado.hasRemaining()) {
+                this.canal.write(encabezado);
+            }
+        }
+
+        /**
+         * Completa el encabezado del bloque en construcción y lo escribe.
+         *
+         * @throws IOException Si falla la escritura.
+         */
+        private void escribirBloque() throws IOException {
+            byte[] bytes = this.bloque.getBytes();
+            int longitud = this.bloque.size() - TAMANIO_ENCABEZADO_BLOQUE;
+            this.crc.reset();
+            this.crc.update(bytes, TAMANIO_ENCABEZADO_BLOQUE, longitud);
+
+            ByteBuffer salida = ByteBuffer.wrap(bytes, 0, this.bloque.size());
+            salida.putInt(0, longitud).putInt(4, this.registrosEnBloque).putInt(8, (int) this.crc.getValue());
+            while (salida.hasRemaining()) {
+                this.canal.write(salida);
+            }
+
+            this.bloque.reset();
+            this.bloque.reservar(TAMANIO_ENCABEZADO_BLOQUE);
+            this.registrosEnBloque = 0;
+        }
+    }
+
+    /**
+     * Lector de un archivo de datos. Lee un bloque por vez, verifica su CRC y
+     * entrega sus registros de a uno.
+     */
+    public static class Lector implements Closeable {
+        /** Flujo del archivo. */
+        private final DataInputStream entrada;
+        /** Ruta del archivo (para los mensajes de error). */
+        private final String nombre;
+        /** Cantidad de registros declarada en el encabezado. */
+        private final long declarados;
+        /** Cantidad de registros entregados. */
+        private long leidos;
+        /** Contenido del bloque actual. */
+        private byte[] bloque;
+        /** Posición del próximo registro dentro del bloque. */
+        private int posicion;
+        /** Fin del contenido válido del bloque. */
+        private int fin;
+        /** Registros del bloque actual aún no entregados. */
+        private int pendientesEnBloque;
+        /** Flujo reutilizable sobre el registro actual. */
+        private final Registro registro;
+        /** Lector de datos sobre {@code registro}. */
+        private final DataInputStream datos;
+        /** Calculador del CRC de cada bloque. */
+        private final CRC32C crc;
+
+        /**
+         * Abre un archivo de datos y valida su encabezado.
+         *
+         * @param p_archivo El archivo a leer.
+         * @param p_tipo    El tipo de archivo esperado.
+         * @throws IOException Si no se puede leer el archivo, o
+         *                     {@link ArchivoCorruptoException} si el encabezado
+         *                     no es válido.
+         */
+        public Lector(File p_archivo, byte p_tipo) throws IOException {
+            this.nombre = p_archivo.getName();
+            this.entrada = new DataInputStream(new BufferedInputStream(new FileInputStream(p_archivo),
+                    TAMANIO_BLOQUE + TAMANIO_ENCABEZADO_BLOQUE));
+            this.bloque = new byte[0];
+            this.registro = new Registro();
+            this.datos = new DataInputStream(this.registro);
+            this.crc = new CRC32C();
+            try {
+                if (this.entrada.readInt() != MAGIA) {
+                    throw new ArchivoCorruptoException(this.nombre + ": no es un archivo de datos");
+                }
+                short version = this.entrada.readShort();
+                if (version != VERSION) {
+                    throw new ArchivoCorruptoException(this.nombre + ": versión " + version + " no soportada");
+                }
+                if (this.entrada.readByte() != p_tipo) {
+                    throw new ArchivoCorruptoException(this.nombre + ": tipo de archivo incorrecto");
+                }
+                this.entrada.readByte(); // Reservado
+                this.declarados = this.entrada.readLong();
+                if (this.declarados < 0) {
+                    throw new ArchivoCorruptoException(this.nombre + ": el archivo no se terminó de escribir");
+                }
+            } catch (EOFException e) {
+                this.entrada.close();
+                throw new ArchivoCorruptoException(this.nombre + ": encabezado incompleto");
+            } catch (IOException e) {
+                this.entrada.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Obtiene la cantidad de registros declarada en el encabezado.
+         *
+         * @return La cantidad de registros del archivo.
+         */
+        public long getCantidad() {
+            return this.declarados;
+        }
+
+        /**
+         * Obtiene el siguiente registro del archivo.
+         * El flujo devuelto solo es válido hasta la siguiente llamada.
+         *
+         * @return Un flujo con los campos del registro, o null al llegar al
+         *         final del archivo.
+         * @throws IOException Si no se puede leer el archivo, o
+         *                     {@link ArchivoCorruptoException} si un bloque está
+         *                     dañado o faltan registros.
+         */
+        public DataInputStream siguiente() throws IOException {
+            if (this.pendientesEnBloque == 0) {
+                if (this.leidos == this.declarados) {
+                    return null;
+                }
+                this.leerBloque();
+            }
+
+            if (this.fin - this.posicion < 4) {
+                throw new ArchivoCorruptoException(this.nombre + ": registro incompleto");
+            }
+            int longitud = ((this.bloque[this.posicion] & 0xFF) << 24) | ((this.bloque[this.posicion + 1] & 0xFF) << 16)
+                    | ((this.bloque[this.posicion + 2] & 0xFF) << 8) | (this.bloque[this.posicion + 3] & 0xFF);
+            this.posicion += 4;
+            if (longitud < 0 || longitud > this.fin - this.posicion) {
+                throw new ArchivoCorruptoException(this.nombre + ": registro incompleto");
+            }
+
+            this.registro.reiniciar(this.bloque, this.posicion, longitud);
+            this.posicion += longitud;
+            this.pendientesEnBloque--;
+            this.leidos++;
+            return this.datos;
+        }
+
+        /**
+         * Lee el siguiente bloque y verifica su CRC.
+         *
+         * @throws IOException Si falla la lectura o el bloque está dañado.
+         */
+        private void leerBloque() throws IOException {
+            int longitud;
+            int registros;
+            int crcEsperado;
+            try {
+                longitud = this.entrada.readInt();
+                registros = this.entrada.readInt();
+                crcEsperado = this.entrada.readInt();
+                if (longitud <= 0 || longitud > TAMANIO_BLOQUE_MAXIMO || registros <= 0) {
+                    throw new ArchivoCorruptoException(this.nombre + ": bloque inválido tras "
+                            + this.leidos + " registros");
+                }
+                if (this.bloque.length < longitud) {
+                    this.bloque = new byte[longitud];
+                }
+                this.entrada.readFully(this.bloque, 0, longitud);
+            } catch (EOFException e) {
+                throw new ArchivoCorruptoException(this.nombre + ": archivo truncado, se leyeron "
+                        + this.leidos + " de " + this.declarados + " registros");
+            }
+
+            this.crc.reset();
+            this.crc.update(this.bloque, 0, longitud);
+            if ((int) this.crc.getValue() != crcEsperado) {
+                throw new ArchivoCorruptoException(this.nombre + ": CRC incorrecto en el bloque que sigue al registro "
+                        + this.leidos);
+            }
+            this.posicion = 0;
+            this.fin = longitud;
+            this.pendientesEnBloque = registros;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.entrada.close();
+        }
+    }
+
+    /**
+     * Búfer de bytes que expone su arreglo interno para evitar copias.
+     */
+    private static class Bufer extends ByteArrayOutputStream {
+        /**
+         * Constructor con capacidad inicial.
+         *
+         * @param p_capacidad Capacidad inicial en bytes.
+         */
+        Bufer(int p_capacidad) {
+            super(p_capacidad);
+        }
+
+        /**
+         * Obtiene el arreglo interno del búfer.
+         *
+         * @return El arreglo (válido hasta {@link #size()}).
+         */
+        byte[] getBytes() {
+            return this.buf;
+        }
+
+        /**
+         * Reserva espacio (en cero) al final del búfer.
+         *
+         * @param p_cantidad Cantidad de bytes a reservar.
+         */
+        void reservar(int p_cantidad) {
+            for (int i = 0; i < p_cantidad; i++) {
+                this.write(0);
+            }
+        }
+
+        /**
+         * Agrega un int (big-endian) al final del búfer.
+         *
+         * @param p_valor El valor a agregar.
+         */
+        void escribirInt(int p_valor) {
+            this.write(p_valor >>> 24);
+            this.write(p_valor >>> 16);
+            this.write(p_valor >>> 8);
+            this.write(p_valor);
+        }
+    }
+
+    /**
+     * Flujo de lectura reutilizable sobre una porción de un bloque.
+     */
+    private static class Registro extends ByteArrayInputStream {
+        /**
+         * Constructor de un flujo vacío.
+         */
+        Registro() {
+            super(new byte[0]);
+        }
+
+        /**
+         * Apunta el flujo a otra porción de un arreglo.
+         *
+         * @param p_bytes    El arreglo.
+         * @param p_desde    Posición inicial.
+         * @param p_longitud Cantidad de bytes.
+         */
+        void reiniciar(byte[] p_bytes, int p_desde, int p_longitud) {
+            this.buf = p_bytes;
+            this.pos = p_desde;
+            this.count = p_desde + p_longitud;
+            this.mark = p_desde;
+        }
+    }
+}
@@ -1,11 +1,43 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Calendar;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Clase principal que gestiona la lógica de negocio de la biblioteca.
  * Administra las colecciones de {@link Socio} y {@link Libro}, y centraliza
  * las operaciones de préstamo, devolución y generación de informes.
+ * <p>
+ * La biblioteca puede usarse desde varios hilos a la vez (por ejemplo, varios
+ * mostradores de préstamo):
+ * <ul>
+ * <li>Los préstamos, las devoluciones y las consultas toman el cerrojo de la
+ * estructura en modo compartido, por lo que se ejecutan en paralelo.</li>
+ * <li>Cada préstamo o devolución toma además el cerrojo de la franja de su
+ * socio, que protege sus préstamos activos (y con ellos su límite de
+ * préstamos).</li>
+ * <li>El ejemplar se ocupa sin cerrojos, con compare-and-set sobre su préstamo
+ * en curso (ver {@link Libro#abrirPrestamo}): si varios mostradores piden el
+ * mismo ejemplar a la vez, uno lo obtiene y los demás reciben el rechazo sin
+ * quedar bloqueados.</li>
+ * <li>Las altas y bajas, y las copias completas (ver {@link Compactador}),
+ * toman el cerrojo de la estructura en modo exclusivo.</li>
+ * <li>El estado que comparten todos los préstamos (agenda de vencimientos,
+ * docentes sin devoluciones tardías y devoluciones sin guardar) se protege con
+ * el monitor de la instancia, solo durante la actualización.</li>
+ * </ul>
+ * Los listados trabajan sobre copias tomadas con el cerrojo compartido, no
+ * sobre las colecciones que otros hilos modifican.
  *
  * @author Jensen, Lucas
  * @author Romero Lencinas, Santiago
@@ -15,12 +47,65 @@ import java.util.Calendar;
  * @version 1.0 (Inicial)
  */
 public class Biblioteca {
+    /** Cantidad de franjas de cerrojos de socios (potencia de 2). */
+    private static final int CANTIDAD_FRANJAS = 64;
+
+    /**
+     * Cerrojo de la estructura: compartido para préstamos, devoluciones y
+     * consultas; exclusivo para altas, bajas y copias completas.
+     */
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock();
+    /** Cerrojos por franja: cada socio (por DNI) corresponde a una franja. */
+    private final ReentrantLock[] franjas = crearFranjas();
     /** Nombre de la biblioteca. */
     private String nombre;
+    /**
+     * Fuente de la fecha actual. Cada operación consulta el reloj una sola vez;
+     * puede reemplazarse por un reloj fijo para pruebas o reproducciones.
+     */
+    private Clock reloj;
     /** Colección de todos los ejemplares de libros que posee la biblioteca. */
     private ArrayList<Libro> libros;
     /** Colección de todos los socios (Estudiantes y Docentes) registrados. */
     private ArrayList<Socio> socios;
+    /** Índice de socios por DNI para búsquedas en tiempo constante. */
+    private IndiceSocios indiceSocios;
+    /**
+     * Índice del catálogo: asocia cada clave de título normalizada con todos los
+     * ejemplares que comparten ese título.
+     */
+    private HashMap<String, ArrayList<Libro>> indiceTitulos;
+    /**
+     * Índice de ejemplares por identificador: la posición {@code id} contiene
+     * el ejemplar con ese identificador, o null.
+     */
+    private Libro[] librosPorId;
+    /** Próximo identificador a asignar a un ejemplar nuevo. */
+    private int proximoIdLibro;
+    /** Préstamos abiertos ordenados por fecha de vencimiento. */
+    private AgendaVencimientos agendaVencimientos;
+    /** Cantidad de socios de cada tipo, indexada por {@link TipoSocio#ordinal}. */
+    private int[] cantidadesPorTipo;
+    /**
+     * Docentes que nunca devolvieron un libro tarde, en orden de registro.
+     * Son los únicos candidatos a docentes responsables.
+     */
+    private LinkedHashSet<Docente> docentesSinDevolucionesTardias;
+    /**
+     * Diario donde se registra cada modificación antes de aplicarla, o null si
+     * la biblioteca no persiste sus operaciones.
+     */
+    private DiarioOperaciones diario;
+    /**
+     * Historial guardado de préstamos devueltos, o null si la biblioteca no
+     * persiste su historial.
+     */
+    private HistorialPrestamos historial;
+    /**
+     * Préstamos devueltos que todavía no se agregaron al historial guardado,
+     * en orden de devolución.
+     */
+    private ArrayList<Prestamo> devueltosSinGuardar;
 
     /**
      * Constructor para una nueva biblioteca.
@@ -30,8 +115,17 @@ public class Biblioteca {
      */
     public Biblioteca(String p_nombre) {
         this.setNombre(p_nombre);
+        this.setReloj(Clock.systemDefaultZone());
         this.setLibros(new ArrayList<Libro>());
         this.setSocios(new ArrayList<Socio>());
+        this.setIndiceSocios(new IndiceSocios());
+        this.setCantidadesPorTipo(new int[TipoSocio.values().length]);
+        this.setDocentesSinDevolucionesTardias(new LinkedHashSet<Docente>());
+        this.setIndiceTitulos(new HashMap<String, ArrayList<Libro>>());
+        this.setLibrosPorId(new Libro[16]);
+        this.setProximoIdLibro(Libro.SIN_ID + 1);
+        this.setAgendaVencimientos(new AgendaVencimientos());
+        this.setDevueltosSinGuardar(new ArrayList<Prestamo>());
     }
 
     /**
@@ -40,11 +134,36 @@ public class Biblioteca {
      * @param p_nombre El nombre de la biblioteca.
      * @param p_libros La lista inicial de libros.
      * @param p_socios La lista inicial de socios.
+     * @throws SocioExistenteException Si dos socios de la lista tienen el mismo
+     *                                 DNI (como en {@link #agregarSocio}).
      */
-    public Biblioteca(String p_nombre, ArrayList<Libro> p_libros, ArrayList<Socio> p_socios) {
+    public Biblioteca(String p_nombre, ArrayList<Libro> p_libros, ArrayList<Socio> p_socios)
+            throws SocioExistenteException {
         this.setNombre(p_nombre);
+        this.setReloj(Clock.systemDefaultZone());
         this.setLibros(p_libros);
         this.setSocios(p_socios);
+        this.setIndiceSocios(new IndiceSocios());
+        this.setCantidadesPorTipo(new int[TipoSocio.values().length]);
+        this.setDocentesSinDevolucionesTardias(new LinkedHashSet<Docente>());
+        for (Socio unSocio : p_socios) {
+            if (!this.getIndiceSocios().agregar(unSocio)) {
+                throw new SocioExistenteException("Ya existe un socio con el DNI " + unSocio.getDniSocio());
+            }
+            this.getCantidadesPorTipo()[unSocio.getTipo().ordinal()]++;
+            this.seguirDocente(unSocio);
+        }
+        this.setIndiceTitulos(new HashMap<String, ArrayList<Libro>>());
+        this.setLibrosPorId(new Libro[Math.max(16, p_libros.size() + 1)]);
+        this.setProximoIdLibro(Libro.SIN_ID + 1);
+        this.setAgendaVencimientos(new AgendaVencimientos());
+        for (Libro unLibro : p_libros) {
+            this.indexarLibro(unLibro);
+            if (unLibro.prestado()) {
+                this.getAgendaVencimientos().agregar(unLibro.getPrestamoActual());
+            }
+        }
+        this.setDevueltosSinGuardar(new ArrayList<Prestamo>());
     }
 
     /**
@@ -56,6 +175,45 @@ public class Biblioteca {
         this.nombre = p_nombre;
     }
 
+    /**
+     * Establece el reloj utilizado para calcular la fecha actual.
+     *
+     * @param p_reloj El reloj (ej. {@link Clock#systemDefaultZone} o
+     *                {@link Clock#fixed} para fijar la fecha).
+     */
+    public void setReloj(Clock p_reloj) {
+        this.reloj = p_reloj;
+    }
+
+    /**
+     * Establece el diario donde se registran las modificaciones de la
+     * biblioteca. Debe asignarse después de reproducir el diario, para no
+     * volver a registrar las operaciones reproducidas.
+     *
+     * @param p_diario El diario de operaciones, o null para no registrar.
+     */
+    public void setDiario(DiarioOperaciones p_diario) {
+        this.diario = p_diario;
+    }
+
+    /**
+     * Establece el historial guardado de préstamos devueltos.
+     *
+     * @param p_historial El historial, o null si no se persiste.
+     */
+    public void setHistorial(HistorialPrestamos p_historial) {
+        this.historial = p_historial;
+    }
+
+    /**
+     * Establece la lista de préstamos devueltos pendientes de guardar.
+     *
+     * @param p_devueltos Lista de préstamos devueltos.
+     */
+    private void setDevueltosSinGuardar(ArrayList<Prestamo> p_devueltos) {
+        this.devueltosSinGuardar = p_devueltos;
+    }
+
     /**
      * Establece la colección de libros.
      *
@@ -74,6 +232,69 @@ public class Biblioteca {
         this.socios = p_socios;
     }
 
+    /**
+     * Establece el índice de socios por DNI.
+     *
+     * @param p_indiceSocios Índice de socios.
+     */
+    private void setIndiceSocios(IndiceSocios p_indiceSocios) {
+        this.indiceSocios = p_indiceSocios;
+    }
+
+    /**
+     * Establece el índice de títulos del catálogo.
+     *
+     * @param p_indiceTitulos Índice de títulos.
+     */
+    private void setIndiceTitulos(HashMap<String, ArrayList<Libro>> p_indiceTitulos) {
+        this.indiceTitulos = p_indiceTitulos;
+    }
+
+    /**
+     * Establece el índice de ejemplares por identificador.
+     *
+     * @param p_librosPorId Arreglo indexado por identificador.
+     */
+    private void setLibrosPorId(Libro[] p_librosPorId) {
+        this.librosPorId = p_librosPorId;
+    }
+
+    /**
+     * Establece el próximo identificador de ejemplar a asignar.
+     *
+     * @param p_proximoIdLibro El próximo identificador.
+     */
+    private void setProximoIdLibro(int p_proximoIdLibro) {
+        this.proximoIdLibro = p_proximoIdLibro;
+    }
+
+    /**
+     * Establece la agenda de vencimientos de préstamos abiertos.
+     *
+     * @param p_agendaVencimientos Agenda de vencimientos.
+     */
+    private void setAgendaVencimientos(AgendaVencimientos p_agendaVencimientos) {
+        this.agendaVencimientos = p_agendaVencimientos;
+    }
+
+    /**
+     * Establece los contadores de socios por tipo.
+     *
+     * @param p_cantidadesPorTipo Arreglo de contadores indexado por tipo.
+     */
+    private void setCantidadesPorTipo(int[] p_cantidadesPorTipo) {
+        this.cantidadesPorTipo = p_cantidadesPorTipo;
+    }
+
+    /**
+     * Establece el conjunto de docentes sin devoluciones tardías.
+     *
+     * @param p_docentes Conjunto ordenado de docentes.
+     */
+    private void setDocentesSinDevolucionesTardias(LinkedHashSet<Docente> p_docentes) {
+        this.docentesSinDevolucionesTardias = p_docentes;
+    }
+
     /**
      * Obtiene el nombre de la biblioteca.
      *
@@ -84,30 +305,352 @@ public class Biblioteca {
     }
 
     /**
-     * Obtiene la colección de libros de la biblioteca.
+     * Obtiene el reloj utilizado para calcular la fecha actual.
+     *
+     * @return El reloj de la biblioteca.
+     */
+    public Clock getReloj() {
+        return this.reloj;
+    }
+
+    /**
+     * Obtiene el diario de operaciones de la biblioteca.
+     *
+     * @return El diario, o null si no tiene.
+     */
+    public DiarioOperaciones getDiario() {
+        return this.diario;
+    }
+
+    /**
+     * Obtiene el historial guardado de préstamos devueltos.
+     *
+     * @return El historial, o null si no tiene.
+     */
+    public HistorialPrestamos getHistorial() {
+        return this.historial;
+    }
+
+    /**
+     * Obtiene la lista de préstamos devueltos pendientes de guardar.
+     *
+     * @return Lista de préstamos devueltos.
+     */
+    private ArrayList<Prestamo> getDevueltosSinGuardar() {
+        return this.devueltosSinGuardar;
+    }
+
+    /**
+     * Obtiene el día época actual según el reloj de la biblioteca.
+     * Las operaciones lo calculan una vez y lo propagan, de modo que un informe
+     * completo se evalúa contra un único instante.
+     *
+     * @return El día época de hoy.
+     */
+    public int hoy() {
+        return Fechas.hoy(this.getReloj());
+    }
+
+    /**
+     * Obtiene una copia de la colección de libros de la biblioteca, tomada en
+     * un estado coherente. Los cambios posteriores no la afectan.
      *
      * @return Un ArrayList de {@link Libro}.
      */
     public ArrayList<Libro> getLibros() {
-        return this.libros;
+        this.cerrojo.readLock().lock();
+        try {
+            return new ArrayList<Libro>(this.getListaLibros());
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
     }
 
     /**
-     * Obtiene la colección de socios de la biblioteca.
+     * Obtiene una copia de la colección de socios de la biblioteca, tomada en
+     * un estado coherente. Los cambios posteriores no la afectan.
      *
      * @return Un ArrayList de {@link Socio}.
      */
     public ArrayList<Socio> getSocios() {
+        this.cerrojo.readLock().lock();
+        try {
+            return new ArrayList<Socio>(this.getListaSocios());
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene una página de la colección de libros, copiada en un estado
+     * coherente.
+     *
+     * @param p_desde    Posición (desde 0) del primer libro.
+     * @param p_cantidad Cantidad máxima de libros.
+     * @return Los libros de la página (vacía si no hay libros en ese tramo).
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     */
+    public ArrayList<Libro> getLibros(int p_desde, int p_cantidad) {
+        ArrayList<Libro> tramo = new ArrayList<Libro>();
+        this.tramo(this.getListaLibros(), p_desde, p_cantidad, tramo);
+        return tramo;
+    }
+
+    /**
+     * Obtiene una página de la colección de socios, copiada en un estado
+     * coherente.
+     *
+     * @param p_desde    Posición (desde 0) del primer socio.
+     * @param p_cantidad Cantidad máxima de socios.
+     * @return Los socios de la página (vacía si no hay socios en ese tramo).
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     */
+    public ArrayList<Socio> getSocios(int p_desde, int p_cantidad) {
+        ArrayList<Socio> tramo = new ArrayList<Socio>();
+        this.tramo(this.getListaSocios(), p_desde, p_cantidad, tramo);
+        return tramo;
+    }
+
+    /**
+     * Obtiene una página de los títulos únicos del catálogo, en el orden del
+     * índice de títulos. Los títulos se copian con el cerrojo compartido, para
+     * no demorar altas y bajas mientras quien llama los escribe.
+     *
+     * @param p_desde    Posición (desde 0) del primer título.
+     * @param p_cantidad Cantidad máxima de títulos.
+     * @return Los títulos de la página, o null si no hay libros registrados.
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     */
+    public ArrayList<String> getTitulos(int p_desde, int p_cantidad) {
+        verificarTramo(p_desde, p_cantidad);
+        ArrayList<String> titulos = new ArrayList<String>();
+        this.cerrojo.readLock().lock();
+        try {
+            if (this.getListaLibros().isEmpty()) {
+                return null;
+            }
+            int hasta = this.hasta(p_desde, p_cantidad, Integer.MAX_VALUE);
+            int posicion = 0;
+            for (ArrayList<Libro> ejemplares : this.getIndiceTitulos().values()) {
+                for (int i = 0; i < ejemplares.size() && posicion < hasta; i++) {
+                    // Dentro de un grupo pueden convivir títulos que solo difieren en
+                    // mayúsculas; se lista cada variante una única vez
+                    String unTitulo = ejemplares.get(i).getTitulo();
+                    boolean repetido = false;
+                    for (int j = 0; j < i && !repetido; j++) {
+                        repetido = ejemplares.get(j).getTitulo().equals(unTitulo);
+                    }
+                    if (!repetido) {
+                        if (posicion >= p_desde) {
+                            titulos.add(unTitulo);
+                        }
+                        posicion++;
+                    }
+                }
+                if (posicion >= hasta) {
+                    break;
+                }
+            }
+            return titulos;
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene la colección de libros (la propia, no una copia).
+     *
+     * @return Un ArrayList de {@link Libro}.
+     */
+    private ArrayList<Libro> getListaLibros() {
+        return this.libros;
+    }
+
+    /**
+     * Obtiene la colección de socios (la propia, no una copia).
+     *
+     * @return Un ArrayList de {@link Socio}.
+     */
+    private ArrayList<Socio> getListaSocios() {
         return this.socios;
     }
 
+    /**
+     * Obtiene el cerrojo exclusivo de la estructura. Mientras se lo sostiene no
+     * se ejecuta ninguna otra operación sobre la biblioteca, lo que permite
+     * tomar una copia coherente. Uso interno de {@link Compactador}.
+     *
+     * @return El cerrojo exclusivo.
+     */
+    Lock getCerrojoExclusivo() {
+        return this.cerrojo.writeLock();
+    }
+
+    /**
+     * Obtiene el índice de socios por DNI.
+     *
+     * @return El {@link IndiceSocios} de la biblioteca.
+     */
+    private IndiceSocios getIndiceSocios() {
+        return this.indiceSocios;
+    }
+
+    /**
+     * Obtiene el índice de títulos del catálogo.
+     *
+     * @return El mapa de clave de título a ejemplares.
+     */
+    private HashMap<String, ArrayList<Libro>> getIndiceTitulos() {
+        return this.indiceTitulos;
+    }
+
+    /**
+     * Obtiene el índice de ejemplares por identificador.
+     *
+     * @return Arreglo indexado por identificador.
+     */
+    private Libro[] getLibrosPorId() {
+        return this.librosPorId;
+    }
+
+    /**
+     * Obtiene el próximo identificador de ejemplar a asignar.
+     *
+     * @return El próximo identificador.
+     */
+    private int getProximoIdLibro() {
+        return this.proximoIdLibro;
+    }
+
+    /**
+     * Obtiene la agenda de vencimientos de préstamos abiertos.
+     *
+     * @return La {@link AgendaVencimientos} de la biblioteca.
+     */
+    private AgendaVencimientos getAgendaVencimientos() {
+        return this.agendaVencimientos;
+    }
+
+    /**
+     * Obtiene los contadores de socios por tipo.
+     *
+     * @return Arreglo de contadores indexado por {@link TipoSocio#ordinal}.
+     */
+    private int[] getCantidadesPorTipo() {
+        return this.cantidadesPorTipo;
+    }
+
+    /**
+     * Obtiene el conjunto de docentes sin devoluciones tardías.
+     *
+     * @return Conjunto ordenado de docentes candidatos a responsables.
+     */
+    private LinkedHashSet<Docente> getDocentesSinDevolucionesTardias() {
+        return this.docentesSinDevolucionesTardias;
+    }
+
+    /**
+     * Incorpora un socio al seguimiento de docentes responsables si es un
+     * docente sin devoluciones tardías.
+     *
+     * @param p_socio El socio registrado.
+     */
+    private void seguirDocente(Socio p_socio) {
+        if (p_socio instanceof Docente && ((Docente) p_socio).getDevolucionesTardias() == 0) {
+            synchronized (this) {
+                this.getDocentesSinDevolucionesTardias().add((Docente) p_socio);
+            }
+        }
+    }
+
+    /**
+     * Crea los cerrojos de las franjas.
+     *
+     * @return Un cerrojo por franja.
+     */
+    private static ReentrantLock[] crearFranjas() {
+        ReentrantLock[] franjas = new ReentrantLock[CANTIDAD_FRANJAS];
+        for (int i = 0; i < franjas.length; i++) {
+            franjas[i] = new ReentrantLock();
+        }
+        return franjas;
+    }
+
+    /**
+     * Obtiene el cerrojo de la franja de un socio, mezclando los bits del DNI
+     * para repartir documentos consecutivos.
+     *
+     * @param p_socio El socio.
+     * @return El cerrojo de su franja.
+     */
+    private ReentrantLock franjaDe(Socio p_socio) {
+        int h = p_socio.getDniSocio() * 0x9E3779B9;
+        return this.franjas[(h ^ (h >>> 16)) & (CANTIDAD_FRANJAS - 1)];
+    }
+
     /**
      * Añade un libro a la colección de la biblioteca.
+     * Si el ejemplar no tiene identificador (o el suyo ya está en uso), se le
+     * asigna uno nuevo; si lo tiene (ej. al cargarlo desde un archivo), se
+     * conserva.
      *
      * @param p_libro El libro a agregar.
      */
     public void agregarLibro(Libro p_libro) {
-        this.getLibros().add(p_libro);
+        this.cerrojo.writeLock().lock();
+        try {
+            this.incorporarLibro(p_libro);
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Añade varios libros a la colección, tomando el cerrojo exclusivo una
+     * sola vez para todo el lote (ver {@link #agregarLibro}).
+     *
+     * @param p_libros Los libros a agregar.
+     * @return El resultado de cada libro, en el orden recibido:
+     *         {@link ResultadoLote#REALIZADO} o
+     *         {@link ResultadoLote#LIBRO_EXISTENTE} si ese mismo ejemplar ya
+     *         pertenecía a la biblioteca (se omite).
+     */
+    public ResultadoLote[] nuevosLibros(Collection<? extends Libro> p_libros) {
+        ResultadoLote[] resultados = new ResultadoLote[p_libros.size()];
+        this.cerrojo.writeLock().lock();
+        try {
+            this.getListaLibros().ensureCapacity(this.getListaLibros().size() + p_libros.size());
+            int i = 0;
+            for (Libro unLibro : p_libros) {
+                if (this.buscarLibroPorId(unLibro.getId()) == unLibro) {
+                    resultados[i++] = ResultadoLote.LIBRO_EXISTENTE;
+                } else {
+                    this.incorporarLibro(unLibro);
+                    resultados[i++] = ResultadoLote.REALIZADO;
+                }
+            }
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
+        return resultados;
+    }
+
+    /**
+     * Registra un libro en el diario y lo incorpora a la colección y a los
+     * índices. Debe llamarse con el cerrojo exclusivo tomado.
+     *
+     * @param p_libro El libro a agregar.
+     */
+    private void incorporarLibro(Libro p_libro) {
+        this.asegurarIdLibro(p_libro); // El diario registra el identificador
+        if (this.getDiario() != null) {
+            this.getDiario().registrarAltaLibro(p_libro);
+        }
+        this.getListaLibros().add(p_libro);
+        this.indexarLibro(p_libro);
     }
 
     /**
@@ -116,16 +659,238 @@ public class Biblioteca {
      * @param p_libro El libro a quitar.
      */
     public void quitarLibro(Libro p_libro) {
-        this.getLibros().remove(p_libro);
+        this.cerrojo.writeLock().lock();
+        try {
+            if (this.buscarLibroPorId(p_libro.getId()) != p_libro) {
+                return; // No pertenece a la biblioteca
+            }
+            if (this.getDiario() != null) {
+                this.getDiario().registrarBajaLibro(p_libro);
+            }
+            this.getLibrosPorId()[p_libro.getId()] = null;
+            if (this.getListaLibros().remove(p_libro)) {
+                if (p_libro.prestado()) {
+                    synchronized (this) {
+                        this.getAgendaVencimientos().quitar(p_libro.getPrestamoActual());
+                    }
+                }
+                ArrayList<Libro> ejemplares = this.getIndiceTitulos().get(p_libro.getClaveTitulo());
+                if (ejemplares != null) {
+                    ejemplares.remove(p_libro);
+                    if (ejemplares.isEmpty()) {
+                        this.getIndiceTitulos().remove(p_libro.getClaveTitulo());
+                    }
+                }
+            }
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Asigna un identificador nuevo a un ejemplar que no tiene o cuyo
+     * identificador ya está en uso por otro ejemplar.
+     *
+     * @param p_libro El libro a verificar.
+     */
+    private void asegurarIdLibro(Libro p_libro) {
+        Libro actual = this.buscarLibroPorId(p_libro.getId());
+        if (p_libro.getId() <= Libro.SIN_ID || (actual != null && actual != p_libro)) {
+            p_libro.asignarId(this.getProximoIdLibro());
+        }
+    }
+
+    /**
+     * Registra un ejemplar en el índice de títulos y en el índice por
+     * identificador.
+     *
+     * @param p_libro El libro a indexar.
+     */
+    private void indexarLibro(Libro p_libro) {
+        this.asegurarIdLibro(p_libro);
+        int id = p_libro.getId();
+        if (id >= this.getLibrosPorId().length) {
+            int capacidad = Math.max(id + 1, this.getLibrosPorId().length * 2);
+            this.setLibrosPorId(Arrays.copyOf(this.getLibrosPorId(), capacidad));
+        }
+        this.getLibrosPorId()[id] = p_libro;
+        if (id >= this.getProximoIdLibro()) {
+            this.setProximoIdLibro(id + 1);
+        }
+
+        ArrayList<Libro> ejemplares = this.getIndiceTitulos().get(p_libro.getClaveTitulo());
+        if (ejemplares == null) {
+            ejemplares = new ArrayList<Libro>(1);
+            this.getIndiceTitulos().put(p_libro.getClaveTitulo(), ejemplares);
+        }
+        ejemplares.add(p_libro);
+    }
+
+    /**
+     * Busca un ejemplar por su identificador, en tiempo constante.
+     *
+     * @param p_id El identificador del ejemplar.
+     * @return El ejemplar, o null si no existe (o fue dado de baja).
+     */
+    public Libro buscarLibroPorId(int p_id) {
+        this.cerrojo.readLock().lock();
+        try {
+            if (p_id <= Libro.SIN_ID || p_id >= this.getLibrosPorId().length) {
+                return null;
+            }
+            return this.getLibrosPorId()[p_id];
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca un libro por su título.
+     * La búsqueda es insensible a mayúsculas/minúsculas y se resuelve mediante
+     * el índice de títulos.
+     *
+     * @param p_titulo El título del libro a buscar.
+     * @return El primer ejemplar con ese título, o null si no existe.
+     */
+    public Libro buscarLibroPorTitulo(String p_titulo) {
+        String clave = Libro.normalizarTitulo(p_titulo);
+        this.cerrojo.readLock().lock();
+        try {
+            ArrayList<Libro> ejemplares = this.getIndiceTitulos().get(clave);
+            if (ejemplares == null) {
+                return null;
+            }
+            return ejemplares.get(0);
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca un ejemplar disponible (no prestado) de un título, para prestarlo.
+     * Si todos los ejemplares están prestados, devuelve el primero de ellos para
+     * que el préstamo pueda informar el motivo del rechazo.
+     * Con varios hilos, el ejemplar puede prestarse antes de que lo pida quien
+     * llama; {@link #prestarLibro} lo vuelve a verificar.
+     *
+     * @param p_titulo El título del libro a buscar.
+     * @return Un ejemplar disponible, o el primer ejemplar si no hay ninguno
+     *         disponible, o null si el título no existe.
+     */
+    public Libro buscarLibroDisponible(String p_titulo) {
+        String clave = Libro.normalizarTitulo(p_titulo);
+        this.cerrojo.readLock().lock();
+        try {
+            ArrayList<Libro> ejemplares = this.getIndiceTitulos().get(clave);
+            if (ejemplares == null) {
+                return null;
+            }
+            for (Libro unLibro : ejemplares) {
+                if (!unLibro.prestado()) {
+                    return unLibro;
+                }
+            }
+            return ejemplares.get(0);
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Busca un ejemplar prestado de un título, para devolverlo o consultar
+     * quién lo tiene.
+     * Si ningún ejemplar está prestado, devuelve el primero de ellos para que la
+     * operación pueda informar que el libro se encuentra en la biblioteca.
+     *
+     * @param p_titulo El título del libro a buscar.
+     * @return Un ejemplar prestado, o el primer ejemplar si ninguno lo está, o
+     *         null si el título no existe.
+     */
+    public Libro buscarLibroPrestado(String p_titulo) {
+        String clave = Libro.normalizarTitulo(p_titulo);
+        this.cerrojo.readLock().lock();
+        try {
+            ArrayList<Libro> ejemplares = this.getIndiceTitulos().get(clave);
+            if (ejemplares == null) {
+                return null;
+            }
+            for (Libro unLibro : ejemplares) {
+                if (unLibro.prestado()) {
+                    return unLibro;
+                }
+            }
+            return ejemplares.get(0);
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
     }
 
     /**
      * Añade un socio a la colección de la biblioteca.
+     * El DNI es la clave única del socio, por lo que se rechazan duplicados.
      *
      * @param p_socio El socio a agregar.
+     * @throws SocioExistenteException Si ya existe un socio con el mismo DNI.
      */
-    public void agregarSocio(Socio p_socio) {
-        this.getSocios().add(p_socio);
+    public void agregarSocio(Socio p_socio) throws SocioExistenteException {
+        boolean agregado;
+        this.cerrojo.writeLock().lock();
+        try {
+            agregado = this.incorporarSocio(p_socio);
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
+        if (!agregado) {
+            throw new SocioExistenteException("Ya existe un socio con el DNI " + p_socio.getDniSocio());
+        }
+    }
+
+    /**
+     * Añade varios socios a la colección, tomando el cerrojo exclusivo una
+     * sola vez para todo el lote (ver {@link #agregarSocio}). Un DNI repetido
+     * no interrumpe el lote: ese socio se omite y se continúa con el resto.
+     *
+     * @param p_socios Los socios a agregar.
+     * @return El resultado de cada socio, en el orden recibido:
+     *         {@link ResultadoLote#REALIZADO} o
+     *         {@link ResultadoLote#SOCIO_EXISTENTE}.
+     */
+    public ResultadoLote[] nuevosSocios(Collection<? extends Socio> p_socios) {
+        ResultadoLote[] resultados = new ResultadoLote[p_socios.size()];
+        this.cerrojo.writeLock().lock();
+        try {
+            this.getListaSocios().ensureCapacity(this.getListaSocios().size() + p_socios.size());
+            int i = 0;
+            for (Socio unSocio : p_socios) {
+                resultados[i++] = this.incorporarSocio(unSocio) ? ResultadoLote.REALIZADO
+                        : ResultadoLote.SOCIO_EXISTENTE;
+            }
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
+        return resultados;
+    }
+
+    /**
+     * Registra un socio en el diario y lo incorpora a la colección y a los
+     * índices, salvo que su DNI ya exista. Debe llamarse con el cerrojo
+     * exclusivo tomado.
+     *
+     * @param p_socio El socio a agregar.
+     * @return true si se agregó; false si ya existía un socio con su DNI.
+     */
+    private boolean incorporarSocio(Socio p_socio) {
+        if (this.getIndiceSocios().contiene(p_socio.getDniSocio())) {
+            return false;
+        }
+        if (this.getDiario() != null) {
+            this.getDiario().registrarAltaSocio(p_socio);
+        }
+        this.getIndiceSocios().agregar(p_socio);
+        this.getListaSocios().add(p_socio);
+        this.getCantidadesPorTipo()[p_socio.getTipo().ordinal()]++;
+        this.seguirDocente(p_socio);
+        return true;
     }
 
     /**
@@ -134,7 +899,21 @@ public class Biblioteca {
      * @param p_socio El socio a quitar.
      */
     public void quitarSocio(Socio p_socio) {
-        this.getSocios().remove(p_socio);
+        this.cerrojo.writeLock().lock();
+        try {
+            if (this.getDiario() != null && this.getIndiceSocios().buscar(p_socio.getDniSocio()) == p_socio) {
+                this.getDiario().registrarBajaSocio(p_socio);
+            }
+            if (this.getListaSocios().remove(p_socio)) {
+                this.getIndiceSocios().quitar(p_socio.getDniSocio());
+                this.getCantidadesPorTipo()[p_socio.getTipo().ordinal()]--;
+                synchronized (this) {
+                    this.getDocentesSinDevolucionesTardias().remove(p_socio);
+                }
+            }
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
     }
 
     /**
@@ -157,8 +936,10 @@ public class Biblioteca {
      * @param p_dniSocio DNI del estudiante.
      * @param p_nombre   Nombre del estudiante.
      * @param p_carrera  Carrera del estudiante.
+     * @throws SocioExistenteException Si ya existe un socio con el mismo DNI.
      */
-    public void nuevoSocioEstudiante(int p_dniSocio, String p_nombre, String p_carrera) {
+    public void nuevoSocioEstudiante(int p_dniSocio, String p_nombre, String p_carrera)
+            throws SocioExistenteException {
         Estudiante nuevoEstudiante = new Estudiante(p_dniSocio, p_nombre, p_carrera);
         this.agregarSocio(nuevoEstudiante);
     }
@@ -170,8 +951,10 @@ public class Biblioteca {
      * @param p_dniSocio DNI del docente.
      * @param p_nombre   Nombre del docente.
      * @param p_area     Área a la que pertenece el docente.
+     * @throws SocioExistenteException Si ya existe un socio con el mismo DNI.
      */
-    public void nuevoSocioDocente(int p_dniSocio, String p_nombre, String p_area) {
+    public void nuevoSocioDocente(int p_dniSocio, String p_nombre, String p_area)
+            throws SocioExistenteException {
         Docente nuevoDocente = new Docente(p_dniSocio, p_nombre, p_area);
         this.agregarSocio(nuevoDocente);
     }
@@ -182,6 +965,8 @@ public class Biblioteca {
      * libro no esté prestado ({@link Libro#prestado}). Si ambas condiciones se
      * cumplen,
      * crea el {@link Prestamo} y lo asocia tanto al socio como al libro.
+     * La verificación y el registro son atómicos respecto de otros préstamos
+     * y devoluciones del mismo libro o socio.
      *
      * @param p_fechaRetiro La fecha en que se realiza el préstamo.
      * @param p_socio       El socio que solicita el préstamo.
@@ -190,21 +975,156 @@ public class Biblioteca {
      */
     public boolean prestarLibro(Calendar p_fechaRetiro, Socio p_socio,
             Libro p_libro) {
-        boolean prestar = false;
-        if (p_socio.puedePedir() && !p_libro.prestado()) {
-            Prestamo nuevoPrestamo = new Prestamo(p_fechaRetiro, p_socio, p_libro);
-            p_libro.agregarPrestamo(nuevoPrestamo); // Asienta en la ficha del libro
-            p_socio.agregarPrestamo(nuevoPrestamo); // Asienta en la ficha del socio
-            prestar = true;
+        return this.prestarLibro(Fechas.diaEpoch(p_fechaRetiro), p_socio, p_libro);
+    }
+
+    /**
+     * Intenta registrar un nuevo préstamo en un día determinado (ver
+     * {@link #prestarLibro(Calendar, Socio, Libro)}).
+     *
+     * @param p_diaRetiro Día época en que se realiza el préstamo.
+     * @param p_socio     El socio que solicita el préstamo.
+     * @param p_libro     El libro a prestar.
+     * @return true si el préstamo fue exitoso, false en caso contrario.
+     */
+    public boolean prestarLibro(int p_diaRetiro, Socio p_socio, Libro p_libro) {
+        return this.solicitarPrestamo(new Prestamo(p_diaRetiro, p_socio, p_libro)) == ResultadoLote.REALIZADO;
+    }
+
+    /**
+     * Intenta registrar un nuevo préstamo ya armado (ver
+     * {@link #prestarLibro(Calendar, Socio, Libro)}) e informa por qué no se
+     * realizó. El motivo se decide en el mismo momento en que se intenta
+     * ocupar el ejemplar, así que no depende de operaciones posteriores; si se
+     * realizó, el préstamo recibido es el registrado.
+     *
+     * @param p_prestamo El préstamo pedido (día de retiro, socio y libro).
+     * @return {@link ResultadoLote#REALIZADO}, {@link ResultadoLote#LIBRO_PRESTADO},
+     *         {@link ResultadoLote#SOCIO_INHABILITADO}, o
+     *         {@link ResultadoLote#SOCIO_NO_ENCONTRADO} o
+     *         {@link ResultadoLote#LIBRO_NO_ENCONTRADO} si el socio o el libro
+     *         se dieron de baja.
+     */
+    public ResultadoLote solicitarPrestamo(Prestamo p_prestamo) {
+        Socio socio = p_prestamo.getSocio();
+        Libro libro = p_prestamo.getLibro();
+        if (libro.prestado()) {
+            return ResultadoLote.LIBRO_PRESTADO; // Evita esperar el cerrojo del socio por un ejemplar ocupado
+        }
+        ResultadoLote resultado;
+        int hoy = this.hoy();
+        ReentrantLock franjaSocio = this.franjaDe(socio);
+        this.cerrojo.readLock().lock();
+        franjaSocio.lock();
+        try {
+            // El libro y el socio pudieron darse de baja mientras se esperaba
+            if (this.getLibrosPorId().length <= libro.getId() || this.getLibrosPorId()[libro.getId()] != libro) {
+                resultado = ResultadoLote.LIBRO_NO_ENCONTRADO;
+            } else if (this.getIndiceSocios().buscar(socio.getDniSocio()) != socio) {
+                resultado = ResultadoLote.SOCIO_NO_ENCONTRADO;
+            } else if (!socio.puedePedir(hoy)) {
+                resultado = ResultadoLote.SOCIO_INHABILITADO;
+            } else if (this.abrirPrestamo(p_prestamo) == null) {
+                resultado = ResultadoLote.LIBRO_PRESTADO;
+            } else {
+                resultado = ResultadoLote.REALIZADO;
+            }
+        } finally {
+            franjaSocio.unlock();
+            this.cerrojo.readLock().unlock();
         }
-        return prestar;
+        return resultado;
+    }
 
+    /**
+     * Registra un préstamo sin verificar si el socio está habilitado.
+     * Se utiliza para reconstruir préstamos ya aceptados (al cargar los datos o
+     * reproducir el diario); las solicitudes nuevas pasan por
+     * {@link #prestarLibro}. El vencimiento es el que se calculó al prestar,
+     * aunque los días de préstamo del socio hayan cambiado desde entonces.
+     *
+     * @param p_diaRetiro      Día época en que se realizó el préstamo.
+     * @param p_diaVencimiento Día época de vencimiento del préstamo.
+     * @param p_socio          El socio que retira el libro.
+     * @param p_libro          El libro a prestar (no debe estar prestado).
+     * @return El préstamo registrado, o null si el libro ya estaba prestado.
+     */
+    public Prestamo registrarPrestamo(int p_diaRetiro, int p_diaVencimiento, Socio p_socio, Libro p_libro) {
+        return this.restaurarPrestamo(new Prestamo(p_diaRetiro, p_diaVencimiento, p_socio, p_libro));
+    }
+
+    /**
+     * Registra un préstamo del formato anterior, que no guardaba el
+     * vencimiento: se calcula con los días de préstamo actuales del socio. Ver
+     * {@link #registrarPrestamo(int, int, Socio, Libro)}.
+     *
+     * @param p_diaRetiro Día época en que se realizó el préstamo.
+     * @param p_socio     El socio que retira el libro.
+     * @param p_libro     El libro a prestar (no debe estar prestado).
+     * @return El préstamo registrado, o null si el libro ya estaba prestado.
+     */
+    public Prestamo registrarPrestamo(int p_diaRetiro, Socio p_socio, Libro p_libro) {
+        return this.restaurarPrestamo(new Prestamo(p_diaRetiro, p_socio, p_libro));
+    }
+
+    /**
+     * Registra un préstamo ya aceptado, con el cerrojo de la franja del socio.
+     *
+     * @param p_prestamo El préstamo a registrar.
+     * @return El préstamo registrado, o null si el libro ya estaba prestado.
+     */
+    private Prestamo restaurarPrestamo(Prestamo p_prestamo) {
+        ReentrantLock franjaSocio = this.franjaDe(p_prestamo.getSocio());
+        this.cerrojo.readLock().lock();
+        franjaSocio.lock();
+        try {
+            return this.abrirPrestamo(p_prestamo);
+        } finally {
+            franjaSocio.unlock();
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ocupa el ejemplar con un nuevo préstamo y, si lo logra, lo registra en el
+     * diario y lo asienta en el socio y la agenda. Debe llamarse con el cerrojo
+     * de la franja del socio (o el exclusivo) tomado; el ejemplar se ocupa con
+     * compare-and-set (ver {@link Libro#abrirPrestamo}), sin cerrojo propio.
+     * Si el diario falla, el ejemplar se libera y se quita de su ficha antes
+     * de propagar el error, como si el préstamo no se hubiera pedido.
+     *
+     * @param p_prestamo El nuevo préstamo (socio, libro y días).
+     * @return El préstamo registrado, o null si otro préstamo ocupó el
+     *         ejemplar antes.
+     * @throws UncheckedIOException Si no se puede escribir en el diario.
+     */
+    private Prestamo abrirPrestamo(Prestamo p_prestamo) {
+        Libro libro = p_prestamo.getLibro();
+        if (!libro.abrirPrestamo(p_prestamo)) { // Marca el ejemplar y asienta en su ficha
+            return null;
+        }
+        // La devolución de este préstamo espera la franja del socio, por lo que
+        // queda en el diario siempre después del préstamo
+        if (this.getDiario() != null) {
+            try {
+                this.getDiario().registrarPrestamo(p_prestamo);
+            } catch (RuntimeException e) {
+                // Sin registro en el diario el préstamo no existe: se libera el ejemplar
+                libro.quitarPrestamo(p_prestamo);
+                throw e;
+            }
+        }
+        p_prestamo.getSocio().abrirPrestamo(p_prestamo); // Asienta en la ficha del socio
+        synchronized (this) {
+            this.getAgendaVencimientos().agregar(p_prestamo);
+        }
+        return p_prestamo;
     }
 
     /**
      * Registra la devolución de un libro.
-     * Establece la fecha de devolución en el último préstamo del libro con la fecha
-     * actual.
+     * Establece la fecha de devolución en el préstamo en curso del libro con la
+     * fecha actual y deja el ejemplar disponible.
      *
      * @param p_libro El libro que se está devolviendo.
      * @throws LibroNoPrestadoException Si el libro no figura como prestado,
@@ -212,16 +1132,281 @@ public class Biblioteca {
      *                                  un mensaje descriptivo.
      */
     public void devolverLibro(Libro p_libro) throws LibroNoPrestadoException {
-        if (!p_libro.prestado()) {
-            throw new LibroNoPrestadoException("El libro se encuentra en la biblioteca");
+        this.devolverLibro(p_libro, this.hoy());
+    }
+
+    /**
+     * Registra la devolución de un libro en un día determinado.
+     *
+     * @param p_libro El libro que se está devolviendo.
+     * @param p_dia   Día época de la devolución.
+     * @throws LibroNoPrestadoException Si el libro no figura como prestado.
+     */
+    public void devolverLibro(Libro p_libro, int p_dia) throws LibroNoPrestadoException {
+        this.cerrojo.readLock().lock();
+        try {
+            while (true) {
+                Prestamo prestamoActual = p_libro.getPrestamoActual();
+                if (prestamoActual == null) {
+                    throw new LibroNoPrestadoException("El libro se encuentra en la biblioteca");
+                }
+                ReentrantLock franjaSocio = this.franjaDe(prestamoActual.getSocio());
+                franjaSocio.lock();
+                try {
+                    if (p_libro.getPrestamoActual() == prestamoActual) {
+                        this.cerrarPrestamo(p_libro, prestamoActual, p_dia);
+                        return;
+                    }
+                    // Otro hilo cerró (y quizá reabrió) el préstamo mientras se esperaba
+                } finally {
+                    franjaSocio.unlock();
+                }
+            }
+        } finally {
+            this.cerrojo.readLock().unlock();
         }
+    }
+
+    /**
+     * Presta varios libros en un mismo día, tomando el cerrojo exclusivo una
+     * sola vez para todo el lote. Los títulos se resuelven una única vez por
+     * título distinto: los ejemplares disponibles de cada uno se reúnen en la
+     * primera aparición y los pedidos siguientes toman el próximo de ellos.
+     * Cada pedido se verifica como en {@link #prestarLibro}, con el día del
+     * lote; un pedido rechazado no interrumpe el lote. Tampoco lo interrumpe
+     * un préstamo que no pudo registrarse en el diario: ese pedido queda con
+     * {@link ResultadoLote#ERROR_DIARIO} y el ejemplar sigue disponible.
+     *
+     * @param p_pedidos Los pedidos (socio y ejemplar o título).
+     * @param p_dia     Día época de los préstamos; también se verifica con él
+     *                  que cada socio pueda pedir.
+     * @return El resultado de cada pedido, en el orden recibido. Cada pedido
+     *         registra además su resultado y el ejemplar prestado.
+     */
+    public ResultadoLote[] prestarLibros(Collection<PedidoCirculacion> p_pedidos, int p_dia) {
+        ResultadoLote[] resultados = new ResultadoLote[p_pedidos.size()];
+        HashMap<String, ArrayDeque<Libro>> disponibles = new HashMap<String, ArrayDeque<Libro>>();
+        this.cerrojo.writeLock().lock(); // Excluye a todos: no hacen falta las franjas
+        try {
+            int i = 0;
+            for (PedidoCirculacion unPedido : p_pedidos) {
+                Socio socio = this.getIndiceSocios().buscar(unPedido.getDniSocio());
+                ArrayDeque<Libro> libres = this.ejemplares(disponibles, unPedido, false);
+                Libro libro = null;
+                ResultadoLote resultado;
+                if (socio == null) {
+                    resultado = ResultadoLote.SOCIO_NO_ENCONTRADO;
+                } else if (libres == null) {
+                    resultado = ResultadoLote.LIBRO_NO_ENCONTRADO;
+                } else if (libres.isEmpty()) {
+                    resultado = ResultadoLote.LIBRO_PRESTADO;
+                } else if (!socio.puedePedir(p_dia)) {
+                    resultado = ResultadoLote.SOCIO_INHABILITADO;
+                } else {
+                    libro = libres.poll();
+                    try {
+                        this.abrirPrestamo(new Prestamo(p_dia, socio, libro));
+                        resultado = ResultadoLote.REALIZADO;
+                    } catch (UncheckedIOException e) {
+                        System.err.println("No se pudo registrar el préstamo de " + libro.getTitulo()
+                                + " en el diario: " + e.getCause().getMessage());
+                        libres.addFirst(libro);
+                        libro = null;
+                        resultado = ResultadoLote.ERROR_DIARIO;
+                    }
+                }
+                unPedido.resolver(resultado, libro);
+                resultados[i++] = resultado;
+            }
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
+        return resultados;
+    }
+
+    /**
+     * Registra la devolución de varios libros (ej. los del buzón de
+     * devoluciones) en un mismo día, tomando el cerrojo exclusivo una sola vez
+     * para todo el lote. Los títulos se resuelven una única vez por título
+     * distinto; cada aparición devuelve el próximo ejemplar prestado de ese
+     * título, en el mismo orden que {@link #buscarLibroPrestado}. El socio de
+     * los pedidos no se utiliza.
+     *
+     * @param p_pedidos Los pedidos (ejemplar o título devuelto).
+     * @param p_dia     Día época de las devoluciones.
+     * @return El resultado de cada pedido, en el orden recibido. Cada pedido
+     *         registra además su resultado y el ejemplar devuelto.
+     */
+    public ResultadoLote[] devolverLibros(Collection<PedidoCirculacion> p_pedidos, int p_dia) {
+        ResultadoLote[] resultados = new ResultadoLote[p_pedidos.size()];
+        HashMap<String, ArrayDeque<Libro>> prestados = new HashMap<String, ArrayDeque<Libro>>();
+        this.cerrojo.writeLock().lock(); // Excluye a todos: no hacen falta las franjas
+        try {
+            int i = 0;
+            for (PedidoCirculacion unPedido : p_pedidos) {
+                ArrayDeque<Libro> ocupados = this.ejemplares(prestados, unPedido, true);
+                Libro libro = null;
+                ResultadoLote resultado;
+                if (ocupados == null) {
+                    resultado = ResultadoLote.LIBRO_NO_ENCONTRADO;
+                } else if (ocupados.isEmpty()) {
+                    resultado = ResultadoLote.LIBRO_NO_PRESTADO;
+                } else {
+                    libro = ocupados.poll();
+                    try {
+                        this.cerrarPrestamo(libro, libro.getPrestamoActual(), p_dia);
+                        resultado = ResultadoLote.REALIZADO;
+                    } catch (UncheckedIOException e) {
+                        System.err.println("No se pudo registrar la devolución de " + libro.getTitulo()
+                                + " en el diario: " + e.getCause().getMessage());
+                        ocupados.addFirst(libro);
+                        libro = null;
+                        resultado = ResultadoLote.ERROR_DIARIO;
+                    }
+                }
+                unPedido.resolver(resultado, libro);
+                resultados[i++] = resultado;
+            }
+        } finally {
+            this.cerrojo.writeLock().unlock();
+        }
+        return resultados;
+    }
 
-        Calendar fechaHoy = Calendar.getInstance();
-        Prestamo ultimoPrestamo = p_libro.ultimoPrestamo();
-        if (ultimoPrestamo != null) {
-            // Asigna la fecha actual como fecha de devolución
-            ultimoPrestamo.registrarFechaDevolucion(fechaHoy);
+    /**
+     * Obtiene los ejemplares disponibles (o prestados) que corresponden a un
+     * pedido de un lote. Un título se resuelve en el índice de títulos solo la
+     * primera vez que aparece en el lote; un ejemplar pedido por identificador
+     * se consulta en el momento. Debe llamarse con el cerrojo exclusivo
+     * tomado.
+     *
+     * @param p_resueltos Títulos ya resueltos en el lote (clave de título a
+     *                    ejemplares pendientes).
+     * @param p_pedido    El pedido.
+     * @param p_prestados true para obtener los ejemplares prestados; false
+     *                    para los disponibles.
+     * @return Los ejemplares candidatos, con el próximo a usar al frente
+     *         (vacío si no queda ninguno), o null si el libro no existe.
+     */
+    private ArrayDeque<Libro> ejemplares(HashMap<String, ArrayDeque<Libro>> p_resueltos,
+            PedidoCirculacion p_pedido, boolean p_prestados) {
+        if (p_pedido.getTitulo() == null) {
+            Libro libro = this.buscarLibroPorId(p_pedido.getIdLibro());
+            if (libro == null) {
+                return null;
+            }
+            ArrayDeque<Libro> candidato = new ArrayDeque<Libro>(1);
+            if (libro.prestado() == p_prestados) {
+                candidato.add(libro);
+            }
+            return candidato;
         }
+
+        String clave = Libro.normalizarTitulo(p_pedido.getTitulo());
+        ArrayDeque<Libro> pendientes = p_resueltos.get(clave);
+        if (pendientes == null && !p_resueltos.containsKey(clave)) {
+            ArrayList<Libro> ejemplares = this.getIndiceTitulos().get(clave);
+            if (ejemplares != null) {
+                pendientes = new ArrayDeque<Libro>();
+                for (Libro unLibro : ejemplares) {
+                    if (unLibro.prestado() == p_prestados) {
+                        pendientes.add(unLibro);
+                    }
+                }
+            }
+            p_resueltos.put(clave, pendientes); // null: el título no existe
+        }
+        // Un pedido por identificador pudo usar un ejemplar reunido para su título
+        while (pendientes != null && !pendientes.isEmpty() && pendientes.peek().prestado() != p_prestados) {
+            pendientes.poll();
+        }
+        return pendientes;
+    }
+
+    /**
+     * Registra una devolución en el diario y la aplica. Debe llamarse con el
+     * cerrojo de la franja del socio (o el exclusivo) tomado. El ejemplar se
+     * libera al final, para que un nuevo préstamo quede en el diario después
+     * de la devolución.
+     *
+     * @param p_libro          El libro que se está devolviendo.
+     * @param p_prestamoActual Su préstamo en curso.
+     * @param p_dia            Día época de la devolución.
+     * @throws UncheckedIOException Si no se puede escribir en el diario; en
+     *                              ese caso la devolución no se aplica.
+     */
+    private void cerrarPrestamo(Libro p_libro, Prestamo p_prestamoActual, int p_dia) {
+        if (this.getDiario() != null) {
+            this.getDiario().registrarDevolucion(p_prestamoActual, p_dia);
+        }
+        // Asigna la fecha indicada como fecha de devolución
+        p_prestamoActual.registrarDiaDevolucion(p_dia);
+        p_prestamoActual.getSocio().cerrarPrestamo(p_prestamoActual);
+
+        // Una devolución tardía quita definitivamente al docente de los responsables
+        boolean tardia = p_prestamoActual.getSocio() instanceof Docente && p_prestamoActual.vencido(p_dia);
+        if (tardia) {
+            ((Docente) p_prestamoActual.getSocio()).registrarDevolucionTardia();
+        }
+        synchronized (this) {
+            this.getAgendaVencimientos().quitar(p_prestamoActual);
+            this.getDevueltosSinGuardar().add(p_prestamoActual);
+            if (tardia) {
+                this.getDocentesSinDevolucionesTardias().remove(p_prestamoActual.getSocio());
+            }
+        }
+        p_libro.cerrarPrestamo(p_prestamoActual);
+    }
+
+    /**
+     * Toma los préstamos devueltos desde la última vez que se guardó el
+     * historial, para agregarlos al {@link HistorialPrestamos}. Debe llamarse
+     * con el cerrojo exclusivo tomado, junto con la copia de los datos (ver
+     * {@link Compactador}).
+     *
+     * @return Los préstamos devueltos pendientes, en orden de devolución.
+     */
+    synchronized ArrayList<Prestamo> tomarDevueltosSinGuardar() {
+        ArrayList<Prestamo> devueltos = this.getDevueltosSinGuardar();
+        this.setDevueltosSinGuardar(new ArrayList<Prestamo>());
+        return devueltos;
+    }
+
+    /**
+     * Devuelve a la lista de pendientes los préstamos tomados con
+     * {@link #tomarDevueltosSinGuardar()} que no llegaron a guardarse.
+     *
+     * @param p_devueltos Los préstamos que no se guardaron.
+     */
+    synchronized void restituirDevueltos(ArrayList<Prestamo> p_devueltos) {
+        p_devueltos.addAll(this.getDevueltosSinGuardar());
+        this.setDevueltosSinGuardar(p_devueltos);
+    }
+
+    /**
+     * Obtiene todos los préstamos devueltos de un socio: los del historial
+     * guardado (que se lee recién en este momento) y los devueltos desde la
+     * última vez que se guardó.
+     *
+     * @param p_socio El socio a consultar.
+     * @return Los préstamos devueltos del socio, en orden de devolución.
+     * @throws IOException Si no se puede leer el historial guardado.
+     */
+    public ArrayList<Prestamo> historialDePrestamos(Socio p_socio) throws IOException {
+        ArrayList<Prestamo> pendientes;
+        synchronized (this) {
+            pendientes = new ArrayList<Prestamo>(this.getDevueltosSinGuardar());
+        }
+        ArrayList<Prestamo> historial = new ArrayList<Prestamo>();
+        if (this.getHistorial() != null) {
+            historial.addAll(this.getHistorial().prestamosDe(p_socio, this));
+        }
+        for (Prestamo unPrestamo : pendientes) {
+            if (unPrestamo.getSocio() == p_socio) {
+                historial.add(unPrestamo);
+            }
+        }
+        return historial;
     }
 
     /**
@@ -232,50 +1417,81 @@ public class Biblioteca {
      * @return La cantidad de socios de ese tipo.
      */
     public int cantidadDeSociosPorTipo(String p_objeto) {
-        int cantSocios = 0;
-        for (Socio unSocio : this.getSocios()) {
-            if (unSocio.soyDeLaClase().equalsIgnoreCase(p_objeto)) {
-                cantSocios++;
-            }
+        TipoSocio tipo = TipoSocio.desdeNombre(p_objeto);
+        if (tipo == null) {
+            return 0; // Tipo desconocido
         }
+        return this.cantidadDeSociosPorTipo(tipo);
+    }
 
-        return cantSocios;
+    /**
+     * Obtiene la cantidad de socios de un tipo específico.
+     * Se lee de contadores que se mantienen al agregar y quitar socios.
+     *
+     * @param p_tipo El tipo de socio a contar.
+     * @return La cantidad de socios de ese tipo.
+     */
+    public int cantidadDeSociosPorTipo(TipoSocio p_tipo) {
+        this.cerrojo.readLock().lock();
+        try {
+            return this.getCantidadesPorTipo()[p_tipo.ordinal()];
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
     }
 
     /**
      * Obtiene una colección de todos los préstamos activos que están vencidos
-     * a la fecha actual.
+     * a la fecha actual, ordenados por fecha de vencimiento: primero los de
+     * mayor atraso. No siguen el orden de la lista de libros, que exigiría
+     * recorrer todo el catálogo; el orden por vencimiento sale de la agenda.
+     * Se resuelve con la agenda de vencimientos, que solo contiene préstamos no
+     * devueltos, por lo que no se recorre el historial.
      *
      * @return Un ArrayList de {@link Prestamo} vencidos y no devueltos.
      */
     public ArrayList<Prestamo> prestamosVencidos() {
-        ArrayList<Prestamo> vencidos = new ArrayList<Prestamo>();
-        Calendar fechaHoy = Calendar.getInstance();
-        for (Libro unLibro : this.getLibros()) {
-            for (Prestamo unPrestamo : unLibro.getPrestamos()) {
-                // Un préstamo está vencido si la fecha de hoy es posterior a la de vencimiento
-                // Y si aún no ha sido devuelto (fechaDevolucion == null)
-                if (unPrestamo.vencido(fechaHoy) && unPrestamo.getFechaDevolucion() == null) {
-                    vencidos.add(unPrestamo);
-                }
+        int hoy = this.hoy();
+        this.cerrojo.readLock().lock();
+        try {
+            synchronized (this) {
+                // Un préstamo está vencido a partir de su día de vencimiento
+                return this.getAgendaVencimientos().vencidosAl(hoy);
             }
+        } finally {
+            this.cerrojo.readLock().unlock();
         }
-        return vencidos;
     }
 
     /**
      * Obtiene una colección de docentes que son considerados "responsables".
      * Un docente es responsable si nunca ha tenido un préstamo vencido.
+     * Solo se consideran los docentes sin devoluciones tardías, descartando
+     * aquellos que figuran en los préstamos vencidos de la agenda; así no se
+     * evalúa a docentes cuyo estado no pudo haber cambiado.
      *
      * @return Un ArrayList de {@link Docente} responsables.
      */
     public ArrayList<Docente> docentesResponsables() {
-        ArrayList<Docente> docentesResponsables = new ArrayList<Docente>();
-        for (Socio unSocio : this.getSocios()) {
-            if (unSocio instanceof Docente) {
-                if (((Docente) unSocio).esResponsable()) {
-                    docentesResponsables.add((Docente) unSocio);
+        int hoy = this.hoy();
+        HashSet<Socio> conPrestamosVencidos = new HashSet<Socio>();
+        ArrayList<Docente> candidatos;
+        this.cerrojo.readLock().lock();
+        try {
+            synchronized (this) {
+                for (Prestamo unPrestamo : this.getAgendaVencimientos().vencidosAl(hoy)) {
+                    conPrestamosVencidos.add(unPrestamo.getSocio());
                 }
+                candidatos = new ArrayList<Docente>(this.getDocentesSinDevolucionesTardias());
+            }
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+
+        ArrayList<Docente> docentesResponsables = new ArrayList<Docente>();
+        for (Docente unDocente : candidatos) {
+            if (!conPrestamosVencidos.contains(unDocente)) {
+                docentesResponsables.add(unDocente);
             }
         }
         return docentesResponsables;
@@ -290,8 +1506,9 @@ public class Biblioteca {
      *                                  en la biblioteca).
      */
     public String quienTieneElLibro(Libro p_libro) throws LibroNoPrestadoException {
-        if (p_libro.prestado()) {
-            Socio socioConElLibro = p_libro.ultimoPrestamo().getSocio();
+        Prestamo prestamoActual = p_libro.getPrestamoActual(); // Una sola lectura
+        if (prestamoActual != null) {
+            Socio socioConElLibro = prestamoActual.getSocio();
             StringBuilder sb = new StringBuilder();
             sb.append(socioConElLibro.getNombre());
             return sb.toString();
@@ -300,6 +1517,22 @@ public class Biblioteca {
         }
     }
 
+    /**
+     * Busca un socio en la colección por su DNI.
+     * La búsqueda se resuelve en tiempo constante mediante el índice de socios.
+     *
+     * @param p_dni El DNI del socio a buscar.
+     * @return El objeto {@link Socio} si se encuentra, o null si no existe.
+     */
+    public Socio buscarSocio(int p_dni) {
+        this.cerrojo.readLock().lock();
+        try {
+            return this.getIndiceSocios().buscar(p_dni);
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
     /**
      * Genera un informe (String) con el listado completo de socios,
      * siguiendo el "Formato1" especificado. Incluye un resumen
@@ -308,41 +1541,47 @@ public class Biblioteca {
      * @return Un String formateado con la lista de socios.
      */
     public String listaDeSocios() {
-        if (this.getSocios().isEmpty()) {
-            return "No hay socios registrados.";
-        }
-
         StringBuilder sb = new StringBuilder();
-        sb.append("Lista de Socios:\n");
-        int i = 1;
-        for (Socio unSocio : this.getSocios()) {
-            sb.append(i++).append(") ").append(unSocio.toString()).append("\n");
+        try {
+            this.listaDeSocios(sb, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Un StringBuilder no lanza IOException
         }
-
-        // Añade el resumen de cantidades por tipo
-        sb.append("**************************************\n");
-        sb.append("Cantidad de Socios del tipo Estudiante: ")
-                .append(cantidadDeSociosPorTipo("Estudiante")).append("\n");
-        sb.append("Cantidad de Socios del tipo Docente: ")
-                .append(cantidadDeSociosPorTipo("Docente")).append("\n");
-        sb.append("**************************************");
-
         return sb.toString();
     }
 
     /**
-     * Busca un socio en la colección por su DNI.
+     * Escribe el listado de socios ("Formato1") en una salida, fila por fila,
+     * sin armar el informe completo en memoria. Permite paginar el listado;
+     * la numeración de las filas es la misma que en el listado completo.
      *
-     * @param p_dni El DNI del socio a buscar.
-     * @return El objeto {@link Socio} si se encuentra, o null si no existe.
+     * @param p_salida   Destino del informe (ej. StringBuilder o Writer).
+     * @param p_desde    Posición (desde 0) del primer socio a listar.
+     * @param p_cantidad Cantidad máxima de socios a listar.
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     * @throws IOException Si la salida falla al escribir.
      */
-    public Socio buscarSocio(int p_dni) {
-        for (Socio unSocio : this.getSocios()) {
-            if (unSocio.getDniSocio() == p_dni) {
-                return unSocio;
-            }
+    public void listaDeSocios(Appendable p_salida, int p_desde, int p_cantidad) throws IOException {
+        ArrayList<Socio> tramo = new ArrayList<Socio>();
+        if (this.tramo(this.getListaSocios(), p_desde, p_cantidad, tramo) == 0) {
+            p_salida.append("No hay socios registrados.");
+            return;
+        }
+
+        p_salida.append("Lista de Socios:\n");
+        for (int i = 0; i < tramo.size(); i++) {
+            p_salida.append(String.valueOf(p_desde + i + 1)).append(") ")
+                    .append(tramo.get(i).toString()).append("\n");
         }
-        return null;
+
+        // Añade el resumen de cantidades por tipo
+        p_salida.append("**************************************\n");
+        p_salida.append("Cantidad de Socios del tipo Estudiante: ")
+                .append(String.valueOf(cantidadDeSociosPorTipo(TipoSocio.ESTUDIANTE))).append("\n");
+        p_salida.append("Cantidad de Socios del tipo Docente: ")
+                .append(String.valueOf(cantidadDeSociosPorTipo(TipoSocio.DOCENTE))).append("\n");
+        p_salida.append("**************************************");
     }
 
     /**
@@ -352,22 +1591,37 @@ public class Biblioteca {
      * @return Un String formateado con la lista de títulos.
      */
     public String listaDeTitulos() {
-        if (this.getLibros().isEmpty()) {
-            return "No hay títulos registrados.";
+        StringBuilder sb = new StringBuilder();
+        try {
+            this.listaDeTitulos(sb, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Un StringBuilder no lanza IOException
         }
+        return sb.toString();
+    }
 
-        // Utiliza un HashSet para garantizar títulos únicos
-        HashSet<String> titulos = new HashSet<String>();
-        for (Libro unLibro : this.getLibros()) {
-            titulos.add(unLibro.getTitulo());
+    /**
+     * Escribe el listado de títulos únicos en una salida, fila por fila.
+     * Los títulos se obtienen del índice del catálogo, por lo que no es
+     * necesario armar un conjunto con todos ellos.
+     *
+     * @param p_salida   Destino del informe (ej. StringBuilder o Writer).
+     * @param p_desde    Posición (desde 0) del primer título a listar.
+     * @param p_cantidad Cantidad máxima de títulos a listar.
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     * @throws IOException Si la salida falla al escribir.
+     */
+    public void listaDeTitulos(Appendable p_salida, int p_desde, int p_cantidad) throws IOException {
+        ArrayList<String> titulos = this.getTitulos(p_desde, p_cantidad);
+        if (titulos == null) {
+            p_salida.append("No hay títulos registrados.");
+            return;
         }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append("Lista de Títulos Disponibles:\n");
+        p_salida.append("Lista de Títulos Disponibles:\n");
         for (String unTitulo : titulos) {
-            sb.append("- ").append(unTitulo).append("\n");
+            p_salida.append("- ").append(unTitulo).append("\n");
         }
-        return sb.toString();
     }
 
     /**
@@ -377,23 +1631,45 @@ public class Biblioteca {
      * @return Un String formateado con la lista de libros (ejemplares).
      */
     public String listaDeLibros() {
-        if (this.getLibros().isEmpty()) {
-            return "No hay libros registrados.";
+        StringBuilder sb = new StringBuilder();
+        try {
+            this.listaDeLibros(sb, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Un StringBuilder no lanza IOException
         }
+        return sb.toString();
+    }
 
-        StringBuilder listaDeLibros = new StringBuilder();
-        listaDeLibros.append("Lista de Libros:\n");
+    /**
+     * Escribe el listado de ejemplares ("Formato2") en una salida, fila por
+     * fila, sin armar el informe completo en memoria. Permite paginar el
+     * listado; la numeración de las filas es la misma que en el listado
+     * completo.
+     *
+     * @param p_salida   Destino del informe (ej. StringBuilder o Writer).
+     * @param p_desde    Posición (desde 0) del primer libro a listar.
+     * @param p_cantidad Cantidad máxima de libros a listar.
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     * @throws IOException Si la salida falla al escribir.
+     */
+    public void listaDeLibros(Appendable p_salida, int p_desde, int p_cantidad) throws IOException {
+        ArrayList<Libro> tramo = new ArrayList<Libro>();
+        if (this.tramo(this.getListaLibros(), p_desde, p_cantidad, tramo) == 0) {
+            p_salida.append("No hay libros registrados.");
+            return;
+        }
 
-        for (int i = 0; i < this.getLibros().size(); i++) {
-            listaDeLibros.append(i + 1)
+        p_salida.append("Lista de Libros:\n");
+        for (int i = 0; i < tramo.size(); i++) {
+            Libro unLibro = tramo.get(i);
+            p_salida.append(String.valueOf(p_desde + i + 1))
                     .append(") ")
-                    .append(this.getLibros().get(i).toString()) // Formato "Titulo: <titulo>"
+                    .append(unLibro.toString()) // Formato "Titulo: <titulo>"
                     .append(" || Prestado: ")
-                    .append(this.getLibros().get(i).prestado() ? "(Si)" : "(No)")
+                    .append(unLibro.prestado() ? "(Si)" : "(No)")
                     .append("\n");
         }
-
-        return listaDeLibros.toString();
     }
 
     /**
@@ -403,18 +1679,143 @@ public class Biblioteca {
      * @return Un String formateado con la lista de docentes responsables.
      */
     public String listaDeDocentesResponsables() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            this.listaDeDocentesResponsables(sb, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Un StringBuilder no lanza IOException
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Escribe el listado de docentes responsables ("Formato3") en una salida,
+     * fila por fila.
+     *
+     * @param p_salida   Destino del informe (ej. StringBuilder o Writer).
+     * @param p_desde    Posición (desde 0) del primer docente a listar.
+     * @param p_cantidad Cantidad máxima de docentes a listar.
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     * @throws IOException Si la salida falla al escribir.
+     */
+    public void listaDeDocentesResponsables(Appendable p_salida, int p_desde, int p_cantidad)
+            throws IOException {
+        verificarTramo(p_desde, p_cantidad);
         ArrayList<Docente> docentesResponsables = this.docentesResponsables();
 
         if (docentesResponsables.isEmpty()) {
-            return "No hay docentes responsables.";
+            p_salida.append("No hay docentes responsables.");
+            return;
+        }
+
+        p_salida.append("Lista de Docentes Responsables:\n");
+        int hasta = this.hasta(p_desde, p_cantidad, docentesResponsables.size());
+        for (int i = p_desde; i < hasta; i++) {
+            p_salida.append("* ").append(docentesResponsables.get(i).toString()).append("\n");
         }
+    }
 
+    /**
+     * Genera un informe (String) con los préstamos vencidos a la fecha actual,
+     * del de mayor atraso al de menor (ver {@link #prestamosVencidos()}).
+     *
+     * @return Un String formateado con la lista de préstamos vencidos.
+     */
+    public String listaDePrestamosVencidos() {
         StringBuilder sb = new StringBuilder();
-        sb.append("Lista de Docentes Responsables:\n");
-        for (Docente unDocente : docentesResponsables) {
-            sb.append("* ").append(unDocente.toString()).append("\n");
+        try {
+            this.listaDePrestamosVencidos(sb, 0, Integer.MAX_VALUE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Un StringBuilder no lanza IOException
         }
         return sb.toString();
     }
 
+    /**
+     * Escribe el listado de préstamos vencidos en una salida, préstamo por
+     * préstamo, del de mayor atraso al de menor (ver
+     * {@link #prestamosVencidos()}); las páginas ({@code p_desde}) se cuentan en
+     * ese orden. Se reutiliza un único StringBuilder para dar formato a cada
+     * préstamo.
+     *
+     * @param p_salida   Destino del informe (ej. StringBuilder o Writer).
+     * @param p_desde    Posición (desde 0) del primer préstamo a listar.
+     * @param p_cantidad Cantidad máxima de préstamos a listar.
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     * @throws IOException Si la salida falla al escribir.
+     */
+    public void listaDePrestamosVencidos(Appendable p_salida, int p_desde, int p_cantidad)
+            throws IOException {
+        verificarTramo(p_desde, p_cantidad);
+        ArrayList<Prestamo> vencidos = this.prestamosVencidos();
+        if (vencidos.isEmpty()) {
+            p_salida.append("No hay préstamos vencidos a la fecha.");
+            return;
+        }
+
+        p_salida.append("--- PRÉSTAMOS VENCIDOS ---\n\n");
+        StringBuilder fila = new StringBuilder();
+        int hasta = this.hasta(p_desde, p_cantidad, vencidos.size());
+        for (int i = p_desde; i < hasta; i++) {
+            fila.setLength(0);
+            vencidos.get(i).escribirEn(fila).append("\n---------------------------------\n");
+            p_salida.append(fila);
+        }
+    }
+
+    /**
+     * Copia, con el cerrojo compartido, una página de una colección de la
+     * biblioteca.
+     *
+     * @param <T>        Tipo de los elementos.
+     * @param p_lista    La colección (propia de la biblioteca).
+     * @param p_desde    Posición inicial de la página.
+     * @param p_cantidad Cantidad máxima de elementos de la página.
+     * @param p_destino  Lista donde se copian los elementos de la página.
+     * @return La cantidad total de elementos de la colección.
+     * @throws IllegalArgumentException Si {@code p_desde} o {@code p_cantidad}
+     *                                  es negativo.
+     */
+    private <T> int tramo(ArrayList<T> p_lista, int p_desde, int p_cantidad, ArrayList<T> p_destino) {
+        verificarTramo(p_desde, p_cantidad);
+        this.cerrojo.readLock().lock();
+        try {
+            int hasta = this.hasta(p_desde, p_cantidad, p_lista.size());
+            if (p_desde < hasta) {
+                p_destino.addAll(p_lista.subList(p_desde, hasta));
+            }
+            return p_lista.size();
+        } finally {
+            this.cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Verifica los límites de una página pedida a un listado.
+     *
+     * @param p_desde    Posición inicial de la página.
+     * @param p_cantidad Cantidad máxima de filas de la página.
+     * @throws IllegalArgumentException Si alguno de los dos es negativo.
+     */
+    private static void verificarTramo(int p_desde, int p_cantidad) {
+        if (p_desde < 0 || p_cantidad < 0) {
+            throw new IllegalArgumentException(
+                    "Página inválida (desde " + p_desde + ", cantidad " + p_cantidad + ")");
+        }
+    }
+
+    /**
+     * Calcula el límite (exclusivo) de una página de un listado.
+     *
+     * @param p_desde    Posición inicial de la página.
+     * @param p_cantidad Cantidad máxima de filas de la página.
+     * @param p_total    Cantidad total de filas del listado.
+     * @return La posición siguiente a la última fila de la página.
+     */
+    private int hasta(int p_desde, int p_cantidad, int p_total) {
+        return (int) Math.min((long) p_desde + p_cantidad, p_total);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,448 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Compactador del almacenamiento de la {@link Biblioteca}.
+ * Cada cierto tiempo, si el {@link DiarioOperaciones} creció lo suficiente,
+ * guarda una copia completa y nueva de la biblioteca en los archivos .dat y
+ * descarta los tramos del diario que esa copia ya incluye. Así el tamaño del
+ * diario, y con él el tiempo de arranque, se mantienen acotados.
+ * <p>
+ * La copia se toma de un estado coherente: la captura y el corte del diario
+ * se hacen con el cerrojo exclusivo de la biblioteca tomado (que detiene por
+ * un instante sus demás operaciones), pero la escritura en disco se hace
+ * fuera de él, de modo que los préstamos siguen registrándose mientras tanto.
+ * <p>
+ * Los archivos nuevos se escriben primero como temporales ({@code .tmp}). Una
+ * vez sincronizados, se crea atómicamente una marca que indica que la copia
+ * está completa; recién entonces se renombran los temporales y se borran los
+ * tramos del diario. Los préstamos devueltos desde la compactación anterior
+ * se agregan al {@link HistorialPrestamos} antes de crear la marca, y la marca
+ * guarda hasta dónde confirmarlo. Si la aplicación se interrumpe en el medio,
+ * {@link #recuperar()} termina el trabajo (si la marca existe) o lo descarta.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class Compactador {
+    /** Extensión de los archivos temporales. */
+    private static final String TEMPORAL = ".tmp";
+
+    /** La biblioteca a guardar. */
+    private final Biblioteca biblioteca;
+    /** Archivo de socios. */
+    private final File archivoSocios;
+    /** Archivo de libros. */
+    private final File archivoLibros;
+    /** Archivo de préstamos activos. */
+    private final File archivoPrestamos;
+    /** Archivo del diario de operaciones en curso. */
+    private final File archivoDiario;
+    /** Historial de préstamos devueltos, o null si no se guarda. */
+    private final HistorialPrestamos historial;
+    /** Marca que indica que los temporales forman una copia completa. */
+    private final File archivoMarca;
+    /** Milisegundos entre revisiones del tamaño del diario. */
+    private final long intervalo;
+    /** Tamaño del diario (en bytes) a partir del cual se compacta. */
+    private final long umbral;
+    /** Hilo que compacta periódicamente, o null si no fue iniciado. */
+    private Thread hilo;
+
+    /**
+     * Constructor del compactador.
+     *
+     * @param p_biblioteca       La biblioteca a guardar.
+     * @param p_archivoSocios    Ruta del archivo de socios.
+     * @param p_archivoLibros    Ruta del archivo de libros.
+     * @param p_archivoPrestamos Ruta del archivo de préstamos activos.
+     * @param p_archivoDiario    Ruta del diario de operaciones en curso.
+     * @param p_historial        Historial de préstamos devueltos, o null.
+     * @param p_intervalo        Milisegundos entre revisiones del diario.
+     * @param p_umbral           Tamaño del diario (bytes) que dispara la
+     *                           compactación.
+     */
+    public Compactador(Biblioteca p_biblioteca, String p_archivoSocios, String p_archivoLibros,
+            String p_archivoPrestamos, String p_archivoDiario, HistorialPrestamos p_historial, long p_intervalo,
+            long p_umbral) {
+        this.biblioteca = p_biblioteca;
+        this.archivoSocios = new File(p_archivoSocios);
+        this.archivoLibros = new File(p_archivoLibros);
+        this.archivoPrestamos = new File(p_archivoPrestamos);
+        this.archivoDiario = new File(p_archivoDiario);
+        this.historial = p_historial;
+        this.archivoMarca = new File(p_archivoDiario + ".compactado");
+        this.intervalo = p_intervalo;
+        this.umbral = p_umbral;
+    }
+
+    /**
+     * Completa o descarta una compactación interrumpida. Debe llamarse antes
+     * de cargar los archivos .dat.
+     *
+     * @throws IOException Si no se puede completar la compactación pendiente.
+     */
+    public synchronized void recuperar() throws IOException {
+        if (this.archivoMarca.exists()) {
+            // La copia nueva estaba completa: se termina de instalar
+            int segmento;
+            long longitudHistorial = -1;
+            try (DataInputStream entrada = new DataInputStream(new FileInputStream(this.archivoMarca))) {
+                segmento = entrada.readInt();
+                if (entrada.available() >= 8) {
+                    longitudHistorial = entrada.readLong();
+                }
+            }
+            this.instalar(segmento, longitudHistorial);
+        } else {
+            // La copia nueva no llegó a completarse: se descarta
+            for (File unArchivo : this.temporales()) {
+                unArchivo.delete();
+            }
+        }
+    }
+
+    /**
+     * Inicia el hilo que compacta periódicamente.
+     */
+    public synchronized void iniciar() {
+        if (this.hilo != null) {
+            return;
+        }
+        this.hilo = new Thread(this::compactarPeriodicamente, "compactador");
+        this.hilo.setDaemon(true);
+        this.hilo.start();
+    }
+
+    /**
+     * Detiene el hilo de compactación periódica, esperando a que termine la
+     * compactación en curso (si la hay).
+     */
+    public void detener() {
+        Thread actual;
+        synchronized (this) {
+            actual = this.hilo;
+            this.hilo = null;
+            this.notifyAll();
+        }
+        if (actual != null) {
+            // Sin interrupt(): interrumpir un hilo cierra los canales que está usando
+            try {
+                actual.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Guarda una copia completa de la biblioteca y descarta los tramos del
+     * diario que ya incluye.
+     *
+     * @return true si la copia se guardó correctamente.
+     */
+    public synchronized boolean compactar() {
+        Instantanea instantanea;
+        ArrayList<Prestamo> devueltos;
+        int segmento = -1;
+        DiarioOperaciones diario = this.biblioteca.getDiario();
+        Lock cerrojo = this.biblioteca.getCerrojoExclusivo();
+        cerrojo.lock();
+        try {
+            // Captura y corte del diario en el mismo instante lógico
+            instantanea = new Instantanea(this.biblioteca);
+            devueltos = this.biblioteca.tomarDevueltosSinGuardar();
+            if (diario != null) {
+                try {
+                    segmento = diario.rotar();
+                } catch (IOException e) {
+                    System.err.println("Error al rotar el diario de operaciones: " + e.getMessage());
+                    this.biblioteca.restituirDevueltos(devueltos);
+                    return false;
+                }
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+
+        try {
+            this.escribirSocios(instantanea, temporal(this.archivoSocios));
+            this.escribirLibros(instantanea, temporal(this.archivoLibros));
+            this.escribirPrestamos(instantanea, temporal(this.archivoPrestamos));
+            long longitudHistorial = -1;
+            if (this.historial != null) {
+                longitudHistorial = this.historial.agregar(devueltos);
+            }
+
+            // Punto de confirmación: la marca se crea atómicamente
+            File marcaTemporal = temporal(this.archivoMarca);
+            try (FileOutputStream salida = new FileOutputStream(marcaTemporal)) {
+                DataOutputStream datos = new DataOutputStream(salida);
+                datos.writeInt(segmento);
+                datos.writeLong(longitudHistorial);
+                datos.flush();
+                salida.getFD().sync();
+            }
+            mover(marcaTemporal, this.archivoMarca);
+
+            this.instalar(segmento, longitudHistorial);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error al compactar los datos: " + e.getMessage());
+            if (!this.archivoMarca.exists()) {
+                for (File unArchivo : this.temporales()) {
+                    unArchivo.delete();
+                }
+                // Los devueltos se guardarán en la próxima compactación
+                this.biblioteca.restituirDevueltos(devueltos);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Ciclo del hilo de compactación: revisa el tamaño del diario en cada
+     * intervalo y compacta cuando supera el umbral.
+     */
+    private void compactarPeriodicamente() {
+        while (true) {
+            synchronized (this) {
+                try {
+                    if (this.hilo == Thread.currentThread()) {
+                        this.wait(this.intervalo);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (this.hilo != Thread.currentThread()) {
+                    return; // Detenido
+                }
+            }
+            DiarioOperaciones diario = this.biblioteca.getDiario();
+            if (diario != null && diario.getTamanio() >= this.umbral) {
+                this.compactar();
+            }
+        }
+    }
+
+    /**
+     * Instala una copia confirmada: renombra los temporales sobre los archivos
+     * definitivos, confirma el bloque agregado al historial, borra los tramos
+     * del diario incluidos y luego la marca.
+     * Puede repetirse sin efectos adicionales.
+     *
+     * @param p_segmento          Último tramo del diario incluido en la copia
+     *                            (-1 si ninguno).
+     * @param p_longitudHistorial Longitud del historial a confirmar (-1 si no
+     *                            se guarda).
+     * @throws IOException Si falla algún renombre.
+     */
+    private void instalar(int p_segmento, long p_longitudHistorial) throws IOException {
+        File[] definitivos = { this.archivoSocios, this.archivoLibros, this.archivoPrestamos };
+        for (File unArchivo : definitivos) {
+            File temporal = temporal(unArchivo);
+            if (temporal.exists()) {
+                mover(temporal, unArchivo);
+            }
+        }
+        if (this.historial != null && p_longitudHistorial >= 0) {
+            this.historial.confirmar(p_longitudHistorial);
+        }
+        for (File unSegmento : DiarioOperaciones.segmentos(this.archivoDiario.getPath())) {
+            if (DiarioOperaciones.numeroDeSegmento(unSegmento) <= p_segmento) {
+                unSegmento.delete();
+            }
+        }
+        this.archivoMarca.delete();
+    }
+
+    /**
+     * Obtiene los archivos temporales de una compactación.
+     *
+     * @return Los temporales de los archivos de datos y de la marca.
+     */
+    private File[] temporales() {
+        return new File[] { temporal(this.archivoSocios), temporal(this.archivoLibros),
+                temporal(this.archivoPrestamos), temporal(this.archivoMarca) };
+    }
+
+    /**
+     * Obtiene el archivo temporal correspondiente a un archivo definitivo.
+     *
+     * @param p_archivo El archivo definitivo.
+     * @return Su archivo temporal.
+     */
+    private static File temporal(File p_archivo) {
+        return new File(p_archivo.getPath() + TEMPORAL);
+    }
+
+    /**
+     * Renombra un archivo de forma atómica, reemplazando el destino.
+     *
+     * @param p_origen  El archivo a renombrar.
+     * @param p_destino El nuevo nombre.
+     * @throws IOException Si falla el renombre.
+     */
+    private static void mover(File p_origen, File p_destino) throws IOException {
+        Files.move(p_origen.toPath(), p_destino.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Escribe los socios de la copia (en el formato versionado de socios.dat).
+     * Los docentes incluyen sus devoluciones tardías.
+     *
+     * @param p_instantanea La copia.
+     * @param p_archivo     El archivo destino.
+     * @throws IOException Si falla la escritura.
+     */
+    private void escribirSocios(Instantanea p_instantanea, File p_archivo) throws IOException {
+        try (ArchivoDatos.Escritor escritor = new ArchivoDatos.Escritor(p_archivo, ArchivoDatos.SOCIOS)) {
+            for (int i = 0; i < p_instantanea.socios.size(); i++) {
+                Socio unSocio = p_instantanea.socios.get(i);
+                DataOutputStream dosSocios = escritor.iniciarRegistro();
+                dosSocios.writeUTF(unSocio.soyDeLaClase()); // Identificador de tipo
+                dosSocios.writeInt(unSocio.getDniSocio());
+                dosSocios.writeUTF(unSocio.getNombre());
+
+                // Guarda el atributo específico de la subclase
+                if (unSocio instanceof Estudiante) {
+                    dosSocios.writeUTF(((Estudiante) unSocio).getCarrera());
+                } else if (unSocio instanceof Docente) {
+                    dosSocios.writeUTF(((Docente) unSocio).getArea());
+                    dosSocios.writeInt(p_instantanea.devolucionesTardias[i]);
+                }
+                escritor.terminarRegistro();
+            }
+        }
+    }
+
+    /**
+     * Escribe los libros de la copia (en el formato versionado de libros.dat).
+     * Cada libro incluye su identificador.
+     *
+     * @param p_instantanea La copia.
+     * @param p_archivo     El archivo destino.
+     * @throws IOException Si falla la escritura.
+     */
+    private void escribirLibros(Instantanea p_instantanea, File p_archivo) throws IOException {
+        try (ArchivoDatos.Escritor escritor = new ArchivoDatos.Escritor(p_archivo, ArchivoDatos.LIBROS)) {
+            for (Libro unLibro : p_instantanea.libros) {
+                DataOutputStream dosLibros = escritor.iniciarRegistro();
+                dosLibros.writeUTF(unLibro.getTitulo());
+                dosLibros.writeInt(unLibro.getEdicion());
+                dosLibros.writeUTF(unLibro.getEditorial());
+                dosLibros.writeInt(unLibro.getAnio());
+                dosLibros.writeInt(unLibro.getId());
+                escritor.terminarRegistro();
+            }
+        }
+    }
+
+    /**
+     * Escribe los préstamos activos de la copia (en el formato versionado de
+     * prestamos.dat). Cada préstamo se vincula con el ejemplar por su
+     * identificador y guarda los días época de retiro y de vencimiento.
+     *
+     * @param p_instantanea La copia.
+     * @param p_archivo     El archivo destino.
+     * @throws IOException Si falla la escritura.
+     */
+    private void escribirPrestamos(Instantanea p_instantanea, File p_archivo) throws IOException {
+        try (ArchivoDatos.Escritor escritor = new ArchivoDatos.Escritor(p_archivo, ArchivoDatos.PRESTAMOS)) {
+            for (int i = 0; i < p_instantanea.cantidadPrestamos; i++) {
+                DataOutputStream dosPrestamos = escritor.iniciarRegistro();
+                dosPrestamos.writeInt(p_instantanea.dniPrestamos[i]); // DNI para vincular al Socio
+                dosPrestamos.writeInt(p_instantanea.idPrestamos[i]); // Identificador del ejemplar
+                dosPrestamos.writeInt(p_instantanea.diaPrestamos[i]);
+                dosPrestamos.writeInt(p_instantanea.vencimientoPrestamos[i]);
+                escritor.terminarRegistro();
+            }
+        }
+    }
+
+    /**
+     * Copia del estado de la biblioteca en un instante. Los datos de socios y
+     * libros que se guardan no cambian, por lo que basta copiar las
+     * referencias; los préstamos activos y las devoluciones tardías de los
+     * docentes sí cambian y se copian sus valores.
+     */
+    private static class Instantanea {
+        /** Socios registrados. */
+        private final ArrayList<Socio> socios;
+        /** Libros registrados. */
+        private final ArrayList<Libro> libros;
+        /** Devoluciones tardías de cada socio (0 si no es docente). */
+        private final int[] devolucionesTardias;
+        /** DNI del socio de cada préstamo activo. */
+        private int[] dniPrestamos;
+        /** Identificador del ejemplar de cada préstamo activo. */
+        private int[] idPrestamos;
+        /** Día época de retiro de cada préstamo activo. */
+        private int[] diaPrestamos;
+        /** Día época de vencimiento de cada préstamo activo. */
+        private int[] vencimientoPrestamos;
+        /** Cantidad de préstamos activos. */
+        private int cantidadPrestamos;
+
+        /**
+         * Captura el estado de la biblioteca. Debe llamarse con el cerrojo
+         * exclusivo de la biblioteca tomado.
+         *
+         * @param p_biblioteca La biblioteca.
+         */
+        Instantanea(Biblioteca p_biblioteca) {
+            this.socios = p_biblioteca.getSocios(); // Copias
+            this.libros = p_biblioteca.getLibros();
+            this.devolucionesTardias = new int[this.socios.size()];
+            for (int i = 0; i < this.socios.size(); i++) {
+                if (this.socios.get(i) instanceof Docente) {
+                    this.devolucionesTardias[i] = ((Docente) this.socios.get(i)).getDevolucionesTardias();
+                }
+            }
+            this.dniPrestamos = new int[16];
+            this.idPrestamos = new int[16];
+            this.diaPrestamos = new int[16];
+            this.vencimientoPrestamos = new int[16];
+            for (Libro unLibro : this.libros) {
+                Prestamo prestamo = unLibro.getPrestamoActual();
+                if (prestamo != null) {
+                    this.agregarPrestamo(prestamo);
+                }
+            }
+        }
+
+        /**
+         * Copia los valores de un préstamo activo.
+         *
+         * @param p_prestamo El préstamo.
+         */
+        private void agregarPrestamo(Prestamo p_prestamo) {
+            if (this.cantidadPrestamos == this.dniPrestamos.length) {
+                int capacidad = this.cantidadPrestamos * 2;
+                this.dniPrestamos = Arrays.copyOf(this.dniPrestamos, capacidad);
+                this.idPrestamos = Arrays.copyOf(this.idPrestamos, capacidad);
+                this.diaPrestamos = Arrays.copyOf(this.diaPrestamos, capacidad);
+                this.vencimientoPrestamos = Arrays.copyOf(this.vencimientoPrestamos, capacidad);
+            }
+            this.dniPrestamos[this.cantidadPrestamos] = p_prestamo.getSocio().getDniSocio();
+            this.idPrestamos[this.cantidadPrestamos] = p_prestamo.getLibro().getId();
+            this.diaPrestamos[this.cantidadPrestamos] = p_prestamo.getDiaRetiro();
+            this.vencimientoPrestamos[this.cantidadPrestamos] = p_prestamo.getDiaVencimiento();
+            this.cantidadPrestamos++;
+        }
+    }
+}
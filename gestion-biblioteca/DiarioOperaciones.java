@@ -0,0 +1,568 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32C;
+
+/**
+ * Diario de operaciones (registro de escritura anticipada) de la
+ * {@link Biblioteca}.
+ * Cada alta, baja, préstamo y devolución se agrega al final del archivo del
+ * diario antes de aplicarse en memoria, de modo que una caída de la aplicación
+ * no pierde la sesión: al iniciar, el diario se reproduce sobre la última
+ * copia completa guardada en los archivos .dat.
+ * <p>
+ * Cada registro se escribe al sistema operativo en el momento (unos pocos
+ * microsegundos). La sincronización con el disco ({@code fsync}) se hace en
+ * grupo: un hilo en segundo plano sincroniza cada cierto intervalo todos los
+ * registros acumulados. Con un intervalo de 0 cada registro se sincroniza
+ * antes de continuar.
+ * <p>
+ * Formato de cada registro: longitud (int), CRC32C del contenido (int) y el
+ * contenido (tipo de operación y sus datos). Los ejemplares se identifican
+ * por su identificador numérico ({@link Libro#getId()}). Un registro
+ * incompleto o dañado al final del archivo (escritura interrumpida) se
+ * descarta al reproducir.
+ * <p>
+ * El diario puede cortarse en tramos ({@link #rotar()}): el archivo en curso se
+ * sella con un número ({@code diario.dat.1}, {@code diario.dat.2}, ...) y se
+ * continúa en un archivo vacío. Los tramos sellados se descartan cuando una
+ * copia completa los incluye (ver {@link Compactador}).
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class DiarioOperaciones {
+    /** Alta de un {@link Estudiante}. */
+    private static final byte ALTA_ESTUDIANTE = 1;
+    /** Alta de un {@link Docente}. */
+    private static final byte ALTA_DOCENTE = 2;
+    // Los tipos 3, 4, 5 y 7 identificaban el libro por título y ya no se usan
+    /** Baja de un socio. */
+    private static final byte BAJA_SOCIO = 6;
+    /** Alta de un ejemplar con su identificador. */
+    private static final byte ALTA_EJEMPLAR = 8;
+    /** Préstamo de un ejemplar (por identificador). */
+    private static final byte PRESTAMO_EJEMPLAR = 9;
+    /** Devolución de un ejemplar (por identificador). */
+    private static final byte DEVOLUCION_EJEMPLAR = 10;
+    /** Baja de un ejemplar (por identificador). */
+    private static final byte BAJA_EJEMPLAR = 11;
+
+    /** Longitud máxima aceptada para un registro (protege de datos dañados). */
+    private static final int LONGITUD_MAXIMA = 1 << 20;
+
+    /** Archivo del diario. */
+    private final File archivo;
+    /** Canal de escritura del diario. */
+    private FileChannel canal;
+    /** Intervalo (en milisegundos) entre sincronizaciones con el disco. */
+    private final long intervaloSincronizacion;
+    /** Contenido del registro en construcción (se reutiliza). */
+    private final Contenido contenido;
+    /** Escritor de datos sobre {@code contenido}. */
+    private final DataOutputStream datos;
+    /** Encabezado y contenido del registro listo para escribir (se reutiliza). */
+    private ByteBuffer registro;
+    /** Calculador del CRC de cada registro (se reutiliza). */
+    private final CRC32C crc;
+    /** Indica si hay registros escritos aún no sincronizados con el disco. */
+    private boolean pendiente;
+    /** Indica si el diario fue cerrado. */
+    private boolean cerrado;
+    /** Indica si quedó un registro a medio escribir que no se pudo descartar. */
+    private boolean danado;
+    /** Hilo que sincroniza en grupo los registros pendientes. */
+    private Thread sincronizador;
+
+    /**
+     * Abre (o crea) el diario. No escribe nada hasta reproducir su contenido
+     * con {@link #reproducirEn(Biblioteca)}.
+     *
+     * @param p_archivo                 Ruta del archivo del diario.
+     * @param p_intervaloSincronizacion Milisegundos entre sincronizaciones con
+     *                                  el disco; 0 sincroniza cada registro.
+     * @throws IOException Si no se puede abrir el archivo.
+     */
+    public DiarioOperaciones(String p_archivo, long p_intervaloSincronizacion) throws IOException {
+        this.archivo = new File(p_archivo);
+        this.canal = new RandomAccessFile(this.archivo, "rw").getChannel();
+        this.intervaloSincronizacion = p_intervaloSincronizacion;
+        this.contenido = new Contenido();
+        this.datos = new DataOutputStream(this.contenido);
+        this.registro = ByteBuffer.allocate(512);
+        this.crc = new CRC32C();
+    }
+
+    /**
+     * Reproduce las operaciones del diario sobre una biblioteca (normalmente la
+     * recién cargada desde los archivos .dat) y deja el diario listo para
+     * agregar operaciones nuevas. Un registro final incompleto se descarta.
+     * La biblioteca no debe tener asignado este diario mientras se reproduce.
+     *
+     * @param p_biblioteca La biblioteca sobre la cual aplicar las operaciones.
+     * @return La cantidad de operaciones reproducidas.
+     * @throws IOException Si falla la lectura del diario.
+     */
+    public synchronized int reproducirEn(Biblioteca p_biblioteca) throws IOException {
+        int reproducidas = 0;
+        long valido = 0; // Posición siguiente al último registro íntegro
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(this.archivo), 64 * 1024))) {
+            byte[] bytes = new byte[256];
+            while (true) {
+                int longitud;
+                int crcEsperado;
+                try {
+                    longitud = entrada.readInt();
+                    crcEsperado = entrada.readInt();
+                    if (longitud <= 0 || longitud > LONGITUD_MAXIMA) {
+                        break; // Encabezado dañado
+                    }
+                    if (bytes.length < longitud) {
+                        bytes = new byte[Math.max(longitud, bytes.length * 2)];
+                    }
+                    entrada.readFully(bytes, 0, longitud);
+                } catch (EOFException e) {
+                    break; // Fin del diario (o registro incompleto)
+                }
+
+                this.crc.reset();
+                this.crc.update(bytes, 0, longitud);
+                if ((int) this.crc.getValue() != crcEsperado) {
+                    break; // Registro dañado: se descarta junto con lo que sigue
+                }
+
+                this.aplicar(new DataInputStream(new ByteArrayInputStream(bytes, 0, longitud)), p_biblioteca);
+                valido += 8 + longitud;
+                reproducidas++;
+            }
+        }
+
+        // Descarta la cola dañada y continúa escribiendo a partir de allí
+        if (this.canal.size() > valido) {
+            System.err.println("Diario: se descartaron " + (this.canal.size() - valido)
+                    + " bytes de un registro incompleto.");
+            this.canal.truncate(valido);
+        }
+        this.canal.position(valido);
+        this.iniciarSincronizador();
+        return reproducidas;
+    }
+
+    /**
+     * Aplica una operación leída del diario sobre la biblioteca.
+     * Las operaciones que ya no pueden aplicarse (por ejemplo, un socio que
+     * ya existe en la copia guardada) se informan y se omiten.
+     *
+     * @param p_entrada    Contenido del registro.
+     * @param p_biblioteca La biblioteca sobre la cual aplicar la operación.
+     * @throws IOException Si el contenido del registro no es válido.
+     */
+    private void aplicar(DataInputStream p_entrada, Biblioteca p_biblioteca) throws IOException {
+        byte tipo = p_entrada.readByte();
+        try {
+            if (tipo == ALTA_ESTUDIANTE) {
+                int dni = p_entrada.readInt();
+                String nombre = p_entrada.readUTF();
+                p_biblioteca.nuevoSocioEstudiante(dni, nombre, p_entrada.readUTF());
+            } else if (tipo == ALTA_DOCENTE) {
+                int dni = p_entrada.readInt();
+                String nombre = p_entrada.readUTF();
+                p_biblioteca.nuevoSocioDocente(dni, nombre, p_entrada.readUTF());
+            } else if (tipo == ALTA_EJEMPLAR) {
+                int id = p_entrada.readInt();
+                String titulo = p_entrada.readUTF();
+                int edicion = p_entrada.readInt();
+                String editorial = p_entrada.readUTF();
+                Libro libro = new Libro(titulo, edicion, editorial, p_entrada.readInt());
+                libro.asignarId(id);
+                p_biblioteca.agregarLibro(libro);
+            } else if (tipo == PRESTAMO_EJEMPLAR) {
+                Socio socio = p_biblioteca.buscarSocio(p_entrada.readInt());
+                Libro libro = p_biblioteca.buscarLibroPorId(p_entrada.readInt());
+                int diaRetiro = p_entrada.readInt();
+                int diaVencimiento = p_entrada.readInt();
+                if (socio == null || libro == null || libro.prestado()) {
+                    System.err.println("Diario: no se pudo reproducir un préstamo.");
+                } else {
+                    p_biblioteca.registrarPrestamo(diaRetiro, diaVencimiento, socio, libro);
+                }
+            } else if (tipo == DEVOLUCION_EJEMPLAR) {
+                Libro libro = p_biblioteca.buscarLibroPorId(p_entrada.readInt());
+                int dia = p_entrada.readInt();
+                if (libro == null) {
+                    System.err.println("Diario: no se pudo reproducir una devolución.");
+                } else {
+                    p_biblioteca.devolverLibro(libro, dia);
+                }
+            } else if (tipo == BAJA_EJEMPLAR) {
+                Libro libro = p_biblioteca.buscarLibroPorId(p_entrada.readInt());
+                if (libro != null) {
+                    p_biblioteca.quitarLibro(libro);
+                }
+            } else if (tipo == BAJA_SOCIO) {
+                Socio socio = p_biblioteca.buscarSocio(p_entrada.readInt());
+                if (socio != null) {
+                    p_biblioteca.quitarSocio(socio);
+                }
+            } else {
+                throw new IOException("Tipo de operación desconocido: " + tipo);
+            }
+        } catch (SocioExistenteException | LibroNoPrestadoException e) {
+            System.err.println("Diario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registra el alta de un socio.
+     *
+     * @param p_socio El socio dado de alta.
+     */
+    public synchronized void registrarAltaSocio(Socio p_socio) {
+        try {
+            this.iniciarRegistro(p_socio instanceof Docente ? ALTA_DOCENTE : ALTA_ESTUDIANTE);
+            this.datos.writeInt(p_socio.getDniSocio());
+            this.datos.writeUTF(p_socio.getNombre());
+            if (p_socio instanceof Docente) {
+                this.datos.writeUTF(((Docente) p_socio).getArea());
+            } else {
+                this.datos.writeUTF(((Estudiante) p_socio).getCarrera());
+            }
+            this.escribirRegistro();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Registra el alta de un libro.
+     *
+     * @param p_libro El libro dado de alta.
+     */
+    public synchronized void registrarAltaLibro(Libro p_libro) {
+        try {
+            this.iniciarRegistro(ALTA_EJEMPLAR);
+            this.datos.writeInt(p_libro.getId());
+            this.datos.writeUTF(p_libro.getTitulo());
+            this.datos.writeInt(p_libro.getEdicion());
+            this.datos.writeUTF(p_libro.getEditorial());
+            this.datos.writeInt(p_libro.getAnio());
+            this.escribirRegistro();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Registra un préstamo, con su día de retiro y su vencimiento.
+     *
+     * @param p_prestamo El préstamo abierto.
+     */
+    public synchronized void registrarPrestamo(Prestamo p_prestamo) {
+        try {
+            this.iniciarRegistro(PRESTAMO_EJEMPLAR);
+            this.datos.writeInt(p_prestamo.getSocio().getDniSocio());
+            this.datos.writeInt(p_prestamo.getLibro().getId());
+            this.datos.writeInt(p_prestamo.getDiaRetiro());
+            this.datos.writeInt(p_prestamo.getDiaVencimiento());
+            this.escribirRegistro();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Registra la devolución del préstamo en curso de un libro.
+     *
+     * @param p_prestamo El préstamo que se cierra.
+     * @param p_dia      Día época de devolución.
+     */
+    public synchronized void registrarDevolucion(Prestamo p_prestamo, int p_dia) {
+        try {
+            this.iniciarRegistro(DEVOLUCION_EJEMPLAR);
+            this.datos.writeInt(p_prestamo.getLibro().getId());
+            this.datos.writeInt(p_dia);
+            this.escribirRegistro();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Registra la baja de un socio.
+     *
+     * @param p_socio El socio dado de baja.
+     */
+    public synchronized void registrarBajaSocio(Socio p_socio) {
+        try {
+            this.iniciarRegistro(BAJA_SOCIO);
+            this.datos.writeInt(p_socio.getDniSocio());
+            this.escribirRegistro();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Registra la baja de un libro.
+     *
+     * @param p_libro El libro dado de baja.
+     */
+    public synchronized void registrarBajaLibro(Libro p_libro) {
+        try {
+            this.iniciarRegistro(BAJA_EJEMPLAR);
+            this.datos.writeInt(p_libro.getId());
+            this.escribirRegistro();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Obtiene el tamaño actual del tramo en curso del diario.
+     *
+     * @return El tamaño en bytes.
+     */
+    public synchronized long getTamanio() {
+        try {
+            return this.canal.size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Sella el tramo en curso del diario y continúa en un archivo vacío.
+     * El tramo sellado se sincroniza con el disco antes de renombrarlo.
+     *
+     * @return El número del tramo sellado.
+     * @throws IOException Si no se puede sellar el tramo.
+     */
+    public synchronized int rotar() throws IOException {
+        if (this.cerrado) {
+            throw new IOException("El diario de operaciones está cerrado");
+        }
+        int numero = 1;
+        for (File unSegmento : segmentos(this.archivo.getPath())) {
+            numero = Math.max(numero, numeroDeSegmento(unSegmento) + 1);
+        }
+
+        this.canal.force(false);
+        this.canal.close();
+        this.pendiente = false;
+        Files.move(this.archivo.toPath(), new File(this.archivo.getPath() + "." + numero).toPath(),
+                StandardCopyOption.ATOMIC_MOVE);
+        this.canal = new RandomAccessFile(this.archivo, "rw").getChannel();
+        return numero;
+    }
+
+    /**
+     * Obtiene los tramos sellados de un diario, ordenados por número.
+     *
+     * @param p_archivo Ruta del diario en curso.
+     * @return Los archivos de los tramos sellados.
+     */
+    public static ArrayList<File> segmentos(String p_archivo) {
+        File archivo = new File(p_archivo).getAbsoluteFile();
+        String prefijo = archivo.getName() + ".";
+        ArrayList<File> segmentos = new ArrayList<File>();
+        File[] archivos = archivo.getParentFile().listFiles();
+        if (archivos != null) {
+            for (File unArchivo : archivos) {
+                if (unArchivo.getName().startsWith(prefijo) && numeroDeSegmento(unArchivo) > 0) {
+                    segmentos.add(unArchivo);
+                }
+            }
+        }
+        segmentos.sort((a, b) -> Integer.compare(numeroDeSegmento(a), numeroDeSegmento(b)));
+        return segmentos;
+    }
+
+    /**
+     * Obtiene el número de un tramo sellado a partir del nombre de su archivo.
+     *
+     * @param p_segmento El archivo del tramo (ej. {@code diario.dat.3}).
+     * @return El número del tramo, o -1 si el nombre no corresponde a un tramo.
+     */
+    public static int numeroDeSegmento(File p_segmento) {
+        String nombre = p_segmento.getName();
+        String sufijo = nombre.substring(nombre.lastIndexOf('.') + 1);
+        if (sufijo.isEmpty() || sufijo.length() > 9) {
+            return -1;
+        }
+        for (int i = 0; i < sufijo.length(); i++) {
+            if (!Character.isDigit(sufijo.charAt(i))) {
+                return -1;
+            }
+        }
+        return Integer.parseInt(sufijo);
+    }
+
+    /**
+     * Sincroniza los registros pendientes, detiene el hilo de sincronización y
+     * cierra el archivo.
+     *
+     * @throws IOException Si falla la sincronización o el cierre.
+     */
+    public void cerrar() throws IOException {
+        synchronized (this) {
+            if (this.cerrado) {
+                return;
+            }
+            this.cerrado = true;
+            this.notifyAll();
+        }
+        if (this.sincronizador != null) {
+            try {
+                this.sincronizador.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        this.canal.force(false);
+        this.canal.close();
+    }
+
+    /**
+     * Comienza un registro nuevo con el tipo de operación dado.
+     *
+     * @param p_tipo El tipo de operación.
+     * @throws IOException Si el diario fue cerrado.
+     */
+    private void iniciarRegistro(byte p_tipo) throws IOException {
+        if (this.cerrado) {
+            throw new IOException("El diario de operaciones está cerrado");
+        }
+        if (this.danado) {
+            throw new IOException("El diario de operaciones quedó dañado por una escritura fallida");
+        }
+        this.contenido.reset();
+        this.datos.writeByte(p_tipo);
+    }
+
+    /**
+     * Agrega el registro en curso al final del archivo. Si el intervalo de
+     * sincronización es 0, además lo sincroniza con el disco.
+     * <p>
+     * Si la escritura falla, se descartan los bytes que llegaron a escribirse
+     * para que los registros siguientes no queden detrás de uno incompleto (al
+     * reproducir, se perderían junto con él). Si ni siquiera eso es posible,
+     * el diario rechaza las operaciones siguientes.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    private void escribirRegistro() throws IOException {
+        int longitud = this.contenido.size();
+        if (this.registro.capacity() < longitud + 8) {
+            this.registro = ByteBuffer.allocate(Math.max(longitud + 8, this.registro.capacity() * 2));
+        }
+        this.crc.reset();
+        this.crc.update(this.contenido.getBytes(), 0, longitud);
+
+        this.registro.clear();
+        this.registro.putInt(longitud).putInt((int) this.crc.getValue());
+        this.registro.put(this.contenido.getBytes(), 0, longitud);
+        this.registro.flip();
+        long inicio = this.canal.position();
+        try {
+            while (this.registro.hasRemaining()) {
+                this.canal.write(this.registro);
+            }
+        } catch (IOException e) {
+            try {
+                this.canal.truncate(inicio);
+                this.canal.position(inicio);
+            } catch (IOException eDescarte) {
+                this.danado = true;
+                e.addSuppressed(eDescarte);
+            }
+            throw e;
+        }
+
+        if (this.intervaloSincronizacion <= 0) {
+            this.canal.force(false);
+        } else {
+            this.pendiente = true;
+        }
+    }
+
+    /**
+     * Inicia el hilo que sincroniza en grupo los registros pendientes, si el
+     * intervalo de sincronización lo requiere.
+     */
+    private void iniciarSincronizador() {
+        if (this.intervaloSincronizacion <= 0 || this.sincronizador != null) {
+            return;
+        }
+        this.sincronizador = new Thread(this::sincronizarPeriodicamente, "diario-operaciones");
+        this.sincronizador.setDaemon(true);
+        this.sincronizador.start();
+    }
+
+    /**
+     * Ciclo del hilo de sincronización: cada intervalo sincroniza con el disco
+     * todos los registros escritos desde la sincronización anterior.
+     */
+    private void sincronizarPeriodicamente() {
+        while (true) {
+            FileChannel actual;
+            synchronized (this) {
+                try {
+                    if (!this.cerrado) {
+                        this.wait(this.intervaloSincronizacion);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (this.cerrado) {
+                    return; // cerrar() realiza la última sincronización
+                }
+                if (!this.pendiente) {
+                    continue;
+                }
+                this.pendiente = false;
+                actual = this.canal;
+            }
+            try {
+                // Fuera del bloqueo: las operaciones siguen escribiendo mientras tanto
+                actual.force(false);
+            } catch (ClosedChannelException e) {
+                // El tramo fue sellado (y sincronizado) por rotar()
+            } catch (IOException e) {
+                System.err.println("Error al sincronizar el diario: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Búfer de bytes que expone su arreglo interno para evitar copias.
+     */
+    private static class Contenido extends ByteArrayOutputStream {
+        /**
+         * Obtiene el arreglo interno del búfer.
+         *
+         * @return El arreglo (válido hasta {@link #size()}).
+         */
+        byte[] getBytes() {
+            return this.buf;
+        }
+    }
+}
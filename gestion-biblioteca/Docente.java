@@ -1,5 +1,3 @@
-import java.util.Calendar;
-
 /**
  * Representa un socio de tipo Docente.
  * Hereda de {@link Socio} y aplica reglas de negocio específicas para docentes,
@@ -15,6 +13,8 @@ import java.util.Calendar;
 public class Docente extends Socio {
     /** El área o departamento al que pertenece el docente. */
     private String area;
+    /** Cantidad de préstamos que el docente devolvió después de su vencimiento. */
+    private int devolucionesTardias;
 
     /**
      * Constructor para un nuevo Docente.
@@ -27,6 +27,7 @@ public class Docente extends Socio {
     public Docente(int p_dniSocio, String p_nombre, String p_area) {
         super(p_dniSocio, p_nombre, 5); // 5 días iniciales para docentes
         this.setArea(p_area);
+        this.setDevolucionesTardias(0);
     }
 
     /**
@@ -38,6 +39,42 @@ public class Docente extends Socio {
         this.area = p_area;
     }
 
+    /**
+     * Establece la cantidad de devoluciones tardías del docente.
+     *
+     * @param p_devolucionesTardias Cantidad de devoluciones tardías.
+     */
+    private void setDevolucionesTardias(int p_devolucionesTardias) {
+        this.devolucionesTardias = p_devolucionesTardias;
+    }
+
+    /**
+     * Obtiene la cantidad de préstamos que el docente devolvió tarde.
+     *
+     * @return El número de devoluciones tardías.
+     */
+    public int getDevolucionesTardias() {
+        return this.devolucionesTardias;
+    }
+
+    /**
+     * Registra que el docente devolvió un préstamo después de su vencimiento.
+     */
+    public void registrarDevolucionTardia() {
+        this.setDevolucionesTardias(this.getDevolucionesTardias() + 1);
+    }
+
+    /**
+     * Restablece la cantidad de devoluciones tardías guardada del docente, al
+     * cargarlo desde los archivos de datos. Debe llamarse antes de agregarlo a
+     * la {@link Biblioteca}.
+     *
+     * @param p_devolucionesTardias Cantidad de devoluciones tardías guardada.
+     */
+    public void restaurarDevolucionesTardias(int p_devolucionesTardias) {
+        this.setDevolucionesTardias(p_devolucionesTardias);
+    }
+
     /**
      * Obtiene el área del docente.
      *
@@ -50,42 +87,32 @@ public class Docente extends Socio {
     /**
      * Verifica si el docente puede solicitar un préstamo.
      * Sobrescribe el método de {@link Socio}. Para un docente, la única
-     * condición es no tener préstamos vencidos ({@code super.puedePedir()}).
+     * condición es no tener préstamos vencidos ({@code super.puedePedir(p_hoy)}).
      * No hay límite en la cantidad de libros.
      *
+     * @param p_hoy Día época de referencia.
      * @return true si el docente no tiene préstamos activos vencidos.
      */
     @Override
-    public boolean puedePedir() {
-        return super.puedePedir();
+    public boolean puedePedir(int p_hoy) {
+        return super.puedePedir(p_hoy);
     }
 
     /**
      * Verifica si el docente es "responsable".
      * Un docente es responsable si nunca ha devuelto un libro tarde
-     * y no tiene préstamos vencidos actualmente.
+     * y no tiene préstamos vencidos en el día de referencia.
+     * Se resuelve con el contador de devoluciones tardías y el vencimiento más
+     * próximo de sus préstamos activos, sin recorrer el historial.
      *
+     * @param p_hoy Día época de referencia.
      * @return true si el docente siempre ha cumplido con las fechas de devolución.
      */
-    public boolean esResponsable() {
-        Calendar fechaHoy = Calendar.getInstance();
-        for (Prestamo unPrestamo : this.getPrestamos()) {
-            if (unPrestamo.getFechaDevolucion() == null) {
-                // Caso 1: Préstamo activo (aún no devuelto)
-                // Si está vencido hoy, no es responsable.
-                if (unPrestamo.vencido(fechaHoy)) {
-                    return false;
-                }
-            } else {
-                // Caso 2: Préstamo histórico (ya devuelto)
-                // Si la fecha de devolución es posterior a la fecha de vencimiento, no es
-                // responsable.
-                if (unPrestamo.vencido(unPrestamo.getFechaDevolucion())) {
-                    return false;
-                }
-            }
-        }
-        return true; // Si supera todas las verificaciones, es responsable
+    public boolean esResponsable(int p_hoy) {
+        // Caso 1: Préstamo histórico devuelto después de su vencimiento
+        // Caso 2: Préstamo activo que ya está vencido
+        return this.getDevolucionesTardias() == 0
+                && !this.tienePrestamosVencidos(p_hoy);
     }
 
     /**
@@ -109,4 +136,14 @@ public class Docente extends Socio {
     public String soyDeLaClase() {
         return "Docente";
     }
+
+    /**
+     * Implementación del método abstracto de {@link Socio}.
+     *
+     * @return {@link TipoSocio#DOCENTE}.
+     */
+    @Override
+    public TipoSocio getTipo() {
+        return TipoSocio.DOCENTE;
+    }
 }
\ No newline at end of file
@@ -58,20 +58,31 @@ public class Estudiante extends Socio {
         return "Estudiante";
     }
 
+    /**
+     * Implementación del método abstracto de {@link Socio}.
+     *
+     * @return {@link TipoSocio#ESTUDIANTE}.
+     */
+    @Override
+    public TipoSocio getTipo() {
+        return TipoSocio.ESTUDIANTE;
+    }
+
     /**
      * Verifica si el estudiante puede solicitar un préstamo.
      * Sobrescribe el método de {@link Socio}. Para un estudiante, se deben
      * cumplir dos condiciones:
-     * 1. No tener préstamos vencidos (verificado por {@code super.puedePedir()}).
+     * 1. No tener préstamos vencidos (verificado por {@code super.puedePedir(p_hoy)}).
      * 2. Tener menos de 3 libros en su poder actualmente.
      *
+     * @param p_hoy Día época de referencia.
      * @return true si el estudiante cumple ambas condiciones, false en caso
      *         contrario.
      */
     @Override
-    public boolean puedePedir() {
+    public boolean puedePedir(int p_hoy) {
         // Verifica la condición base (sin préstamos vencidos)
         // Y la condición específica (límite de 3 libros)
-        return super.puedePedir() && this.cantLibrosPrestados() < 3;
+        return super.puedePedir(p_hoy) && this.cantLibrosPrestados() < 3;
     }
 }
\ No newline at end of file
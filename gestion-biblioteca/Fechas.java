@@ -0,0 +1,145 @@
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+/**
+ * Utilidades para representar fechas como "días época": la cantidad de días
+ * transcurridos desde el 1970/01/01 en el calendario gregoriano.
+ * Un día época es un entero primitivo, por lo que comparar, sumar días o
+ * guardar fechas no requiere crear objetos {@link Calendar}.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public final class Fechas {
+    /** Milisegundos que tiene un día. */
+    private static final long MILIS_POR_DIA = 24L * 60 * 60 * 1000;
+
+    /**
+     * Constructor privado: clase de utilidades, no se instancia.
+     */
+    private Fechas() {
+    }
+
+    /**
+     * Convierte una fecha del calendario gregoriano a día época.
+     *
+     * @param p_anio Año (ej. 2024).
+     * @param p_mes  Mes (1-12).
+     * @param p_dia  Día del mes (1-31).
+     * @return El día época correspondiente.
+     */
+    public static int diaEpoch(int p_anio, int p_mes, int p_dia) {
+        // Algoritmo "days from civil": se cuenta el año desde marzo para que el
+        // día bisiesto quede al final
+        int anio = p_mes <= 2 ? p_anio - 1 : p_anio;
+        int era = (anio >= 0 ? anio : anio - 399) / 400;
+        int anioDeEra = anio - era * 400;
+        int diaDelAnio = (153 * (p_mes > 2 ? p_mes - 3 : p_mes + 9) + 2) / 5 + p_dia - 1;
+        int diaDeEra = anioDeEra * 365 + anioDeEra / 4 - anioDeEra / 100 + diaDelAnio;
+        return era * 146097 + diaDeEra - 719468;
+    }
+
+    /**
+     * Convierte la fecha (año, mes y día) de un Calendar a día época.
+     * La hora del Calendar se ignora.
+     *
+     * @param p_fecha La fecha a convertir.
+     * @return El día época correspondiente.
+     */
+    public static int diaEpoch(Calendar p_fecha) {
+        return Fechas.diaEpoch(p_fecha.get(Calendar.YEAR), p_fecha.get(Calendar.MONTH) + 1,
+                p_fecha.get(Calendar.DAY_OF_MONTH));
+    }
+
+    /**
+     * Convierte un instante a día época según la zona horaria del sistema.
+     *
+     * @param p_instante Instante en milisegundos.
+     * @return El día época local de ese instante.
+     */
+    public static int diaEpoch(long p_instante) {
+        long local = p_instante + TimeZone.getDefault().getOffset(p_instante);
+        return (int) Math.floorDiv(local, MILIS_POR_DIA);
+    }
+
+    /**
+     * Obtiene el día época actual según un reloj (y su zona horaria).
+     *
+     * @param p_reloj El reloj a consultar.
+     * @return El día época de hoy para ese reloj.
+     */
+    public static int hoy(Clock p_reloj) {
+        return (int) LocalDate.now(p_reloj).toEpochDay();
+    }
+
+    /**
+     * Descompone un día época en una fecha compacta de la forma
+     * {@code aaaammdd} (ej. 20240315).
+     *
+     * @param p_dia El día época.
+     * @return La fecha compacta como entero.
+     */
+    public static int fechaCompacta(int p_dia) {
+        // Algoritmo "civil from days", inverso de diaEpoch(int, int, int)
+        int z = p_dia + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int diaDeEra = z - era * 146097;
+        int anioDeEra = (diaDeEra - diaDeEra / 1460 + diaDeEra / 36524 - diaDeEra / 146096) / 365;
+        int diaDelAnio = diaDeEra - (365 * anioDeEra + anioDeEra / 4 - anioDeEra / 100);
+        int mp = (5 * diaDelAnio + 2) / 153;
+        int dia = diaDelAnio - (153 * mp + 2) / 5 + 1;
+        int mes = mp < 10 ? mp + 3 : mp - 9;
+        int anio = anioDeEra + era * 400 + (mes <= 2 ? 1 : 0);
+        return anio * 10000 + mes * 100 + dia;
+    }
+
+    /**
+     * Escribe un día época con el formato {@code yyyy/MM/dd} directamente en un
+     * StringBuilder, sin crear formateadores ni cadenas intermedias.
+     * El resultado es idéntico al de {@code SimpleDateFormat("yyyy/MM/dd")}.
+     *
+     * @param p_dia     El día época a escribir.
+     * @param p_destino El StringBuilder donde se agrega la fecha.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    public static StringBuilder formatear(int p_dia, StringBuilder p_destino) {
+        int compacta = Fechas.fechaCompacta(p_dia);
+        int anio = compacta / 10000;
+        int mes = (compacta / 100) % 100;
+        int dia = compacta % 100;
+
+        // El año se completa con ceros a la izquierda hasta 4 dígitos
+        if (anio < 1000) {
+            p_destino.append('0');
+            if (anio < 100) {
+                p_destino.append('0');
+                if (anio < 10) {
+                    p_destino.append('0');
+                }
+            }
+        }
+        p_destino.append(anio).append('/');
+        p_destino.append((char) ('0' + mes / 10)).append((char) ('0' + mes % 10)).append('/');
+        p_destino.append((char) ('0' + dia / 10)).append((char) ('0' + dia % 10));
+        return p_destino;
+    }
+
+    /**
+     * Crea un Calendar (a las 00:00) para un día época. Se utiliza como vista
+     * de compatibilidad para el código que trabaja con Calendar.
+     *
+     * @param p_dia El día época.
+     * @return Un nuevo GregorianCalendar con esa fecha.
+     */
+    public static Calendar aCalendar(int p_dia) {
+        int compacta = Fechas.fechaCompacta(p_dia);
+        return new GregorianCalendar(compacta / 10000, (compacta / 100) % 100 - 1, compacta % 100);
+    }
+}
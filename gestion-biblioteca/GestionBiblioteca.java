@@ -1,11 +1,14 @@
 import javax.swing.UIManager;
 import java.awt.event.*;
+import java.io.IOException;
 
 /**
  * Clase principal (Main) de la aplicación de Gestión de Biblioteca.
  * Su responsabilidad es configurar el "Look and Feel" visual de Swing
  * e iniciar la interfaz gráfica de usuario (GUI) en el hilo de despacho de
- * eventos (EDT).
+ * eventos (EDT). Con la opción {@code --servidor [puerto [puertoBinario]]}
+ * inicia, en cambio, el servidor sin interfaz gráfica
+ * ({@link ServidorBiblioteca}).
  *
  * @author Jensen, Lucas
  * @author Romero Lencinas, Santiago
@@ -15,14 +18,24 @@ import java.awt.event.*;
  * @version 1.0 (Inicial)
  */
 public class GestionBiblioteca {
+    /** Opción de la línea de comandos que inicia el modo servidor. */
+    private static final String OPCION_SERVIDOR = "--servidor";
+
     /**
      * Punto de entrada de la aplicación.
      * Establece el Look and Feel del sistema nativo e invoca
      * la creación de la GUI en el hilo de Swing.
      *
-     * @param args Argumentos de la línea de comandos (no utilizados).
+     * @param args Argumentos de la línea de comandos: {@code --servidor} y,
+     *             opcionalmente, los puertos HTTP y binario, para iniciar el
+     *             modo servidor.
      */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals(OPCION_SERVIDOR)) {
+            iniciarServidor(args);
+            return;
+        }
+
         try {
             // Configura el Look and Feel para que coincida con el sistema operativo
             // nativo.
@@ -51,6 +64,39 @@ public class GestionBiblioteca {
         VentanaPrincipal ventana = new VentanaPrincipal();
         ventana.setVisible(true);
     }
+
+    /**
+     * Inicia el servidor HTTP sin interfaz gráfica. Al finalizar el proceso
+     * (ej. Ctrl+C) el servidor se detiene y guarda los datos.
+     *
+     * @param args Argumentos de la línea de comandos ({@code --servidor} y,
+     *             opcionalmente, los puertos HTTP y binario).
+     */
+    private static void iniciarServidor(String[] args) {
+        int puerto = ServidorBiblioteca.PUERTO_PREDETERMINADO;
+        int puertoBinario = ServidorBinario.PUERTO_PREDETERMINADO;
+        try {
+            if (args.length > 1) {
+                puerto = Integer.parseInt(args[1]);
+            }
+            if (args.length > 2) {
+                puertoBinario = Integer.parseInt(args[2]);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Puerto inválido: " + e.getMessage());
+            System.err.println("Uso: java GestionBiblioteca " + OPCION_SERVIDOR + " [puerto [puertoBinario]]");
+            System.exit(1);
+        }
+
+        try {
+            ServidorBiblioteca servidor = new ServidorBiblioteca(puerto, puertoBinario);
+            servidor.iniciar();
+            Runtime.getRuntime().addShutdownHook(new Thread(servidor::detener, "cierre-servidor"));
+        } catch (IOException e) {
+            System.err.println("No se pudo iniciar el servidor: " + e.getMessage());
+            System.exit(1);
+        }
+    }
 }
 
 /**
@@ -0,0 +1,388 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Almacén del historial de préstamos devueltos de la {@link Biblioteca}.
+ * <p>
+ * El archivo solo crece: cada compactación (ver {@link Compactador}) agrega un
+ * bloque con los préstamos devueltos desde la anterior, sin reescribir lo ya
+ * guardado. El historial no se lee al iniciar: se recorre recién cuando se
+ * consulta el historial de un socio, por lo que años de préstamos no demoran
+ * el arranque.
+ * <p>
+ * Cada bloque es autónomo: longitud (int), cantidad de registros (int), CRC32C
+ * (int) y el contenido. Dentro de un bloque los enteros se codifican como
+ * "varint" (7 bits por byte) en zigzag, y cada préstamo se guarda como:
+ * <ul>
+ * <li>DNI del socio;</li>
+ * <li>identificador del ejemplar ({@link Libro#getId()});</li>
+ * <li>código del título: índice en la tabla de títulos del bloque; un código
+ * nuevo va seguido del título (longitud y bytes UTF-8);</li>
+ * <li>día de devolución, como diferencia con la devolución anterior del
+ * bloque (los préstamos se guardan en orden de devolución, así que suele
+ * ocupar un byte);</li>
+ * <li>días entre el retiro y la devolución, y entre el retiro y el
+ * vencimiento.</li>
+ * </ul>
+ * El título se conserva para mostrar los préstamos de ejemplares dados de
+ * baja. El encabezado del archivo guarda la longitud confirmada: los bytes
+ * posteriores pertenecen a una compactación que no llegó a confirmarse y se
+ * descartan.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class HistorialPrestamos {
+    /** Número mágico del encabezado ("HIST"). */
+    private static final int MAGIA = 0x48495354;
+    /** Versión del formato; un historial de otra versión no se lee. */
+    private static final short VERSION = 1;
+    /** Tamaño del encabezado en bytes. */
+    private static final int TAMANIO_ENCABEZADO = 16;
+    /** Tamaño máximo aceptado para un bloque al leer. */
+    private static final int TAMANIO_BLOQUE_MAXIMO = 64 * 1024 * 1024;
+
+    /** Archivo del historial. */
+    private final File archivo;
+    /** Longitud del archivo que corresponde a bloques confirmados. */
+    private long longitudConfirmada;
+
+    /**
+     * Abre (o crea) el historial. Descarta los bytes posteriores a la longitud
+     * confirmada.
+     *
+     * @param p_archivo Ruta del archivo del historial.
+     * @throws IOException Si no se puede abrir el archivo o su encabezado no es
+     *                     válido.
+     */
+    public HistorialPrestamos(String p_archivo) throws IOException {
+        this.archivo = new File(p_archivo);
+        try (RandomAccessFile acceso = new RandomAccessFile(this.archivo, "rw")) {
+            if (acceso.length() < TAMANIO_ENCABEZADO) {
+                acceso.setLength(0);
+                this.longitudConfirmada = TAMANIO_ENCABEZADO;
+                this.escribirEncabezado(acceso.getChannel());
+            } else {
+                if (acceso.readInt() != MAGIA) {
+                    throw new ArchivoCorruptoException(this.archivo.getName() + ": no es un historial de préstamos");
+                }
+                if (acceso.readShort() != VERSION) {
+                    throw new ArchivoCorruptoException(this.archivo.getName() + ": versión no soportada");
+                }
+                acceso.readShort(); // Reservado
+                this.longitudConfirmada = acceso.readLong();
+                if (this.longitudConfirmada < TAMANIO_ENCABEZADO || this.longitudConfirmada > acceso.length()) {
+                    throw new ArchivoCorruptoException(this.archivo.getName() + ": longitud confirmada inválida");
+                }
+            }
+            if (acceso.length() > this.longitudConfirmada) {
+                acceso.setLength(this.longitudConfirmada);
+            }
+        }
+    }
+
+    /**
+     * Agrega un bloque con préstamos devueltos a continuación de la parte
+     * confirmada del archivo y lo sincroniza con el disco. El bloque no forma
+     * parte del historial hasta que se llame a {@link #confirmar(long)}.
+     *
+     * @param p_prestamos Los préstamos devueltos, en orden de devolución.
+     * @return La longitud que tendrá el historial al confirmar el bloque.
+     * @throws IOException Si falla la escritura.
+     */
+    public synchronized long agregar(List<Prestamo> p_prestamos) throws IOException {
+        if (p_prestamos.isEmpty()) {
+            return this.longitudConfirmada;
+        }
+
+        Bloque bloque = new Bloque();
+        HashMap<String, Integer> codigos = new HashMap<String, Integer>();
+        int devolucionAnterior = 0;
+        for (Prestamo unPrestamo : p_prestamos) {
+            String titulo = unPrestamo.getLibro().getTitulo();
+            bloque.escribirEntero(unPrestamo.getSocio().getDniSocio());
+            bloque.escribirEntero(unPrestamo.getLibro().getId());
+            Integer codigo = codigos.get(titulo);
+            if (codigo == null) {
+                bloque.escribirEntero(codigos.size());
+                byte[] bytes = titulo.getBytes(StandardCharsets.UTF_8);
+                bloque.escribirEntero(bytes.length);
+                bloque.escribirBytes(bytes);
+                codigos.put(titulo, codigos.size());
+            } else {
+                bloque.escribirEntero(codigo);
+            }
+            bloque.escribirEntero(unPrestamo.getDiaDevolucion() - devolucionAnterior);
+            bloque.escribirEntero(unPrestamo.getDiaDevolucion() - unPrestamo.getDiaRetiro());
+            bloque.escribirEntero(unPrestamo.getDiaVencimiento() - unPrestamo.getDiaRetiro());
+            devolucionAnterior = unPrestamo.getDiaDevolucion();
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(bloque.bytes, 0, bloque.longitud);
+        ByteBuffer encabezado = ByteBuffer.allocate(12);
+        encabezado.putInt(bloque.longitud).putInt(p_prestamos.size()).putInt((int) crc.getValue());
+        encabezado.flip();
+
+        try (RandomAccessFile acceso = new RandomAccessFile(this.archivo, "rw")) {
+            FileChannel canal = acceso.getChannel();
+            canal.truncate(this.longitudConfirmada); // Restos de un intento anterior
+            canal.position(this.longitudConfirmada);
+            ByteBuffer contenido = ByteBuffer.wrap(bloque.bytes, 0, bloque.longitud);
+            while (encabezado.hasRemaining() || contenido.hasRemaining()) {
+                canal.write(new ByteBuffer[] { encabezado, contenido });
+            }
+            canal.force(true);
+            return canal.size();
+        }
+    }
+
+    /**
+     * Confirma los bloques agregados hasta la longitud dada.
+     * Puede repetirse sin efectos adicionales.
+     *
+     * @param p_longitud La longitud devuelta por {@link #agregar(List)}.
+     * @throws IOException Si falla la escritura del encabezado.
+     */
+    public synchronized void confirmar(long p_longitud) throws IOException {
+        if (p_longitud == this.longitudConfirmada) {
+            return;
+        }
+        this.longitudConfirmada = p_longitud;
+        try (RandomAccessFile acceso = new RandomAccessFile(this.archivo, "rw")) {
+            this.escribirEncabezado(acceso.getChannel());
+        }
+    }
+
+    /**
+     * Obtiene la longitud confirmada del historial.
+     *
+     * @return La longitud en bytes.
+     */
+    public synchronized long getLongitudConfirmada() {
+        return this.longitudConfirmada;
+    }
+
+    /**
+     * Recorre el historial guardado y reconstruye los préstamos devueltos de un
+     * socio. Los libros se vinculan por identificador con el catálogo actual;
+     * si el ejemplar ya no existe, se utiliza un ejemplar con solo el título.
+     *
+     * @param p_socio      El socio a consultar.
+     * @param p_biblioteca La biblioteca, para vincular los libros.
+     * @return Los préstamos devueltos del socio, en orden de devolución.
+     * @throws IOException Si falla la lectura o el historial está dañado.
+     */
+    public ArrayList<Prestamo> prestamosDe(Socio p_socio, Biblioteca p_biblioteca) throws IOException {
+        long limite = this.getLongitudConfirmada();
+        ArrayList<Prestamo> prestamos = new ArrayList<Prestamo>();
+        try (DataInputStream entrada = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(this.archivo), 256 * 1024))) {
+            entrada.skipBytes(TAMANIO_ENCABEZADO);
+            long posicion = TAMANIO_ENCABEZADO;
+            CRC32C crc = new CRC32C();
+            Bloque bloque = new Bloque();
+            while (posicion < limite) {
+                int longitud;
+                int cantidad;
+                int crcEsperado;
+                try {
+                    longitud = entrada.readInt();
+                    cantidad = entrada.readInt();
+                    crcEsperado = entrada.readInt();
+                    if (longitud <= 0 || longitud > TAMANIO_BLOQUE_MAXIMO) {
+                        throw new ArchivoCorruptoException(this.archivo.getName() + ": bloque inválido");
+                    }
+                    bloque.preparar(longitud);
+                    entrada.readFully(bloque.bytes, 0, longitud);
+                } catch (EOFException e) {
+                    throw new ArchivoCorruptoException(this.archivo.getName() + ": historial truncado");
+                }
+                crc.reset();
+                crc.update(bloque.bytes, 0, longitud);
+                if ((int) crc.getValue() != crcEsperado) {
+                    throw new ArchivoCorruptoException(this.archivo.getName() + ": CRC incorrecto");
+                }
+                this.leerBloque(bloque, cantidad, p_socio, p_biblioteca, prestamos);
+                posicion += 12 + longitud;
+            }
+        }
+        return prestamos;
+    }
+
+    /**
+     * Decodifica un bloque y agrega los préstamos del socio buscado.
+     *
+     * @param p_bloque     El bloque leído.
+     * @param p_cantidad   Cantidad de préstamos del bloque.
+     * @param p_socio      El socio buscado.
+     * @param p_biblioteca La biblioteca, para vincular los libros.
+     * @param p_destino    Lista donde agregar los préstamos encontrados.
+     * @throws IOException Si el bloque no es válido.
+     */
+    private void leerBloque(Bloque p_bloque, int p_cantidad, Socio p_socio,
+            Biblioteca p_biblioteca, ArrayList<Prestamo> p_destino) throws IOException {
+        ArrayList<String> titulos = new ArrayList<String>();
+        int devolucion = 0;
+        for (int i = 0; i < p_cantidad; i++) {
+            int dni = p_bloque.leerEntero();
+            int id = p_bloque.leerEntero();
+            int codigo = p_bloque.leerEntero();
+            if (codigo == titulos.size()) {
+                int longitud = p_bloque.leerEntero();
+                titulos.add(p_bloque.leerTexto(longitud));
+            } else if (codigo < 0 || codigo > titulos.size()) {
+                throw new ArchivoCorruptoException(this.archivo.getName() + ": código de título inválido");
+            }
+            devolucion += p_bloque.leerEntero();
+            int retiro = devolucion - p_bloque.leerEntero();
+            int vencimiento = retiro + p_bloque.leerEntero();
+
+            if (dni == p_socio.getDniSocio()) {
+                String titulo = titulos.get(codigo);
+                Libro libro = p_biblioteca.buscarLibroPorId(id);
+                if (libro != null && !libro.getTitulo().equals(titulo)) {
+                    libro = null; // El identificador pertenecía a un ejemplar dado de baja
+                }
+                if (libro == null) {
+                    libro = new Libro(titulo, 0, "", 0); // Título dado de baja
+                }
+                p_destino.add(new Prestamo(retiro, devolucion, vencimiento, p_socio, libro));
+            }
+        }
+    }
+
+    /**
+     * Escribe el encabezado del archivo y lo sincroniza con el disco.
+     *
+     * @param p_canal El canal del archivo.
+     * @throws IOException Si falla la escritura.
+     */
+    private void escribirEncabezado(FileChannel p_canal) throws IOException {
+        ByteBuffer encabezado = ByteBuffer.allocate(TAMANIO_ENCABEZADO);
+        encabezado.putInt(MAGIA).putShort(VERSION).putShort((short) 0).putLong(this.longitudConfirmada);
+        encabezado.flip();
+        p_canal.position(0);
+        while (encabezado.hasRemaining()) {
+            p_canal.write(encabezado);
+        }
+        p_canal.force(true);
+    }
+
+    /**
+     * Búfer de un bloque con codificación "varint" en zigzag.
+     */
+    private static class Bloque {
+        /** Contenido del bloque. */
+        private byte[] bytes = new byte[1024];
+        /** Longitud escrita (al escribir) o válida (al leer). */
+        private int longitud;
+        /** Posición de lectura. */
+        private int posicion;
+
+        /**
+         * Prepara el búfer para leer un bloque de la longitud dada.
+         *
+         * @param p_longitud Longitud del bloque.
+         */
+        void preparar(int p_longitud) {
+            if (this.bytes.length < p_longitud) {
+                this.bytes = new byte[p_longitud];
+            }
+            this.longitud = p_longitud;
+            this.posicion = 0;
+        }
+
+        /**
+         * Agrega un entero en zigzag y "varint".
+         *
+         * @param p_valor El valor a agregar.
+         */
+        void escribirEntero(int p_valor) {
+            int valor = (p_valor << 1) ^ (p_valor >> 31); // Zigzag: los negativos chicos ocupan poco
+            this.asegurar(5);
+            while ((valor & ~0x7F) != 0) {
+                this.bytes[this.longitud++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            this.bytes[this.longitud++] = (byte) valor;
+        }
+
+        /**
+         * Agrega bytes al final del búfer.
+         *
+         * @param p_bytes Los bytes a agregar.
+         */
+        void escribirBytes(byte[] p_bytes) {
+            this.asegurar(p_bytes.length);
+            System.arraycopy(p_bytes, 0, this.bytes, this.longitud, p_bytes.length);
+            this.longitud += p_bytes.length;
+        }
+
+        /**
+         * Lee un entero en zigzag y "varint".
+         *
+         * @return El valor leído.
+         * @throws ArchivoCorruptoException Si el bloque termina antes de tiempo.
+         */
+        int leerEntero() throws ArchivoCorruptoException {
+            int valor = 0;
+            for (int desplazamiento = 0; desplazamiento < 35; desplazamiento += 7) {
+                if (this.posicion >= this.longitud) {
+                    throw new ArchivoCorruptoException("Bloque del historial incompleto");
+                }
+                byte b = this.bytes[this.posicion++];
+                valor |= (b & 0x7F) << desplazamiento;
+                if (b >= 0) {
+                    return (valor >>> 1) ^ -(valor & 1);
+                }
+            }
+            throw new ArchivoCorruptoException("Entero inválido en el historial");
+        }
+
+        /**
+         * Lee un texto UTF-8.
+         *
+         * @param p_longitud Cantidad de bytes del texto.
+         * @return El texto leído.
+         * @throws ArchivoCorruptoException Si el bloque termina antes de tiempo.
+         */
+        String leerTexto(int p_longitud) throws ArchivoCorruptoException {
+            if (p_longitud < 0 || p_longitud > this.longitud - this.posicion) {
+                throw new ArchivoCorruptoException("Bloque del historial incompleto");
+            }
+            String texto = new String(this.bytes, this.posicion, p_longitud, StandardCharsets.UTF_8);
+            this.posicion += p_longitud;
+            return texto;
+        }
+
+        /**
+         * Asegura espacio para escribir una cantidad de bytes.
+         *
+         * @param p_cantidad Cantidad de bytes a escribir.
+         */
+        private void asegurar(int p_cantidad) {
+            if (this.longitud + p_cantidad > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes,
+                        Math.max(this.longitud + p_cantidad, this.bytes.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Índice de socios por DNI basado en una tabla hash de direccionamiento
+ * abierto (sondeo lineal).
+ * Las claves se guardan en un arreglo de enteros primitivos, por lo que las
+ * búsquedas no requieren "boxing" ni crean objetos, y se resuelven en tiempo
+ * constante aun con cientos de miles de socios.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class IndiceSocios {
+    /** Capacidad inicial de la tabla (siempre potencia de 2). */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /** DNIs almacenados en cada posición de la tabla. */
+    private int[] claves;
+    /** Socios almacenados en cada posición (null indica posición libre). */
+    private Socio[] valores;
+    /** Cantidad de socios indexados. */
+    private int cantidad;
+
+    /**
+     * Constructor para un índice vacío.
+     */
+    public IndiceSocios() {
+        this.claves = new int[CAPACIDAD_INICIAL];
+        this.valores = new Socio[CAPACIDAD_INICIAL];
+        this.cantidad = 0;
+    }
+
+    /**
+     * Obtiene la cantidad de socios indexados.
+     *
+     * @return El número de socios en el índice.
+     */
+    public int getCantidad() {
+        return this.cantidad;
+    }
+
+    /**
+     * Busca un socio por su DNI.
+     *
+     * @param p_dni El DNI a buscar.
+     * @return El {@link Socio} con ese DNI, o null si no está indexado.
+     */
+    public Socio buscar(int p_dni) {
+        int mascara = this.claves.length - 1;
+        int i = this.posicionInicial(p_dni, mascara);
+        while (this.valores[i] != null) {
+            if (this.claves[i] == p_dni) {
+                return this.valores[i];
+            }
+            i = (i + 1) & mascara;
+        }
+        return null;
+    }
+
+    /**
+     * Verifica si existe un socio indexado con el DNI dado.
+     *
+     * @param p_dni El DNI a consultar.
+     * @return true si el DNI ya está registrado.
+     */
+    public boolean contiene(int p_dni) {
+        return this.buscar(p_dni) != null;
+    }
+
+    /**
+     * Indexa un socio por su DNI. No reemplaza entradas existentes.
+     *
+     * @param p_socio El socio a indexar.
+     * @return true si se agregó, false si ya existía un socio con ese DNI.
+     */
+    public boolean agregar(Socio p_socio) {
+        // Se mantiene un factor de carga máximo de 1/2
+        if ((this.cantidad + 1) * 2 > this.claves.length) {
+            this.redimensionar(this.claves.length * 2);
+        }
+
+        int dni = p_socio.getDniSocio();
+        int mascara = this.claves.length - 1;
+        int i = this.posicionInicial(dni, mascara);
+        while (this.valores[i] != null) {
+            if (this.claves[i] == dni) {
+                return false; // DNI duplicado
+            }
+            i = (i + 1) & mascara;
+        }
+        this.claves[i] = dni;
+        this.valores[i] = p_socio;
+        this.cantidad++;
+        return true;
+    }
+
+    /**
+     * Quita del índice el socio con el DNI dado.
+     * Utiliza borrado por desplazamiento hacia atrás para no dejar "lápidas"
+     * que degraden las búsquedas posteriores.
+     *
+     * @param p_dni El DNI del socio a quitar.
+     * @return El socio quitado, o null si no estaba indexado.
+     */
+    public Socio quitar(int p_dni) {
+        int mascara = this.claves.length - 1;
+        int i = this.posicionInicial(p_dni, mascara);
+        while (this.valores[i] != null && this.claves[i] != p_dni) {
+            i = (i + 1) & mascara;
+        }
+        Socio quitado = this.valores[i];
+        if (quitado == null) {
+            return null;
+        }
+
+        // Reubica las entradas siguientes del mismo grupo para cerrar el hueco
+        int hueco = i;
+        int j = (i + 1) & mascara;
+        while (this.valores[j] != null) {
+            int ideal = this.posicionInicial(this.claves[j], mascara);
+            // La entrada j puede ocupar el hueco si su posición ideal no cae
+            // (cíclicamente) entre el hueco y j
+            if (((j - ideal) & mascara) >= ((j - hueco) & mascara)) {
+                this.claves[hueco] = this.claves[j];
+                this.valores[hueco] = this.valores[j];
+                hueco = j;
+            }
+            j = (j + 1) & mascara;
+        }
+        this.valores[hueco] = null;
+        this.cantidad--;
+        return quitado;
+    }
+
+    /**
+     * Calcula la posición inicial de sondeo para un DNI.
+     * Mezcla los bits del DNI para que DNIs consecutivos no se agrupen.
+     *
+     * @param p_dni     El DNI.
+     * @param p_mascara Máscara de la capacidad actual (capacidad - 1).
+     * @return La posición inicial en la tabla.
+     */
+    private int posicionInicial(int p_dni, int p_mascara) {
+        int h = p_dni * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & p_mascara;
+    }
+
+    /**
+     * Reconstruye la tabla con una nueva capacidad.
+     *
+     * @param p_capacidad Nueva capacidad (potencia de 2).
+     */
+    private void redimensionar(int p_capacidad) {
+        int[] clavesAnteriores = this.claves;
+        Socio[] valoresAnteriores = this.valores;
+        this.claves = new int[p_capacidad];
+        this.valores = new Socio[p_capacidad];
+        int mascara = p_capacidad - 1;
+
+        for (int k = 0; k < valoresAnteriores.length; k++) {
+            if (valoresAnteriores[k] != null) {
+                int i = this.posicionInicial(clavesAnteriores[k], mascara);
+                while (this.valores[i] != null) {
+                    i = (i + 1) & mascara;
+                }
+                this.claves[i] = clavesAnteriores[k];
+                this.valores[i] = valoresAnteriores[k];
+            }
+        }
+    }
+}
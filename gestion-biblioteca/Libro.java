@@ -1,4 +1,5 @@
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Representa una entidad Libro dentro de la biblioteca.
@@ -13,8 +14,22 @@ import java.util.ArrayList;
  * @version 1.0 (Inicial)
  */
 public class Libro {
+    /** Valor de {@code id} de un ejemplar que aún no se agregó a una biblioteca. */
+    public static final int SIN_ID = 0;
+
+    /**
+     * Identificador numérico del ejemplar, único y estable dentro de la
+     * biblioteca (se conserva al guardar y cargar). Distingue los ejemplares
+     * que comparten título.
+     */
+    private int id;
     /** Título del libro. */
     private String titulo;
+    /**
+     * Clave de búsqueda del título, precalculada sin distinción de mayúsculas y
+     * minúsculas (ver {@link #normalizarTitulo}).
+     */
+    private String claveTitulo;
     /** Número de edición. */
     private int edicion;
     /** Nombre de la editorial. */
@@ -23,6 +38,13 @@ public class Libro {
     private int anio;
     /** Colección de todos los préstamos históricos y actuales del libro. */
     private ArrayList<Prestamo> prestamos;
+    /**
+     * Préstamo en curso del ejemplar, o null si está en la biblioteca.
+     * Permite consultar la disponibilidad sin recorrer el historial. Se ocupa
+     * y se libera con compare-and-set: si varios mostradores piden el mismo
+     * ejemplar a la vez, solo uno lo obtiene y los demás fallan sin esperar.
+     */
+    private final AtomicReference<Prestamo> prestamoActual = new AtomicReference<Prestamo>();
 
     /**
      * Constructor para un nuevo libro sin historial de préstamos.
@@ -56,6 +78,10 @@ public class Libro {
         this.setEditorial(p_editorial);
         this.setAnio(p_anio);
         this.setPrestamos(p_prestamos);
+        // El ejemplar está prestado si el último préstamo del historial sigue abierto
+        if (!p_prestamos.isEmpty() && !p_prestamos.get(p_prestamos.size() - 1).estaDevuelto()) {
+            this.setPrestamoActual(p_prestamos.get(p_prestamos.size() - 1));
+        }
     }
 
     /**
@@ -74,6 +100,9 @@ public class Libro {
         this.setAnio(p_anio);
         this.setPrestamos(new ArrayList<Prestamo>());
         this.getPrestamos().add(p_prestamo);
+        if (!p_prestamo.estaDevuelto()) {
+            this.setPrestamoActual(p_prestamo);
+        }
     }
 
     /**
@@ -83,6 +112,7 @@ public class Libro {
      */
     private void setTitulo(String p_titulo) {
         this.titulo = p_titulo;
+        this.claveTitulo = Libro.normalizarTitulo(p_titulo);
     }
 
     /**
@@ -121,6 +151,44 @@ public class Libro {
         this.prestamos = p_prestamos;
     }
 
+    /**
+     * Establece el préstamo en curso del ejemplar.
+     *
+     * @param p_prestamoActual El préstamo abierto, o null si está disponible.
+     */
+    private void setPrestamoActual(Prestamo p_prestamoActual) {
+        this.prestamoActual.set(p_prestamoActual);
+    }
+
+    /**
+     * Asigna el identificador del ejemplar.
+     * Uso interno de {@link Biblioteca}.
+     *
+     * @param p_id El identificador (mayor que {@link #SIN_ID}).
+     */
+    void asignarId(int p_id) {
+        this.id = p_id;
+    }
+
+    /**
+     * Obtiene el identificador numérico del ejemplar.
+     *
+     * @return El identificador, o {@link #SIN_ID} si el ejemplar no pertenece
+     *         a ninguna biblioteca.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    /**
+     * Obtiene el préstamo en curso del ejemplar.
+     *
+     * @return El {@link Prestamo} abierto, o null si el libro está disponible.
+     */
+    public Prestamo getPrestamoActual() {
+        return this.prestamoActual.get();
+    }
+
     /**
      * Obtiene la lista completa de préstamos del libro.
      *
@@ -139,6 +207,15 @@ public class Libro {
         return this.titulo;
     }
 
+    /**
+     * Obtiene la clave de búsqueda del título (título normalizado).
+     *
+     * @return La clave del título, insensible a mayúsculas/minúsculas.
+     */
+    public String getClaveTitulo() {
+        return this.claveTitulo;
+    }
+
     /**
      * Obtiene la edición del libro.
      *
@@ -167,7 +244,9 @@ public class Libro {
     }
 
     /**
-     * Añade un nuevo préstamo al historial del libro (ficha de préstamos).
+     * Añade un préstamo al historial del libro (ficha de préstamos).
+     * No modifica el estado de disponibilidad; para prestar el ejemplar se
+     * utiliza {@link #abrirPrestamo}.
      *
      * @param p_prestamo El préstamo a registrar.
      */
@@ -177,27 +256,51 @@ public class Libro {
 
     /**
      * Elimina un préstamo del historial del libro.
+     * Si era el préstamo en curso, el ejemplar vuelve a quedar disponible.
      *
      * @param p_prestamo El préstamo a eliminar.
      */
     public void quitarPrestamo(Prestamo p_prestamo) {
         this.getPrestamos().remove(p_prestamo);
+        this.prestamoActual.compareAndSet(p_prestamo, null);
+    }
+
+    /**
+     * Intenta marcar el ejemplar como prestado con el préstamo dado y, si lo
+     * logra, lo asienta en el historial. La marca se hace con compare-and-set,
+     * por lo que de varios intentos simultáneos solo uno tiene éxito.
+     *
+     * @param p_prestamo El nuevo préstamo en curso.
+     * @return true si el ejemplar estaba disponible y quedó prestado, false si
+     *         ya tenía un préstamo en curso.
+     */
+    public boolean abrirPrestamo(Prestamo p_prestamo) {
+        if (!this.prestamoActual.compareAndSet(null, p_prestamo)) {
+            return false;
+        }
+        this.agregarPrestamo(p_prestamo);
+        return true;
+    }
+
+    /**
+     * Marca el ejemplar como disponible al cerrarse su préstamo en curso.
+     * El préstamo permanece en el historial.
+     *
+     * @param p_prestamo El préstamo que se cierra.
+     * @return true si era el préstamo en curso, false si ya se había cerrado.
+     */
+    public boolean cerrarPrestamo(Prestamo p_prestamo) {
+        return this.prestamoActual.compareAndSet(p_prestamo, null);
     }
 
     /**
      * Verifica si el libro está actualmente prestado.
-     * Se basa en el último préstamo registrado y comprueba si tiene
-     * una fecha de devolución nula.
+     * Se basa en el préstamo en curso, sin recorrer el historial.
      *
      * @return true si el libro está prestado, false si está disponible.
      */
     public boolean prestado() {
-        Prestamo ultimoPrestamo = this.ultimoPrestamo();
-        if (ultimoPrestamo == null) {
-            return false; // Nunca fue prestado
-        }
-        // Está prestado si el último préstamo no tiene fecha de devolución
-        return ultimoPrestamo.getFechaDevolucion() == null;
+        return this.getPrestamoActual() != null;
     }
 
     /**
@@ -214,6 +317,23 @@ public class Libro {
         return this.getPrestamos().get(this.getPrestamos().size() - 1);
     }
 
+    /**
+     * Normaliza un título para usarlo como clave de búsqueda.
+     * Pliega cada carácter de la misma forma que {@link String#equalsIgnoreCase},
+     * de modo que dos títulos son iguales ignorando mayúsculas si y solo si
+     * sus claves son iguales.
+     *
+     * @param p_titulo El título a normalizar.
+     * @return La clave normalizada del título.
+     */
+    public static String normalizarTitulo(String p_titulo) {
+        char[] caracteres = p_titulo.toCharArray();
+        for (int i = 0; i < caracteres.length; i++) {
+            caracteres[i] = Character.toLowerCase(Character.toUpperCase(caracteres[i]));
+        }
+        return new String(caracteres);
+    }
+
     /**
      * Devuelve una representación textual del libro, mostrando su título.
      *
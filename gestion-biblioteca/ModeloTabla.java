@@ -0,0 +1,295 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de tabla (para {@link javax.swing.JTable}) respaldado por una copia de
+ * las referencias de una colección de la {@link Biblioteca}.
+ * No arma texto ni objetos por fila: la JTable solo pide los valores de las
+ * celdas visibles, por lo que el costo de mostrar un listado no depende de su
+ * tamaño. El orden se resuelve con una permutación de índices calculada a
+ * partir de claves de orden precalculadas (una por columna, la primera vez
+ * que se ordena por ella).
+ *
+ * @param <T> Tipo de los elementos de cada fila.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class ModeloTabla<T> extends AbstractTableModel {
+    /** Elementos del listado, en su orden original. */
+    private final Object[] filas;
+    /** Columnas de la tabla. */
+    private final ArrayList<Columna<T>> columnas;
+    /** Texto que resume el listado (ej. totales), o null. */
+    private String resumen;
+    /** Permutación vigente: fila visible -> posición en {@code filas}. */
+    private int[] orden;
+    /** Columna por la que está ordenada la tabla, o -1 si está sin ordenar. */
+    private int columnaOrden = -1;
+    /** Indica si el orden vigente es descendente. */
+    private boolean descendente;
+
+    /**
+     * Constructor del modelo.
+     * <p>
+     * Las referencias se copian a un arreglo propio aunque la colección ya sea
+     * una copia (como la de {@link Biblioteca#getLibros()}): la JTable lee las
+     * celdas desde el EDT mientras otros hilos siguen operando, y el modelo no
+     * debe depender de que quien lo creó no vuelva a modificar la colección.
+     * El arreglo además da acceso directo por posición a cualquier
+     * {@link Collection}. Copiar las referencias cuesta una pasada sin armar
+     * objetos, muy por debajo de lo que costaba armar el texto del listado.
+     *
+     * @param p_filas Elementos a mostrar (se copian las referencias).
+     */
+    public ModeloTabla(Collection<? extends T> p_filas) {
+        this.filas = p_filas.toArray();
+        this.columnas = new ArrayList<Columna<T>>();
+        this.orden = null; // Orden original
+    }
+
+    /**
+     * Agrega una columna cuyo orden se decide por una clave entera.
+     *
+     * @param p_nombre Encabezado de la columna.
+     * @param p_valor  Función que obtiene el valor a mostrar.
+     * @param p_clave  Función que obtiene la clave de orden.
+     * @return Este modelo, para encadenar llamadas.
+     */
+    public ModeloTabla<T> columnaEntera(String p_nombre, Function<T, Object> p_valor, ToIntFunction<T> p_clave) {
+        this.columnas.add(new Columna<T>(p_nombre, p_valor, p_clave, null));
+        return this;
+    }
+
+    /**
+     * Agrega una columna cuyo orden se decide por una clave de texto.
+     *
+     * @param p_nombre Encabezado de la columna.
+     * @param p_valor  Función que obtiene el valor a mostrar.
+     * @param p_clave  Función que obtiene la clave de orden (ya normalizada).
+     * @return Este modelo, para encadenar llamadas.
+     */
+    public ModeloTabla<T> columnaTexto(String p_nombre, Function<T, Object> p_valor, Function<T, String> p_clave) {
+        this.columnas.add(new Columna<T>(p_nombre, p_valor, null, p_clave));
+        return this;
+    }
+
+    /**
+     * Establece el texto que resume el listado.
+     *
+     * @param p_resumen El resumen (ej. totales por tipo).
+     * @return Este modelo, para encadenar llamadas.
+     */
+    public ModeloTabla<T> conResumen(String p_resumen) {
+        this.resumen = p_resumen;
+        return this;
+    }
+
+    /**
+     * Obtiene el texto que resume el listado.
+     *
+     * @return El resumen, o null si no tiene.
+     */
+    public String getResumen() {
+        return this.resumen;
+    }
+
+    /**
+     * Obtiene el elemento que se muestra en una fila.
+     *
+     * @param p_fila La fila visible.
+     * @return El elemento de esa fila.
+     */
+    @SuppressWarnings("unchecked")
+    public T getElemento(int p_fila) {
+        int posicion = p_fila;
+        if (this.orden != null) {
+            posicion = this.descendente ? this.orden[this.orden.length - 1 - p_fila] : this.orden[p_fila];
+        }
+        return (T) this.filas[posicion];
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.filas.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return this.columnas.size();
+    }
+
+    @Override
+    public String getColumnName(int p_columna) {
+        String nombre = this.columnas.get(p_columna).nombre;
+        if (p_columna == this.columnaOrden) {
+            return nombre + (this.descendente ? " \u25BC" : " \u25B2");
+        }
+        return nombre;
+    }
+
+    @Override
+    public Object getValueAt(int p_fila, int p_columna) {
+        return this.columnas.get(p_columna).valor.apply(this.getElemento(p_fila));
+    }
+
+    /**
+     * Obtiene la columna por la que está ordenada la tabla.
+     *
+     * @return El índice de la columna, o -1 si la tabla está sin ordenar.
+     */
+    public int getColumnaOrden() {
+        return this.columnaOrden;
+    }
+
+    /**
+     * Indica si el orden vigente es descendente.
+     *
+     * @return true si es descendente.
+     */
+    public boolean esDescendente() {
+        return this.descendente;
+    }
+
+    /**
+     * Calcula (y guarda) el orden ascendente de una columna sin aplicarlo.
+     * Puede llamarse fuera del EDT para que la tabla no se congele al ordenar
+     * listados grandes; luego {@link #ordenarPor(int)} lo aplica al instante.
+     *
+     * @param p_columna El índice de la columna.
+     */
+    public void prepararOrden(int p_columna) {
+        this.columnas.get(p_columna).permutacion(this.filas);
+    }
+
+    /**
+     * Ordena la tabla por una columna. Si ya estaba ordenada por ella, invierte
+     * el sentido (sin volver a ordenar: se recorre la permutación al revés).
+     *
+     * @param p_columna El índice de la columna.
+     */
+    public void ordenarPor(int p_columna) {
+        if (p_columna == this.columnaOrden) {
+            this.descendente = !this.descendente;
+        } else {
+            this.orden = this.columnas.get(p_columna).permutacion(this.filas);
+            this.columnaOrden = p_columna;
+            this.descendente = false;
+        }
+        this.fireTableDataChanged();
+    }
+
+    /**
+     * Definición de una columna: su encabezado, cómo obtener el valor a mostrar
+     * y cómo obtener su clave de orden.
+     *
+     * @param <T> Tipo de los elementos de cada fila.
+     */
+    private static class Columna<T> {
+        /** Encabezado de la columna. */
+        private final String nombre;
+        /** Función que obtiene el valor a mostrar. */
+        private final Function<T, Object> valor;
+        /** Clave de orden entera (null si la clave es de texto). */
+        private final ToIntFunction<T> claveEntera;
+        /** Clave de orden de texto (null si la clave es entera). */
+        private final Function<T, String> claveTexto;
+        /** Permutación ascendente calculada la primera vez que se ordena. */
+        private volatile int[] permutacion;
+
+        /**
+         * Constructor de la columna.
+         *
+         * @param p_nombre      Encabezado.
+         * @param p_valor       Valor a mostrar.
+         * @param p_claveEntera Clave de orden entera, o null.
+         * @param p_claveTexto  Clave de orden de texto, o null.
+         */
+        Columna(String p_nombre, Function<T, Object> p_valor, ToIntFunction<T> p_claveEntera,
+                Function<T, String> p_claveTexto) {
+            this.nombre = p_nombre;
+            this.valor = p_valor;
+            this.claveEntera = p_claveEntera;
+            this.claveTexto = p_claveTexto;
+        }
+
+        /**
+         * Obtiene la permutación que ordena las filas en forma ascendente (y
+         * estable) según la clave de esta columna.
+         *
+         * @param p_filas Los elementos del listado.
+         * @return La permutación de índices.
+         */
+        @SuppressWarnings("unchecked")
+        int[] permutacion(Object[] p_filas) {
+            if (this.permutacion != null) {
+                return this.permutacion;
+            }
+
+            int n = p_filas.length;
+            int[] resultado = new int[n];
+            if (this.claveEntera != null) {
+                // Clave y posición empaquetadas en un long: un único orden primitivo
+                long[] claves = new long[n];
+                for (int i = 0; i < n; i++) {
+                    long clave = this.claveEntera.applyAsInt((T) p_filas[i]);
+                    claves[i] = (clave << 32) | i;
+                }
+                Arrays.sort(claves);
+                for (int i = 0; i < n; i++) {
+                    resultado[i] = (int) claves[i];
+                }
+            } else {
+                String[] claves = new String[n];
+                for (int i = 0; i < n; i++) {
+                    claves[i] = this.claveTexto.apply((T) p_filas[i]);
+                    resultado[i] = i;
+                }
+                ordenar(resultado, new int[n], 0, n, claves);
+            }
+            this.permutacion = resultado;
+            return resultado;
+        }
+
+        /**
+         * Ordenamiento por mezcla (estable) de índices según claves de texto.
+         *
+         * @param p_indices Índices a ordenar.
+         * @param p_auxiliar Arreglo auxiliar del mismo tamaño.
+         * @param p_desde   Inicio del tramo (inclusive).
+         * @param p_hasta   Fin del tramo (exclusivo).
+         * @param p_claves  Claves de orden por índice.
+         */
+        private static void ordenar(int[] p_indices, int[] p_auxiliar, int p_desde, int p_hasta,
+                String[] p_claves) {
+            if (p_hasta - p_desde < 2) {
+                return;
+            }
+            int medio = (p_desde + p_hasta) >>> 1;
+            ordenar(p_indices, p_auxiliar, p_desde, medio, p_claves);
+            ordenar(p_indices, p_auxiliar, medio, p_hasta, p_claves);
+            if (p_claves[p_indices[medio - 1]].compareTo(p_claves[p_indices[medio]]) <= 0) {
+                return; // Los tramos ya están en orden
+            }
+
+            System.arraycopy(p_indices, p_desde, p_auxiliar, p_desde, p_hasta - p_desde);
+            int i = p_desde;
+            int j = medio;
+            for (int k = p_desde; k < p_hasta; k++) {
+                if (j >= p_hasta || (i < medio && p_claves[p_auxiliar[i]].compareTo(p_claves[p_auxiliar[j]]) <= 0)) {
+                    p_indices[k] = p_auxiliar[i++];
+                } else {
+                    p_indices[k] = p_auxiliar[j++];
+                }
+            }
+        }
+    }
+}
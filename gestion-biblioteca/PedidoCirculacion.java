@@ -0,0 +1,158 @@
+/**
+ * Pedido de préstamo o de devolución dentro de un lote (ver
+ * {@link Biblioteca#prestarLibros} y {@link Biblioteca#devolverLibros}).
+ * Indica el socio (por DNI) y el libro, ya sea un ejemplar determinado (por
+ * identificador) o cualquier ejemplar de un título. Al procesarse el lote, el
+ * pedido registra su resultado y el ejemplar prestado o devuelto.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class PedidoCirculacion {
+    /** DNI de un pedido sin socio (las devoluciones no lo requieren). */
+    public static final int SIN_SOCIO = 0;
+
+    /** DNI del socio que pide el libro, o {@link #SIN_SOCIO}. */
+    private int dniSocio;
+    /** Identificador del ejemplar, o {@link Libro#SIN_ID} si se pide por título. */
+    private int idLibro;
+    /** Título del libro, o null si se pide un ejemplar por identificador. */
+    private String titulo;
+    /** Resultado del pedido, o null si todavía no se procesó. */
+    private ResultadoLote resultado;
+    /** Ejemplar prestado o devuelto, o null. */
+    private Libro libro;
+
+    /**
+     * Constructor de un pedido por título: se presta (o devuelve) cualquier
+     * ejemplar disponible (o prestado) del título.
+     *
+     * @param p_dniSocio DNI del socio, o {@link #SIN_SOCIO} en una devolución.
+     * @param p_titulo   Título del libro.
+     */
+    public PedidoCirculacion(int p_dniSocio, String p_titulo) {
+        this.setDniSocio(p_dniSocio);
+        this.setIdLibro(Libro.SIN_ID);
+        this.setTitulo(p_titulo);
+    }
+
+    /**
+     * Constructor de un pedido de un ejemplar determinado.
+     *
+     * @param p_dniSocio DNI del socio, o {@link #SIN_SOCIO} en una devolución.
+     * @param p_idLibro  Identificador del ejemplar.
+     */
+    public PedidoCirculacion(int p_dniSocio, int p_idLibro) {
+        this.setDniSocio(p_dniSocio);
+        this.setIdLibro(p_idLibro);
+        this.setTitulo(null);
+    }
+
+    /**
+     * Establece el DNI del socio.
+     *
+     * @param p_dniSocio DNI del socio.
+     */
+    private void setDniSocio(int p_dniSocio) {
+        this.dniSocio = p_dniSocio;
+    }
+
+    /**
+     * Establece el identificador del ejemplar.
+     *
+     * @param p_idLibro Identificador del ejemplar.
+     */
+    private void setIdLibro(int p_idLibro) {
+        this.idLibro = p_idLibro;
+    }
+
+    /**
+     * Establece el título del libro.
+     *
+     * @param p_titulo Título del libro.
+     */
+    private void setTitulo(String p_titulo) {
+        this.titulo = p_titulo;
+    }
+
+    /**
+     * Registra el resultado del pedido. Uso interno de {@link Biblioteca}.
+     *
+     * @param p_resultado El resultado.
+     * @param p_libro     El ejemplar prestado o devuelto, o null.
+     */
+    void resolver(ResultadoLote p_resultado, Libro p_libro) {
+        this.resultado = p_resultado;
+        this.libro = p_libro;
+    }
+
+    /**
+     * Obtiene el DNI del socio.
+     *
+     * @return El DNI, o {@link #SIN_SOCIO}.
+     */
+    public int getDniSocio() {
+        return this.dniSocio;
+    }
+
+    /**
+     * Obtiene el identificador del ejemplar pedido.
+     *
+     * @return El identificador, o {@link Libro#SIN_ID} si se pide por título.
+     */
+    public int getIdLibro() {
+        return this.idLibro;
+    }
+
+    /**
+     * Obtiene el título pedido.
+     *
+     * @return El título, o null si se pide un ejemplar por identificador.
+     */
+    public String getTitulo() {
+        return this.titulo;
+    }
+
+    /**
+     * Obtiene el resultado del pedido.
+     *
+     * @return El resultado, o null si el pedido no se procesó.
+     */
+    public ResultadoLote getResultado() {
+        return this.resultado;
+    }
+
+    /**
+     * Obtiene el ejemplar prestado o devuelto.
+     *
+     * @return El ejemplar, o null si el pedido no se realizó (o no se
+     *         procesó).
+     */
+    public Libro getLibro() {
+        return this.libro;
+    }
+
+    /**
+     * Devuelve una representación textual del pedido, con el libro pedido y,
+     * si ya se procesó, su resultado.
+     *
+     * @return Un String (ej. "Rayuela: Operación realizada").
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (this.getTitulo() != null) {
+            sb.append(this.getTitulo());
+        } else {
+            sb.append("Ejemplar ").append(this.getIdLibro());
+        }
+        if (this.getResultado() != null) {
+            sb.append(": ").append(this.getResultado().getDescripcion());
+        }
+        return sb.toString();
+    }
+}
@@ -2,7 +2,13 @@ import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Panel (JPanel) principal de la aplicación.
@@ -25,6 +31,43 @@ public class PortalPanel extends JPanel implements ActionListener {
     private VentanaPrincipal ventana;
     /** Área de texto donde se muestran los resultados de las operaciones. */
     private JTextArea areaResultados;
+    /** Tabla donde se muestran los listados grandes (socios, libros, vencidos). */
+    private JTable tablaResultados;
+    /** Etiqueta con el resumen del listado que muestra la tabla. */
+    private JLabel etiquetaResumen;
+    /** Contenedor que alterna entre el área de texto y la tabla. */
+    private JPanel panelResultados;
+    /** Barra que indica (y permite cancelar) la operación en curso. */
+    private JPanel panelProgreso;
+    /** Botón para cancelar el informe en curso. */
+    private JButton botonCancelar;
+    /**
+     * Ejecutor de un único hilo donde corren, en orden, todas las operaciones
+     * sobre la biblioteca. Así el EDT nunca se bloquea y las operaciones no se
+     * pisan entre sí.
+     */
+    private final ExecutorService ejecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "portal-biblioteca");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+    /** Última operación enviada al ejecutor (en curso o en espera). */
+    private TareaPortal tareaEnCurso;
+    /**
+     * Número de la vista de resultados actual. Aumenta cada vez que una tarea
+     * reemplaza los resultados; una tarea solo muestra su salida mientras la
+     * vista en la que se envió siga siendo la actual.
+     */
+    private int vistaActual;
+
+    /** Segundos que se espera a las operaciones pendientes antes de consultar al usuario. */
+    private static final int ESPERA_AL_CERRAR = 5;
+    /** Cantidad de caracteres que se acumulan antes de enviar un bloque a la UI. */
+    private static final int TAMANIO_BLOQUE = 16 * 1024;
+    /** Nombre de la vista de resultados en texto. */
+    private static final String VISTA_TEXTO = "texto";
+    /** Nombre de la vista de resultados en tabla. */
+    private static final String VISTA_TABLA = "tabla";
 
     // Constantes de colores para la UI del portal
     private final Color colorFondoPrincipal = new Color(0x1F2937);
@@ -148,7 +191,59 @@ public class PortalPanel extends JPanel implements ActionListener {
         JScrollPane scrollArea = new JScrollPane(this.getAreaResultados());
         scrollArea.setBorder(BorderFactory.createLineBorder(this.getColorSeparador()));
 
-        panelCentral.add(scrollArea, BorderLayout.CENTER);
+        // --- Barra de Progreso (visible mientras hay una operación en curso) ---
+        this.panelProgreso = new JPanel(new BorderLayout(10, 0));
+        this.panelProgreso.setBackground(this.getColorFondoPrincipal());
+        this.panelProgreso.setBorder(new EmptyBorder(0, 0, 10, 0));
+        JProgressBar barraProgreso = new JProgressBar();
+        barraProgreso.setIndeterminate(true);
+        barraProgreso.setString("Procesando...");
+        barraProgreso.setStringPainted(true);
+        this.panelProgreso.add(barraProgreso, BorderLayout.CENTER);
+        this.botonCancelar = new JButton("Cancelar");
+        this.botonCancelar.setFocusPainted(false);
+        this.botonCancelar.addActionListener(e -> this.cancelarTareaEnCurso());
+        this.panelProgreso.add(this.botonCancelar, BorderLayout.EAST);
+        this.panelProgreso.setVisible(false);
+
+        // --- Tabla de Resultados (solo dibuja las filas visibles) ---
+        this.tablaResultados = new JTable();
+        this.tablaResultados.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 16));
+        this.tablaResultados.setRowHeight(26);
+        this.tablaResultados.setBackground(this.getColorPanelContenido());
+        this.tablaResultados.setForeground(this.getColorTextoContenido());
+        this.tablaResultados.setGridColor(this.getColorSeparador());
+        this.tablaResultados.setFillsViewportHeight(true);
+        this.tablaResultados.getTableHeader().setFont(new Font(Font.SANS_SERIF, Font.BOLD, 16));
+        this.tablaResultados.getTableHeader().setReorderingAllowed(false);
+        this.tablaResultados.getTableHeader().addMouseListener(new MouseAdapter() {
+            public void mouseClicked(MouseEvent evt) {
+                int columna = tablaResultados.columnAtPoint(evt.getPoint());
+                if (columna >= 0) {
+                    ordenarTabla(tablaResultados.convertColumnIndexToModel(columna));
+                }
+            }
+        });
+
+        JScrollPane scrollTabla = new JScrollPane(this.tablaResultados);
+        scrollTabla.setBorder(BorderFactory.createLineBorder(this.getColorSeparador()));
+
+        this.etiquetaResumen = new JLabel(" ");
+        this.etiquetaResumen.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 15));
+        this.etiquetaResumen.setForeground(this.getColorTextoTitulo());
+        this.etiquetaResumen.setBorder(new EmptyBorder(10, 0, 0, 0));
+
+        JPanel panelTabla = new JPanel(new BorderLayout());
+        panelTabla.setBackground(this.getColorFondoPrincipal());
+        panelTabla.add(scrollTabla, BorderLayout.CENTER);
+        panelTabla.add(this.etiquetaResumen, BorderLayout.SOUTH);
+
+        this.panelResultados = new JPanel(new CardLayout());
+        this.panelResultados.add(scrollArea, VISTA_TEXTO);
+        this.panelResultados.add(panelTabla, VISTA_TABLA);
+
+        panelCentral.add(this.panelProgreso, BorderLayout.NORTH);
+        panelCentral.add(this.panelResultados, BorderLayout.CENTER);
         this.add(panelCentral, BorderLayout.CENTER);
     }
 
@@ -298,9 +393,10 @@ public class PortalPanel extends JPanel implements ActionListener {
 
     /**
      * Manejador central de eventos para todos los botones del menú.
-     * Identifica la acción solicitada por su "ActionCommand", ejecuta la lógica
-     * de negocio correspondiente (interactuando con {@link Biblioteca}) y
-     * muestra el resultado en el {@code areaResultados}.
+     * Identifica la acción solicitada por su "ActionCommand" y, en el EDT, pide
+     * al usuario los datos necesarios. La lógica de negocio correspondiente
+     * (interactuando con {@link Biblioteca}) se ejecuta en segundo plano y su
+     * resultado se muestra en el {@code areaResultados} a medida que se genera.
      *
      * @param p_evento El evento de acción generado.
      */
@@ -308,35 +404,28 @@ public class PortalPanel extends JPanel implements ActionListener {
     public void actionPerformed(ActionEvent p_evento) {
         String comando = p_evento.getActionCommand();
         Biblioteca biblioteca = this.getVentana().getBiblioteca();
-        String resultado = "";
 
         try {
             // ---- Acción de Salida ----
             if (comando.equals("Cerrar Sesión")) {
+                this.cancelarTareaEnCurso();
                 this.getVentana().mostrarLogin();
                 return; // Termina la ejecución aquí
             }
 
             // ---- Acciones de Reportes ----
             if (comando.equals("Listar Socios")) {
-                resultado = biblioteca.listaDeSocios();
+                this.mostrarTablaEnSegundoPlano(comando, () -> this.crearTablaSocios(biblioteca));
             } else if (comando.equals("Listar Libros")) {
-                resultado = biblioteca.listaDeLibros();
+                this.mostrarTablaEnSegundoPlano(comando, () -> this.crearTablaLibros(biblioteca));
             } else if (comando.equals("Listar Títulos")) {
-                resultado = biblioteca.listaDeTitulos();
+                this.ejecutarEnSegundoPlano(comando, true,
+                        salida -> biblioteca.listaDeTitulos(salida, 0, Integer.MAX_VALUE));
             } else if (comando.equals("Ver Docentes Responsables")) {
-                resultado = biblioteca.listaDeDocentesResponsables();
+                this.ejecutarEnSegundoPlano(comando, true,
+                        salida -> biblioteca.listaDeDocentesResponsables(salida, 0, Integer.MAX_VALUE));
             } else if (comando.equals("Ver Préstamos Vencidos")) {
-                ArrayList<Prestamo> vencidos = biblioteca.prestamosVencidos();
-                if (vencidos.isEmpty()) {
-                    resultado = "No hay préstamos vencidos a la fecha.";
-                } else {
-                    StringBuilder sb = new StringBuilder("--- PRÉSTAMOS VENCIDOS ---\n\n");
-                    for (Prestamo unPrestamo : vencidos) {
-                        sb.append(unPrestamo.toString()).append("\n---------------------------------\n");
-                    }
-                    resultado = sb.toString();
-                }
+                this.mostrarTablaEnSegundoPlano(comando, () -> this.crearTablaVencidos(biblioteca));
 
                 // ---- Acciones de Gestión de Socios ----
             } else if (comando.equals("Agregar Estudiante")) {
@@ -353,8 +442,12 @@ public class PortalPanel extends JPanel implements ActionListener {
                 if (carrera == null || carrera.trim().isEmpty())
                     return;
 
-                biblioteca.nuevoSocioEstudiante(Integer.parseInt(dni), nombre, carrera);
-                resultado = "Estudiante agregado exitosamente.\n\n" + biblioteca.listaDeSocios();
+                int dniSocio = Integer.parseInt(dni);
+                this.ejecutarEnSegundoPlano(comando, false, salida -> {
+                    biblioteca.nuevoSocioEstudiante(dniSocio, nombre, carrera);
+                    salida.append("Estudiante agregado exitosamente.\n\n");
+                    salida.append(biblioteca.buscarSocio(dniSocio).toString());
+                });
 
             } else if (comando.equals("Agregar Docente")) {
                 String dni = JOptionPane.showInputDialog(this, "Ingrese DNI:", "Nuevo Docente",
@@ -370,8 +463,12 @@ public class PortalPanel extends JPanel implements ActionListener {
                 if (area == null || area.trim().isEmpty())
                     return;
 
-                biblioteca.nuevoSocioDocente(Integer.parseInt(dni), nombre, area);
-                resultado = "Docente agregado exitosamente.\n\n" + biblioteca.listaDeSocios();
+                int dniSocio = Integer.parseInt(dni);
+                this.ejecutarEnSegundoPlano(comando, false, salida -> {
+                    biblioteca.nuevoSocioDocente(dniSocio, nombre, area);
+                    salida.append("Docente agregado exitosamente.\n\n");
+                    salida.append(biblioteca.buscarSocio(dniSocio).toString());
+                });
 
                 // ---- Acciones de Gestión de Libros ----
             } else if (comando.equals("Agregar Libro")) {
@@ -392,8 +489,14 @@ public class PortalPanel extends JPanel implements ActionListener {
                 if (anio == null || anio.trim().isEmpty())
                     return;
 
-                biblioteca.nuevoLibro(titulo, Integer.parseInt(ed), edit, Integer.parseInt(anio));
-                resultado = "Libro agregado exitosamente.\n\n" + biblioteca.listaDeLibros();
+                int edicion = Integer.parseInt(ed);
+                int anioLibro = Integer.parseInt(anio);
+                this.ejecutarEnSegundoPlano(comando, false, salida -> {
+                    Libro libro = new Libro(titulo, edicion, edit, anioLibro);
+                    biblioteca.agregarLibro(libro);
+                    salida.append("Libro agregado exitosamente.\n\n");
+                    escribirFilaLibro(salida, libro);
+                });
 
             } else if (comando.equals("Prestar Libro")) {
                 String dni = JOptionPane.showInputDialog(this, "DNI del Socio:", "Prestar Libro",
@@ -423,43 +526,67 @@ public class PortalPanel extends JPanel implements ActionListener {
                 int anio = Integer.parseInt(anioStr);
                 int mes = Integer.parseInt(mesStr);
                 int dia = Integer.parseInt(diaStr);
+                int dniSocio = Integer.parseInt(dni);
 
                 Calendar fechaPrestamo = new GregorianCalendar(anio, mes - 1, dia); // Calendar usa meses 0-11
 
-                Socio socio = biblioteca.buscarSocio(Integer.parseInt(dni));
-                // Utiliza el método de búsqueda de la ventana principal
-                Libro libro = this.getVentana().buscarLibroPorTitulo(titulo);
-
-                if (socio == null)
-                    throw new Exception("Socio no encontrado (DNI: " + dni + ")");
-                if (libro == null)
-                    throw new Exception("Libro no encontrado (Título: " + titulo + ")");
-
-                if (biblioteca.prestarLibro(fechaPrestamo, socio, libro)) {
-                    resultado = "Préstamo registrado exitosamente (Fecha: " + dia + "/" + mes + "/" + anio + ")\n\n"
-                            + biblioteca.listaDeLibros();
-                } else {
-                    // Genera un mensaje de error detallado si el préstamo falla
-                    resultado = "Error: No se pudo realizar el préstamo.\n";
-                    if (libro.prestado())
-                        resultado += "- El libro ya está prestado.\n";
-                    if (!socio.puedePedir())
-                        resultado += "- El socio no cumple los requisitos para pedir (límite de libros o préstamos vencidos).";
-                }
+                this.ejecutarEnSegundoPlano(comando, false, salida -> {
+                    Socio socio = biblioteca.buscarSocio(dniSocio);
+                    // Busca un ejemplar de ese título que no esté prestado
+                    Libro libro = biblioteca.buscarLibroDisponible(titulo);
+
+                    if (socio == null)
+                        throw new Exception("Socio no encontrado (DNI: " + dni + ")");
+                    if (libro == null)
+                        throw new Exception("Libro no encontrado (Título: " + titulo + ")");
+
+                    if (biblioteca.prestarLibro(fechaPrestamo, socio, libro)) {
+                        salida.append("Préstamo registrado exitosamente (Fecha: " + dia + "/" + mes + "/" + anio
+                                + ")\n\n");
+                        escribirFilaLibro(salida, libro);
+                    } else {
+                        // Genera un mensaje de error detallado si el préstamo falla
+                        salida.append("Error: No se pudo realizar el préstamo.\n");
+                        if (libro.prestado())
+                            salida.append("- El libro ya está prestado.\n");
+                        if (!socio.puedePedir(biblioteca.hoy()))
+                            salida.append(
+                                    "- El socio no cumple los requisitos para pedir (límite de libros o préstamos vencidos).");
+                    }
+                });
 
             } else if (comando.equals("Devolver Libro")) {
-                String titulo = JOptionPane.showInputDialog(this, "Título del Libro a devolver:", "Devolver Libro",
-                        JOptionPane.PLAIN_MESSAGE);
-                if (titulo == null || titulo.trim().isEmpty())
+                // Admite varios títulos (uno por línea), ej. los del buzón de devoluciones
+                JTextArea campoTitulos = new JTextArea(8, 30);
+                int opcion = JOptionPane.showConfirmDialog(this,
+                        new Object[] { "Título de cada libro a devolver (uno por línea):",
+                                new JScrollPane(campoTitulos) },
+                        "Devolver Libro", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+                if (opcion != JOptionPane.OK_OPTION)
+                    return;
+                ArrayList<PedidoCirculacion> pedidos = new ArrayList<PedidoCirculacion>();
+                for (String unTitulo : campoTitulos.getText().split("\n")) {
+                    if (!unTitulo.trim().isEmpty()) {
+                        pedidos.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, unTitulo.trim()));
+                    }
+                }
+                if (pedidos.isEmpty())
                     return;
 
-                Libro libro = this.getVentana().buscarLibroPorTitulo(titulo);
-                if (libro == null)
-                    throw new Exception("Libro no encontrado (Título: " + titulo + ")");
-
-                // Llama a la lógica de negocio para devolver
-                biblioteca.devolverLibro(libro);
-                resultado = "Devolución registrada exitosamente.\n\n" + biblioteca.listaDeLibros();
+                this.ejecutarEnSegundoPlano(comando, false, salida -> {
+                    // Devuelve todo el lote de una vez, con un resultado por libro
+                    biblioteca.devolverLibros(pedidos, biblioteca.hoy());
+                    int realizadas = 0;
+                    for (PedidoCirculacion unPedido : pedidos) {
+                        if (unPedido.getResultado() == ResultadoLote.REALIZADO) {
+                            realizadas++;
+                        }
+                    }
+                    salida.append("Devoluciones registradas: " + realizadas + " de " + pedidos.size() + "\n\n");
+                    for (PedidoCirculacion unPedido : pedidos) {
+                        salida.append("- ").append(unPedido.toString()).append("\n");
+                    }
+                });
 
             } else if (comando.equals("Quién tiene un Libro")) {
                 String titulo = JOptionPane.showInputDialog(this, "Título del Libro a consultar:", "Consultar Préstamo",
@@ -467,26 +594,506 @@ public class PortalPanel extends JPanel implements ActionListener {
                 if (titulo == null || titulo.trim().isEmpty())
                     return;
 
-                Libro libro = this.getVentana().buscarLibroPorTitulo(titulo);
-                if (libro == null)
-                    throw new Exception("Libro no encontrado (Título: " + titulo + ")");
+                this.ejecutarEnSegundoPlano(comando, false, salida -> {
+                    Libro libro = biblioteca.buscarLibroPrestado(titulo);
+                    if (libro == null)
+                        throw new Exception("Libro no encontrado (Título: " + titulo + ")");
 
-                resultado = "El libro '" + libro.getTitulo() + "' está en poder de: "
-                        + biblioteca.quienTieneElLibro(libro);
+                    salida.append("El libro '" + libro.getTitulo() + "' está en poder de: "
+                            + biblioteca.quienTieneElLibro(libro));
+                });
             }
 
-            // ---- Muestra el Resultado Exitoso ----
-            this.getAreaResultados().setForeground(this.getColorTextoContenido());
-            this.getAreaResultados().setText(resultado);
-
         } catch (Exception ex) {
-            // ---- Manejo de Excepciones (ej. ParseException, LibroNoPrestadoException)
-            // ----
-            this.getAreaResultados().setForeground(Color.RED);
-            this.getAreaResultados().setText("Error: " + ex.getMessage());
+            // ---- Manejo de Excepciones de los datos ingresados (ej. NumberFormatException)
+            this.mostrarError(ex);
         }
+    }
 
-        // Asegura que el scroll del área de resultados vuelva al inicio
+    /**
+     * Escribe la fila de un libro afectado por una operación, con el mismo
+     * formato que el listado de libros. Se muestra solo esa fila en lugar del
+     * catálogo completo, que puede consultarse en la tabla de libros.
+     *
+     * @param p_salida Destino del texto.
+     * @param p_libro  El libro agregado o prestado.
+     * @throws IOException Si la salida falla al escribir.
+     */
+    private static void escribirFilaLibro(Appendable p_salida, Libro p_libro) throws IOException {
+        p_salida.append(p_libro.toString())
+                .append(" || Prestado: ")
+                .append(p_libro.prestado() ? "(Si)" : "(No)");
+    }
+
+    /**
+     * Muestra un error en el área de resultados.
+     *
+     * @param p_error La excepción a informar.
+     */
+    private void mostrarError(Throwable p_error) {
+        this.mostrarVista(VISTA_TEXTO);
+        this.getAreaResultados().setForeground(Color.RED);
+        this.getAreaResultados().setText("Error: " + p_error.getMessage());
         this.getAreaResultados().setCaretPosition(0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Envía una operación sobre la biblioteca al ejecutor en segundo plano.
+     * Si el mismo informe ya está en curso (o en espera), el nuevo pedido se
+     * une a él; si hay otro informe en curso, se cancela para dar lugar a la
+     * nueva operación. Las operaciones que modifican datos nunca se descartan:
+     * si otra está pendiente, la nueva se encola detrás y su resultado se
+     * agrega a continuación del anterior.
+     *
+     * @param p_comando    La acción solicitada (ActionCommand del botón).
+     * @param p_cancelable true si la operación es un informe que puede
+     *                     cancelarse sin efectos sobre los datos.
+     * @param p_operacion  La operación a ejecutar.
+     */
+    private void ejecutarEnSegundoPlano(String p_comando, boolean p_cancelable, Operacion p_operacion) {
+        if (this.esRepetida(p_comando)) {
+            return;
+        }
+
+        TareaPortal anterior = this.tareaEnCurso;
+        boolean aContinuacion = anterior != null && !anterior.isDone() && !anterior.esCancelable();
+        if (!aContinuacion) {
+            this.vistaActual++;
+            this.getAreaResultados().setForeground(this.getColorTextoContenido());
+            this.getAreaResultados().setText("");
+            this.mostrarVista(VISTA_TEXTO);
+        }
+        this.enviar(new TareaPortal(p_comando, p_cancelable, p_operacion, null, aContinuacion));
+    }
+
+    /**
+     * Envía al ejecutor en segundo plano la construcción de un listado en forma
+     * de tabla. La tabla reemplaza a la vista actual cuando está lista.
+     * Aplica las mismas reglas de repetición y cancelación que
+     * {@link #ejecutarEnSegundoPlano(String, boolean, Operacion)}.
+     *
+     * @param p_comando La acción solicitada (ActionCommand del botón).
+     * @param p_consulta La consulta que arma el modelo de la tabla.
+     */
+    private void mostrarTablaEnSegundoPlano(String p_comando, Consulta p_consulta) {
+        if (this.esRepetida(p_comando)) {
+            return;
+        }
+        this.vistaActual++;
+        this.enviar(new TareaPortal(p_comando, true, null, p_consulta, false));
+    }
+
+    /**
+     * Indica si el informe solicitado ya está en curso. Si hay otro informe en
+     * curso, lo cancela. Solo se unen los informes (tareas cancelables), que
+     * no modifican datos ni dependen de los datos ingresados.
+     *
+     * @param p_comando La acción solicitada.
+     * @return true si el mismo informe ya está en curso (o en espera).
+     */
+    private boolean esRepetida(String p_comando) {
+        TareaPortal anterior = this.tareaEnCurso;
+        if (anterior != null && !anterior.isDone() && anterior.esCancelable()) {
+            if (anterior.getComando().equals(p_comando)) {
+                return true; // Informe repetido: se une al que ya está en curso
+            }
+            anterior.cancel(true);
+        }
+        return false;
+    }
+
+    /**
+     * Registra una tarea como la última solicitada y la envía al ejecutor.
+     *
+     * @param p_tarea La tarea a ejecutar.
+     */
+    private void enviar(TareaPortal p_tarea) {
+        this.tareaEnCurso = p_tarea;
+        this.botonCancelar.setEnabled(p_tarea.esCancelable());
+        this.panelProgreso.setVisible(true);
+        this.ejecutor.execute(p_tarea);
+    }
+
+    /**
+     * Muestra una de las vistas de resultados (texto o tabla).
+     *
+     * @param p_vista {@link #VISTA_TEXTO} o {@link #VISTA_TABLA}.
+     */
+    private void mostrarVista(String p_vista) {
+        ((CardLayout) this.panelResultados.getLayout()).show(this.panelResultados, p_vista);
+    }
+
+    /**
+     * Ordena la tabla de resultados por una columna. La primera vez que se
+     * ordena por una columna, el orden se calcula en segundo plano.
+     *
+     * @param p_columna El índice (del modelo) de la columna.
+     */
+    private void ordenarTabla(int p_columna) {
+        if (!(this.tablaResultados.getModel() instanceof ModeloTabla)) {
+            return;
+        }
+        ModeloTabla<?> modelo = (ModeloTabla<?>) this.tablaResultados.getModel();
+        this.ejecutor.execute(new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                modelo.prepararOrden(p_columna);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (tablaResultados.getModel() == modelo) {
+                    modelo.ordenarPor(p_columna);
+                    tablaResultados.getTableHeader().repaint();
+                }
+            }
+        });
+    }
+
+    /**
+     * Arma la tabla del catálogo de libros. Se ejecuta en segundo plano.
+     *
+     * @param p_biblioteca La biblioteca a consultar.
+     * @return El modelo de la tabla.
+     */
+    private ModeloTabla<Libro> crearTablaLibros(Biblioteca p_biblioteca) {
+        ModeloTabla<Libro> modelo = new ModeloTabla<Libro>(p_biblioteca.getLibros());
+        modelo.columnaTexto("Título", Libro::getTitulo, Libro::getClaveTitulo)
+                .columnaEntera("Edición", Libro::getEdicion, Libro::getEdicion)
+                .columnaTexto("Editorial", Libro::getEditorial, l -> l.getEditorial().toLowerCase())
+                .columnaEntera("Año", Libro::getAnio, Libro::getAnio)
+                .columnaEntera("Estado", l -> l.prestado() ? "Prestado" : "Disponible",
+                        l -> l.prestado() ? 1 : 0);
+        if (modelo.getRowCount() == 0) {
+            return modelo.conResumen("No hay libros registrados.");
+        }
+        return modelo.conResumen("Cantidad de libros: " + modelo.getRowCount());
+    }
+
+    /**
+     * Arma la tabla de socios, con el resumen de cantidades por tipo. Se
+     * ejecuta en segundo plano.
+     *
+     * @param p_biblioteca La biblioteca a consultar.
+     * @return El modelo de la tabla.
+     */
+    private ModeloTabla<Socio> crearTablaSocios(Biblioteca p_biblioteca) {
+        ModeloTabla<Socio> modelo = new ModeloTabla<Socio>(p_biblioteca.getSocios());
+        modelo.columnaEntera("DNI", Socio::getDniSocio, Socio::getDniSocio)
+                .columnaTexto("Nombre", Socio::getNombre, s -> s.getNombre().toLowerCase())
+                .columnaEntera("Tipo", s -> s.getTipo().getNombre(), s -> s.getTipo().ordinal())
+                .columnaEntera("Días de préstamo", Socio::getDiasPrestamo, Socio::getDiasPrestamo)
+                .columnaEntera("Libros prestados", Socio::cantLibrosPrestados, Socio::cantLibrosPrestados);
+        if (modelo.getRowCount() == 0) {
+            return modelo.conResumen("No hay socios registrados.");
+        }
+        return modelo.conResumen("Estudiantes: " + p_biblioteca.cantidadDeSociosPorTipo(TipoSocio.ESTUDIANTE)
+                + "    Docentes: " + p_biblioteca.cantidadDeSociosPorTipo(TipoSocio.DOCENTE));
+    }
+
+    /**
+     * Arma la tabla de préstamos vencidos a la fecha actual. Se ejecuta en
+     * segundo plano.
+     *
+     * @param p_biblioteca La biblioteca a consultar.
+     * @return El modelo de la tabla.
+     */
+    private ModeloTabla<Prestamo> crearTablaVencidos(Biblioteca p_biblioteca) {
+        ModeloTabla<Prestamo> modelo = new ModeloTabla<Prestamo>(p_biblioteca.prestamosVencidos());
+        modelo.columnaTexto("Libro", p -> p.getLibro().getTitulo(), p -> p.getLibro().getClaveTitulo())
+                .columnaTexto("Socio", p -> p.getSocio().getNombre(), p -> p.getSocio().getNombre().toLowerCase())
+                .columnaEntera("DNI", p -> p.getSocio().getDniSocio(), p -> p.getSocio().getDniSocio())
+                .columnaEntera("Retiro", p -> Fechas.formatear(p.getDiaRetiro(), new StringBuilder()).toString(),
+                        Prestamo::getDiaRetiro)
+                .columnaEntera("Vencimiento",
+                        p -> Fechas.formatear(p.getDiaVencimiento(), new StringBuilder()).toString(),
+                        Prestamo::getDiaVencimiento);
+        if (modelo.getRowCount() == 0) {
+            return modelo.conResumen("No hay préstamos vencidos a la fecha.");
+        }
+        return modelo.conResumen("Préstamos vencidos: " + modelo.getRowCount());
+    }
+
+    /**
+     * Cancela el informe en curso, si lo hay y es cancelable.
+     */
+    private void cancelarTareaEnCurso() {
+        TareaPortal tarea = this.tareaEnCurso;
+        if (tarea != null && !tarea.isDone() && tarea.esCancelable()) {
+            tarea.cancel(true);
+        }
+    }
+
+    /**
+     * Detiene el portal antes de cerrar la aplicación: cancela el informe en
+     * curso, deja de aceptar operaciones y espera a que terminen las que
+     * modifican datos (préstamos, devoluciones, altas) que ya estaban en curso
+     * o en espera. Si tardan, pregunta al usuario si desea seguir esperando.
+     *
+     * @return true si todas las operaciones pendientes terminaron.
+     */
+    public boolean detener() {
+        this.cancelarTareaEnCurso();
+        this.ejecutor.shutdown();
+        try {
+            while (!this.ejecutor.awaitTermination(ESPERA_AL_CERRAR, TimeUnit.SECONDS)) {
+                int opcion = JOptionPane.showConfirmDialog(this,
+                        "Todavía hay operaciones en curso o en espera.\n"
+                                + "Si cierra ahora, no se registrarán. ¿Desea seguir esperando?",
+                        "Operaciones pendientes", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+                if (opcion != JOptionPane.YES_OPTION) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Operación sobre la biblioteca que escribe su resultado en una salida.
+     */
+    private interface Operacion {
+        /**
+         * Ejecuta la operación.
+         *
+         * @param p_salida Destino del texto resultante.
+         * @throws Exception Si la operación falla; su mensaje se muestra como
+         *                   error.
+         */
+        void ejecutar(Appendable p_salida) throws Exception;
+    }
+
+    /**
+     * Consulta sobre la biblioteca cuyo resultado se muestra como tabla.
+     */
+    private interface Consulta {
+        /**
+         * Arma el modelo de la tabla.
+         *
+         * @return El modelo con el listado.
+         * @throws Exception Si la consulta falla; su mensaje se muestra como
+         *                   error.
+         */
+        ModeloTabla<?> crear() throws Exception;
+    }
+
+    /**
+     * Trabajador en segundo plano que ejecuta una {@link Operacion} y publica su
+     * salida en el área de resultados por bloques, a medida que se genera, o
+     * que arma el modelo de una {@link Consulta} y lo muestra en la tabla.
+     */
+    private class TareaPortal extends SwingWorker<ModeloTabla<?>, String> {
+        /** Acción que originó la tarea. */
+        private final String comando;
+        /** Indica si la tarea puede cancelarse. */
+        private final boolean cancelable;
+        /** Operación a ejecutar (null si la tarea es una consulta). */
+        private final Operacion operacion;
+        /** Consulta a ejecutar (null si la tarea es una operación). */
+        private final Consulta consulta;
+        /** Vista de resultados en la que se envió la tarea. */
+        private final int vista;
+        /**
+         * Indica si la salida se agrega a continuación de la de una operación
+         * anterior, en lugar de reemplazar los resultados.
+         */
+        private final boolean aContinuacion;
+
+        /**
+         * Constructor de la tarea.
+         *
+         * @param p_comando       La acción que originó la tarea.
+         * @param p_cancelable    true si la tarea puede cancelarse.
+         * @param p_operacion     La operación a ejecutar, o null.
+         * @param p_consulta      La consulta a ejecutar, o null.
+         * @param p_aContinuacion true si la salida se agrega a la de la
+         *                        operación anterior.
+         */
+        TareaPortal(String p_comando, boolean p_cancelable, Operacion p_operacion, Consulta p_consulta,
+                boolean p_aContinuacion) {
+            this.comando = p_comando;
+            this.cancelable = p_cancelable;
+            this.operacion = p_operacion;
+            this.consulta = p_consulta;
+            this.vista = vistaActual;
+            this.aContinuacion = p_aContinuacion;
+        }
+
+        /**
+         * Obtiene la acción que originó la tarea.
+         *
+         * @return El ActionCommand de la acción.
+         */
+        String getComando() {
+            return this.comando;
+        }
+
+        /**
+         * Indica si la tarea puede cancelarse.
+         *
+         * @return true si es cancelable.
+         */
+        boolean esCancelable() {
+            return this.cancelable;
+        }
+
+        /**
+         * Ejecuta la tarea fuera del EDT. Una operación publica su salida por
+         * bloques; una consulta devuelve el modelo de la tabla.
+         * Si los datos persistidos todavía se están cargando, primero espera a
+         * que termine la carga (la barra de progreso queda visible).
+         *
+         * @return El modelo de la tabla, o null si la tarea es una operación.
+         * @throws Exception Si la tarea falla.
+         */
+        @Override
+        protected ModeloTabla<?> doInBackground() throws Exception {
+            if (this.aContinuacion) {
+                publish("\n\n"); // Separa la salida de la de la operación anterior
+            }
+            if (!getVentana().estaCargada()) {
+                // Las consultas muestran solo la barra; las operaciones encoladas
+                // no limpian la salida de las anteriores
+                boolean aviso = this.consulta == null && !this.aContinuacion;
+                if (aviso) {
+                    publish("Cargando los datos de la biblioteca...\n");
+                }
+                if (!getVentana().esperarCarga()) {
+                    throw new Exception("No se pudieron cargar los datos de la biblioteca.");
+                }
+                if (aviso) {
+                    publish((String) null); // Limpia el aviso de carga
+                }
+            }
+            if (this.consulta != null) {
+                return this.consulta.crear();
+            }
+            SalidaPorBloques salida = new SalidaPorBloques();
+            this.operacion.ejecutar(salida);
+            salida.vaciar();
+            return null;
+        }
+
+        /**
+         * Agrega al área de resultados los bloques recibidos (en el EDT). Un
+         * bloque null limpia el área.
+         *
+         * @param p_bloques Bloques de texto publicados.
+         */
+        @Override
+        protected void process(java.util.List<String> p_bloques) {
+            if (this.vista != vistaActual || this.isCancelled()) {
+                return; // Salida de una tarea reemplazada o cancelada
+            }
+            for (String unBloque : p_bloques) {
+                if (unBloque == null) {
+                    getAreaResultados().setText("");
+                } else {
+                    getAreaResultados().append(unBloque);
+                }
+            }
+        }
+
+        /**
+         * Finaliza la tarea en el EDT: informa errores o cancelaciones y, si es
+         * la última tarea enviada, oculta la barra de progreso. El error de una
+         * operación cuyos resultados ya fueron reemplazados se informa en un
+         * diálogo, para que no pase inadvertido.
+         */
+        @Override
+        protected void done() {
+            if (this == tareaEnCurso) {
+                panelProgreso.setVisible(false);
+            }
+            boolean visible = this.vista == vistaActual;
+            if (this.isCancelled()) {
+                if (visible && this.consulta == null) {
+                    getAreaResultados().append("\n[Operación cancelada]");
+                }
+                return;
+            }
+            try {
+                ModeloTabla<?> modelo = this.get();
+                if (!visible) {
+                    return; // Ya hay otra tarea mostrando su resultado
+                }
+                if (modelo != null) {
+                    tablaResultados.setModel(modelo);
+                    etiquetaResumen.setText(modelo.getResumen());
+                    mostrarVista(VISTA_TABLA);
+                } else if (!this.aContinuacion) {
+                    getAreaResultados().setCaretPosition(0);
+                }
+            } catch (ExecutionException e) {
+                if (visible && this.aContinuacion) {
+                    getAreaResultados().append("Error: " + e.getCause().getMessage());
+                } else if (visible) {
+                    mostrarError(e.getCause());
+                } else if (!this.cancelable) {
+                    JOptionPane.showMessageDialog(PortalPanel.this, "Error: " + e.getCause().getMessage(),
+                            this.comando, JOptionPane.ERROR_MESSAGE);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Salida que acumula texto y lo publica hacia el EDT en bloques de
+         * {@link #TAMANIO_BLOQUE} caracteres. Interrumpe la escritura si la tarea
+         * fue cancelada.
+         */
+        private class SalidaPorBloques implements Appendable {
+            /** Texto acumulado pendiente de publicar. */
+            private final StringBuilder bloque = new StringBuilder();
+
+            @Override
+            public Appendable append(CharSequence p_texto) throws IOException {
+                this.bloque.append(p_texto);
+                return this.controlar();
+            }
+
+            @Override
+            public Appendable append(CharSequence p_texto, int p_inicio, int p_fin) throws IOException {
+                this.bloque.append(p_texto, p_inicio, p_fin);
+                return this.controlar();
+            }
+
+            @Override
+            public Appendable append(char p_caracter) throws IOException {
+                this.bloque.append(p_caracter);
+                return this.controlar();
+            }
+
+            /**
+             * Publica el bloque si alcanzó su tamaño y verifica la cancelación.
+             *
+             * @return Esta salida.
+             * @throws InterruptedIOException Si la tarea fue cancelada.
+             */
+            private Appendable controlar() throws InterruptedIOException {
+                if (isCancelled()) {
+                    throw new InterruptedIOException("Operación cancelada");
+                }
+                if (this.bloque.length() >= TAMANIO_BLOQUE) {
+                    this.vaciar();
+                }
+                return this;
+            }
+
+            /**
+             * Publica el texto acumulado, si lo hay.
+             */
+            void vaciar() {
+                if (this.bloque.length() > 0) {
+                    publish(this.bloque.toString());
+                    this.bloque.setLength(0);
+                }
+            }
+        }
+    }
+}
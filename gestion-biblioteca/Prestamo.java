@@ -1,11 +1,12 @@
 import java.util.Calendar;
 import java.util.*;
-import java.text.SimpleDateFormat;
 
 /**
  * Representa un préstamo de un {@link Libro} a un {@link Socio}.
  * Esta clase actúa como el vínculo entre un socio y un libro, registrando
  * las fechas clave de la transacción (retiro y devolución).
+ * Internamente las fechas se guardan como días época (ver {@link Fechas}),
+ * y la fecha de vencimiento se calcula una sola vez al crear el préstamo.
  *
  * @author Jensen, Lucas
  * @author Romero Lencinas, Santiago
@@ -15,16 +16,27 @@ import java.text.SimpleDateFormat;
  * @version 1.0 (Inicial)
  */
 public class Prestamo {
-    /** Fecha en que el libro fue retirado por el socio. */
-    private Calendar fechaRetiro;
+    /** Valor de {@code diaDevolucion} que indica que el libro no fue devuelto. */
+    private static final int SIN_DEVOLUCION = Integer.MIN_VALUE;
+
+    /** Día época en que el libro fue retirado por el socio. */
+    private int diaRetiro;
     /**
-     * Fecha en que el libro fue devuelto. Null si aún está prestado.
+     * Día época en que el libro fue devuelto. {@link #SIN_DEVOLUCION} si aún está
+     * prestado.
      */
-    private Calendar fechaDevolucion;
+    private int diaDevolucion;
+    /** Día época de vencimiento: retiro más los días de préstamo del socio. */
+    private int diaVencimiento;
     /** El socio que realizó el préstamo. */
     private Socio socio;
     /** El libro que fue objeto del préstamo. */
     private Libro libro;
+    /**
+     * Posición del préstamo en la {@link AgendaVencimientos}, o -1 si no está
+     * agendado.
+     */
+    private int posicionAgenda = -1;
 
     /**
      * Constructor para un préstamo que ya ha sido completado (histórico).
@@ -35,10 +47,8 @@ public class Prestamo {
      * @param p_libro           El libro involucrado.
      */
     public Prestamo(Calendar p_fechaRetiro, Calendar p_fechaDevolucion, Socio p_socio, Libro p_libro) {
-        this.setFechaRetiro(p_fechaRetiro);
-        this.setFechaDevolucion(p_fechaDevolucion);
-        this.setSocio(p_socio);
-        this.setLibro(p_libro);
+        this(Fechas.diaEpoch(p_fechaRetiro), p_socio, p_libro);
+        this.registrarFechaDevolucion(p_fechaDevolucion);
     }
 
     /**
@@ -50,30 +60,83 @@ public class Prestamo {
      * @param p_libro       El libro que es retirado.
      */
     public Prestamo(Calendar p_fechaRetiro, Socio p_socio, Libro p_libro) {
-        this.setFechaRetiro(p_fechaRetiro);
+        this(Fechas.diaEpoch(p_fechaRetiro), p_socio, p_libro);
+    }
+
+    /**
+     * Constructor para un nuevo préstamo a partir del día época de retiro.
+     * Calcula el vencimiento con los días de préstamo vigentes del socio.
+     *
+     * @param p_diaRetiro El día época de retiro.
+     * @param p_socio     El socio que retira el libro.
+     * @param p_libro     El libro que es retirado.
+     */
+    public Prestamo(int p_diaRetiro, Socio p_socio, Libro p_libro) {
+        this.setDiaRetiro(p_diaRetiro);
+        this.setSocio(p_socio);
+        this.setLibro(p_libro);
+        this.setDiaDevolucion(SIN_DEVOLUCION); // Indica que es un préstamo activo
+        this.setDiaVencimiento(p_diaRetiro + p_socio.getDiasPrestamo());
+    }
+
+    /**
+     * Constructor para un préstamo activo guardado (en prestamos.dat o en el
+     * diario), con el vencimiento que se le calculó al prestarlo. El
+     * vencimiento no se recalcula: los días de préstamo del socio pudieron
+     * cambiar desde entonces.
+     *
+     * @param p_diaRetiro      El día época de retiro.
+     * @param p_diaVencimiento El día época de vencimiento.
+     * @param p_socio          El socio que retiró el libro.
+     * @param p_libro          El libro retirado.
+     */
+    Prestamo(int p_diaRetiro, int p_diaVencimiento, Socio p_socio, Libro p_libro) {
+        this(p_diaRetiro, SIN_DEVOLUCION, p_diaVencimiento, p_socio, p_libro);
+    }
+
+    /**
+     * Constructor para un préstamo histórico leído del
+     * {@link HistorialPrestamos}, con sus días ya calculados.
+     *
+     * @param p_diaRetiro      El día época de retiro.
+     * @param p_diaDevolucion  El día época de devolución.
+     * @param p_diaVencimiento El día época de vencimiento.
+     * @param p_socio          El socio involucrado.
+     * @param p_libro          El libro involucrado.
+     */
+    Prestamo(int p_diaRetiro, int p_diaDevolucion, int p_diaVencimiento, Socio p_socio, Libro p_libro) {
+        this.setDiaRetiro(p_diaRetiro);
         this.setSocio(p_socio);
         this.setLibro(p_libro);
-        this.setFechaDevolucion(null); // Indica que es un préstamo activo
+        this.setDiaDevolucion(p_diaDevolucion);
+        this.setDiaVencimiento(p_diaVencimiento);
+    }
+
+    /**
+     * Establece el día época de retiro del préstamo.
+     *
+     * @param p_diaRetiro Día época de retiro.
+     */
+    private void setDiaRetiro(int p_diaRetiro) {
+        this.diaRetiro = p_diaRetiro;
     }
 
     /**
-     * Establece la fecha de retiro del préstamo.
+     * Establece el día época de devolución del préstamo.
      *
-     * @param p_fechaRetiro Objeto Calendar con la fecha de retiro.
+     * @param p_diaDevolucion Día época de devolución, o {@link #SIN_DEVOLUCION}.
      */
-    private void setFechaRetiro(Calendar p_fechaRetiro) {
-        this.fechaRetiro = p_fechaRetiro;
+    private void setDiaDevolucion(int p_diaDevolucion) {
+        this.diaDevolucion = p_diaDevolucion;
     }
 
     /**
-     * Establece la fecha de devolución del préstamo.
+     * Establece el día época de vencimiento del préstamo.
      *
-     * @param p_fechaDevolucion Objeto Calendar con la fecha de devolución (puede
-     *                          ser
-     *                          null).
+     * @param p_diaVencimiento Día época de vencimiento.
      */
-    private void setFechaDevolucion(Calendar p_fechaDevolucion) {
-        this.fechaDevolucion = p_fechaDevolucion;
+    private void setDiaVencimiento(int p_diaVencimiento) {
+        this.diaVencimiento = p_diaVencimiento;
     }
 
     /**
@@ -94,23 +157,65 @@ public class Prestamo {
         this.libro = p_libro;
     }
 
+    /**
+     * Obtiene el día época de retiro del préstamo.
+     *
+     * @return El día época de retiro.
+     */
+    public int getDiaRetiro() {
+        return this.diaRetiro;
+    }
+
+    /**
+     * Obtiene el día época de devolución del préstamo.
+     * Solo es significativo si {@link #estaDevuelto()} es verdadero.
+     *
+     * @return El día época de devolución.
+     */
+    public int getDiaDevolucion() {
+        return this.diaDevolucion;
+    }
+
+    /**
+     * Obtiene el día época de vencimiento del préstamo.
+     *
+     * @return El día época de vencimiento.
+     */
+    public int getDiaVencimiento() {
+        return this.diaVencimiento;
+    }
+
+    /**
+     * Indica si el libro del préstamo ya fue devuelto.
+     *
+     * @return true si el préstamo tiene fecha de devolución registrada.
+     */
+    public boolean estaDevuelto() {
+        return this.diaDevolucion != SIN_DEVOLUCION;
+    }
+
     /**
      * Obtiene la fecha de retiro del préstamo.
+     * Vista de compatibilidad: crea un Calendar nuevo en cada llamada.
      *
      * @return Objeto Calendar con la fecha de retiro.
      */
     public Calendar getFechaRetiro() {
-        return this.fechaRetiro;
+        return Fechas.aCalendar(this.getDiaRetiro());
     }
 
     /**
      * Obtiene la fecha de devolución del préstamo.
+     * Vista de compatibilidad: crea un Calendar nuevo en cada llamada.
      *
      * @return Objeto Calendar con la fecha de devolución, o null si no ha sido
      *         devuelto.
      */
     public Calendar getFechaDevolucion() {
-        return this.fechaDevolucion;
+        if (!this.estaDevuelto()) {
+            return null;
+        }
+        return Fechas.aCalendar(this.getDiaDevolucion());
     }
 
     /**
@@ -131,6 +236,37 @@ public class Prestamo {
         return this.libro;
     }
 
+    /**
+     * Obtiene la posición del préstamo en la agenda de vencimientos.
+     * Uso interno de {@link AgendaVencimientos}.
+     *
+     * @return La posición en el montículo, o -1 si no está agendado.
+     */
+    int getPosicionAgenda() {
+        return this.posicionAgenda;
+    }
+
+    /**
+     * Establece la posición del préstamo en la agenda de vencimientos.
+     * Uso interno de {@link AgendaVencimientos}.
+     *
+     * @param p_posicionAgenda La posición en el montículo, o -1.
+     */
+    void setPosicionAgenda(int p_posicionAgenda) {
+        this.posicionAgenda = p_posicionAgenda;
+    }
+
+    /**
+     * Obtiene la fecha de vencimiento del préstamo: el día de retiro más los
+     * {@code diasPrestamo} que tenía el socio al momento del préstamo.
+     * Vista de compatibilidad: crea un Calendar nuevo en cada llamada.
+     *
+     * @return Un nuevo Calendar con la fecha de vencimiento (a las 00:00).
+     */
+    public Calendar getFechaVencimiento() {
+        return Fechas.aCalendar(this.getDiaVencimiento());
+    }
+
     /**
      * Registra la fecha en que el libro fue devuelto, completando el
      * préstamo.
@@ -139,47 +275,76 @@ public class Prestamo {
      *                actual).
      */
     public void registrarFechaDevolucion(Calendar p_fecha) {
-        this.setFechaDevolucion(p_fecha);
+        if (p_fecha == null) {
+            this.setDiaDevolucion(SIN_DEVOLUCION);
+        } else {
+            this.setDiaDevolucion(Fechas.diaEpoch(p_fecha));
+        }
+    }
+
+    /**
+     * Registra el día época en que el libro fue devuelto, completando el
+     * préstamo.
+     *
+     * @param p_dia El día época de devolución.
+     */
+    public void registrarDiaDevolucion(int p_dia) {
+        this.setDiaDevolucion(p_dia);
     }
 
     /**
      * Verifica si el préstamo está vencido en una fecha determinada.
-     * Calcula la fecha de vencimiento sumando los {@code diasPrestamo} del socio
-     * a la {@code fechaRetiro}, y la compara con la fecha proporcionada.
      *
      * @param p_fecha La fecha contra la cual se compara (normalmente la fecha
      *                actual).
-     * @return true si {@code p_fecha} es posterior a la fecha de vencimiento,
+     * @return true si {@code p_fecha} cae en o después del día de vencimiento,
      *         false en caso contrario.
      */
     public boolean vencido(Calendar p_fecha) {
-        Calendar fechaRetiro = this.getFechaRetiro();
-
-        // Se clona la fecha de retiro para no modificar el original al calcular
-        Calendar fechaVencimiento = new GregorianCalendar(fechaRetiro.get(Calendar.YEAR),
-                fechaRetiro.get(Calendar.MONTH), fechaRetiro.get(Calendar.DAY_OF_MONTH));
+        return this.vencido(Fechas.diaEpoch(p_fecha));
+    }
 
-        // Añade los días permitidos según el tipo de socio
-        fechaVencimiento.add(Calendar.DAY_OF_YEAR, this.getSocio().getDiasPrestamo());
+    /**
+     * Verifica si el préstamo está vencido en un día época determinado.
+     * Un préstamo está vencido a partir de su día de vencimiento.
+     *
+     * @param p_dia El día época contra el cual se compara.
+     * @return true si {@code p_dia} es igual o posterior al día de vencimiento.
+     */
+    public boolean vencido(int p_dia) {
+        return p_dia >= this.getDiaVencimiento();
+    }
 
-        // Un préstamo está vencido si la fecha actual (p_fecha) es posterior (after)
-        // a la fecha de vencimiento.
-        return p_fecha.after(fechaVencimiento);
+    /**
+     * Método auxiliar para escribir una fecha legible (yyyy/MM/dd).
+     *
+     * @param p_dia     El día época a escribir.
+     * @param p_destino El StringBuilder donde se agrega la fecha.
+     */
+    private void formatFecha(int p_dia, StringBuilder p_destino) {
+        Fechas.formatear(p_dia, p_destino);
     }
 
     /**
-     * Método auxiliar para formatear un objeto Calendar a un String legible
-     * (yyyy/MM/dd).
+     * Escribe la representación textual del préstamo en un StringBuilder
+     * provisto por quien llama, evitando cadenas intermedias al generar
+     * informes extensos.
      *
-     * @param fecha El objeto Calendar a formatear.
-     * @return String con la fecha formateada, o "----/--/--" si la fecha es nula.
+     * @param p_destino El StringBuilder donde se agrega el préstamo.
+     * @return El mismo StringBuilder, para encadenar llamadas.
      */
-    private String formatFecha(Calendar fecha) {
-        if (fecha == null) {
-            return "----/--/--";
+    public StringBuilder escribirEn(StringBuilder p_destino) {
+        p_destino.append("Retiro: ");
+        this.formatFecha(this.getDiaRetiro(), p_destino);
+        p_destino.append(" - Devolución: ");
+        if (this.estaDevuelto()) {
+            this.formatFecha(this.getDiaDevolucion(), p_destino);
+        } else {
+            p_destino.append("----/--/--");
         }
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd");
-        return sdf.format(fecha.getTime());
+        p_destino.append("\nLibro: ").append(this.getLibro().getTitulo());
+        p_destino.append("\nSocio: ").append(this.getSocio().getNombre());
+        return p_destino;
     }
 
     /**
@@ -191,11 +356,6 @@ public class Prestamo {
      */
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Retiro: ").append(this.formatFecha(this.getFechaRetiro()));
-        sb.append(" - Devolución: ").append(this.formatFecha(this.getFechaDevolucion()));
-        sb.append("\nLibro: ").append(this.getLibro().getTitulo());
-        sb.append("\nSocio: ").append(this.getSocio().getNombre());
-        return sb.toString();
-    }
-}
\ No newline at end of file
+        return this.escribirEn(new StringBuilder()).toString();
+    }
+}
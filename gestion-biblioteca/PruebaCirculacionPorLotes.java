@@ -0,0 +1,192 @@
+import java.io.File;
+import java.util.ArrayList;
+
+/**
+ * Prueba de los préstamos y devoluciones por lotes: verifica el resultado de
+ * cada pedido de {@link Biblioteca#prestarLibros} y
+ * {@link Biblioteca#devolverLibros}.
+ * <p>
+ * Se ejecuta desde BlueJ (o con {@code java PruebaCirculacionPorLotes}) y
+ * cubre pedidos por título y por identificador, títulos repetidos en un mismo
+ * lote, socios y libros inexistentes, socios que no pueden pedir, el día con
+ * que se verifica a cada socio y los pedidos que no pueden registrarse en el
+ * diario. Termina con código 1 si alguna verificación falla.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class PruebaCirculacionPorLotes {
+    /** DNI que no corresponde a ningún socio. */
+    private static final int DNI_INEXISTENTE = 99;
+    /** Identificador que no corresponde a ningún ejemplar. */
+    private static final int ID_INEXISTENTE = 987654;
+    /** Días de atraso del préstamo vencido del docente. */
+    private static final int ATRASO = 100;
+
+    /** Verificaciones que fallaron. */
+    private static int fallas;
+
+    /**
+     * Ejecuta los lotes de la prueba e informa el resultado.
+     *
+     * @param args No se utilizan.
+     * @throws Exception Si falla la preparación de la biblioteca de prueba.
+     */
+    public static void main(String[] args) throws Exception {
+        Biblioteca biblioteca = new Biblioteca("Prueba");
+        Socio ana = new Estudiante(1, "Ana", "Prueba");
+        Socio bruno = new Estudiante(2, "Bruno", "Prueba");
+        Socio carla = new Docente(3, "Carla", "Prueba");
+        biblioteca.agregarSocio(ana);
+        biblioteca.agregarSocio(bruno);
+        biblioteca.agregarSocio(carla);
+        Libro rayuela1 = new Libro("Rayuela", 1, "Prueba", 1963);
+        Libro rayuela2 = new Libro("Rayuela", 2, "Prueba", 1963);
+        Libro ficciones = new Libro("Ficciones", 1, "Prueba", 1944);
+        Libro cuentos1 = new Libro("Cuentos", 1, "Prueba", 1950);
+        Libro cuentos2 = new Libro("Cuentos", 2, "Prueba", 1950);
+        Libro aleph = new Libro("El Aleph", 1, "Prueba", 1949);
+        Libro[] catalogo = { rayuela1, rayuela2, ficciones, cuentos1, cuentos2, aleph };
+        for (Libro unLibro : catalogo) {
+            biblioteca.agregarLibro(unLibro);
+        }
+        int hoy = biblioteca.hoy();
+
+        // Carla queda con un préstamo vencido al día de hoy
+        biblioteca.prestarLibro(hoy - ATRASO, carla, aleph);
+
+        ArrayList<PedidoCirculacion> prestamos = new ArrayList<PedidoCirculacion>();
+        prestamos.add(new PedidoCirculacion(1, "Rayuela"));
+        prestamos.add(new PedidoCirculacion(2, "Rayuela"));
+        prestamos.add(new PedidoCirculacion(1, "Rayuela"));
+        prestamos.add(new PedidoCirculacion(DNI_INEXISTENTE, "Ficciones"));
+        prestamos.add(new PedidoCirculacion(1, "Inexistente"));
+        prestamos.add(new PedidoCirculacion(1, ficciones.getId()));
+        prestamos.add(new PedidoCirculacion(2, ID_INEXISTENTE));
+        prestamos.add(new PedidoCirculacion(1, "Cuentos"));
+        prestamos.add(new PedidoCirculacion(1, "Cuentos"));
+        prestamos.add(new PedidoCirculacion(3, "Cuentos"));
+        verificarLote("Préstamos", biblioteca.prestarLibros(prestamos, hoy), prestamos,
+                ResultadoLote.REALIZADO,
+                ResultadoLote.REALIZADO,
+                ResultadoLote.LIBRO_PRESTADO,
+                ResultadoLote.SOCIO_NO_ENCONTRADO,
+                ResultadoLote.LIBRO_NO_ENCONTRADO,
+                ResultadoLote.REALIZADO,
+                ResultadoLote.LIBRO_NO_ENCONTRADO,
+                ResultadoLote.REALIZADO,
+                ResultadoLote.SOCIO_INHABILITADO, // Ana llegó al límite de tres libros
+                ResultadoLote.SOCIO_INHABILITADO); // Carla tiene un préstamo vencido
+        verificar(prestamos.get(0).getLibro() != prestamos.get(1).getLibro(),
+                "Préstamos: el mismo ejemplar de Rayuela se prestó dos veces");
+        verificar(prestamos.get(5).getLibro() == ficciones, "Préstamos: no se prestó el ejemplar pedido");
+        verificar(ana.cantLibrosPrestados() == 3, "Ana tiene " + ana.cantLibrosPrestados() + " préstamos");
+        verificar(bruno.cantLibrosPrestados() == 1, "Bruno tiene " + bruno.cantLibrosPrestados() + " préstamos");
+
+        // Con el día del préstamo de Carla, todavía no estaba vencido
+        ArrayList<PedidoCirculacion> atrasado = new ArrayList<PedidoCirculacion>();
+        atrasado.add(new PedidoCirculacion(3, "Cuentos"));
+        verificarLote("Préstamo del día " + (hoy - ATRASO), biblioteca.prestarLibros(atrasado, hoy - ATRASO),
+                atrasado, ResultadoLote.REALIZADO);
+        if (atrasado.get(0).getLibro() != null) {
+            Prestamo prestamoCarla = atrasado.get(0).getLibro().getPrestamoActual();
+            verificar(prestamoCarla.getDiaRetiro() == hoy - ATRASO,
+                    "El préstamo de Carla se registró el día " + prestamoCarla.getDiaRetiro());
+        }
+
+        ArrayList<PedidoCirculacion> devoluciones = new ArrayList<PedidoCirculacion>();
+        devoluciones.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, "Rayuela"));
+        devoluciones.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, "Rayuela"));
+        devoluciones.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, "Rayuela"));
+        devoluciones.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, ficciones.getId()));
+        devoluciones.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, ficciones.getId()));
+        devoluciones.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, "Inexistente"));
+        devoluciones.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, ID_INEXISTENTE));
+        verificarLote("Devoluciones", biblioteca.devolverLibros(devoluciones, hoy), devoluciones,
+                ResultadoLote.REALIZADO,
+                ResultadoLote.REALIZADO,
+                ResultadoLote.LIBRO_NO_PRESTADO,
+                ResultadoLote.REALIZADO,
+                ResultadoLote.LIBRO_NO_PRESTADO,
+                ResultadoLote.LIBRO_NO_ENCONTRADO,
+                ResultadoLote.LIBRO_NO_ENCONTRADO);
+        verificar(!rayuela1.prestado() && !rayuela2.prestado() && !ficciones.prestado(),
+                "Devoluciones: quedó prestado un ejemplar devuelto");
+        verificar(ana.cantLibrosPrestados() == 1, "Ana tiene " + ana.cantLibrosPrestados() + " préstamos");
+        verificar(bruno.cantLibrosPrestados() == 0, "Bruno tiene " + bruno.cantLibrosPrestados() + " préstamos");
+
+        // Con el diario cerrado, ningún pedido se aplica pero todos se resuelven
+        File archivoDiario = File.createTempFile("prueba-lotes", ".diario");
+        archivoDiario.deleteOnExit();
+        DiarioOperaciones diario = new DiarioOperaciones(archivoDiario.getPath(), 0);
+        diario.reproducirEn(new Biblioteca("Vacía"));
+        biblioteca.setDiario(diario);
+        diario.cerrar();
+        ArrayList<PedidoCirculacion> sinDiario = new ArrayList<PedidoCirculacion>();
+        sinDiario.add(new PedidoCirculacion(2, "Rayuela"));
+        sinDiario.add(new PedidoCirculacion(2, "Rayuela"));
+        sinDiario.add(new PedidoCirculacion(DNI_INEXISTENTE, "Rayuela"));
+        verificarLote("Préstamos sin diario", biblioteca.prestarLibros(sinDiario, hoy), sinDiario,
+                ResultadoLote.ERROR_DIARIO,
+                ResultadoLote.ERROR_DIARIO,
+                ResultadoLote.SOCIO_NO_ENCONTRADO);
+        ArrayList<PedidoCirculacion> devolucionesSinDiario = new ArrayList<PedidoCirculacion>();
+        devolucionesSinDiario.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, "Cuentos"));
+        devolucionesSinDiario.add(new PedidoCirculacion(PedidoCirculacion.SIN_SOCIO, "Ficciones"));
+        verificarLote("Devoluciones sin diario", biblioteca.devolverLibros(devolucionesSinDiario, hoy),
+                devolucionesSinDiario,
+                ResultadoLote.ERROR_DIARIO,
+                ResultadoLote.LIBRO_NO_PRESTADO);
+        verificar(!rayuela1.prestado() && !rayuela2.prestado(), "Sin diario: se prestó un ejemplar de Rayuela");
+        verificar(bruno.cantLibrosPrestados() == 0, "Bruno tiene " + bruno.cantLibrosPrestados() + " préstamos");
+        verificar(ana.cantLibrosPrestados() == 1, "Ana tiene " + ana.cantLibrosPrestados() + " préstamos");
+
+        if (fallas > 0) {
+            System.err.println("Prueba fallida: " + fallas + " verificaciones");
+            System.exit(1);
+        }
+        System.out.println("Prueba superada: " + (prestamos.size() + atrasado.size() + devoluciones.size()
+                + sinDiario.size() + devolucionesSinDiario.size()) + " pedidos en lotes");
+    }
+
+    /**
+     * Verifica los resultados de un lote: los devueltos por la biblioteca, los
+     * registrados en cada pedido y el ejemplar de los pedidos realizados.
+     *
+     * @param p_lote       Nombre del lote, para informar las fallas.
+     * @param p_resultados Resultados devueltos por la biblioteca.
+     * @param p_pedidos    Los pedidos del lote.
+     * @param p_esperados  Resultados esperados, en orden.
+     */
+    private static void verificarLote(String p_lote, ResultadoLote[] p_resultados,
+            ArrayList<PedidoCirculacion> p_pedidos, ResultadoLote... p_esperados) {
+        verificar(p_resultados.length == p_esperados.length,
+                p_lote + ": " + p_resultados.length + " resultados para " + p_esperados.length + " pedidos");
+        for (int i = 0; i < Math.min(p_resultados.length, p_esperados.length); i++) {
+            PedidoCirculacion unPedido = p_pedidos.get(i);
+            verificar(p_resultados[i] == p_esperados[i],
+                    p_lote + " [" + i + "] " + unPedido + ": se esperaba " + p_esperados[i]);
+            verificar(unPedido.getResultado() == p_resultados[i],
+                    p_lote + " [" + i + "]: el pedido registró " + unPedido.getResultado());
+            verificar((unPedido.getLibro() != null) == (p_resultados[i] == ResultadoLote.REALIZADO),
+                    p_lote + " [" + i + "]: ejemplar " + unPedido.getLibro() + " con " + p_resultados[i]);
+        }
+    }
+
+    /**
+     * Registra una verificación fallida.
+     *
+     * @param p_condicion La condición esperada.
+     * @param p_mensaje   Descripción de la falla.
+     */
+    private static void verificar(boolean p_condicion, String p_mensaje) {
+        if (!p_condicion) {
+            fallas++;
+            System.err.println(p_mensaje);
+        }
+    }
+}
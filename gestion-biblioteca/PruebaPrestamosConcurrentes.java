@@ -0,0 +1,251 @@
+import java.util.ArrayList;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Prueba de carga de los préstamos simultáneos: verifica que un ejemplar
+ * nunca se presta dos veces, aunque muchos mostradores lo pidan a la vez
+ * (ver {@link Libro#abrirPrestamo}).
+ * <p>
+ * Se ejecuta desde BlueJ (o con {@code java PruebaPrestamosConcurrentes}) en
+ * dos etapas, con un mostrador (hilo) y un socio por mostrador:
+ * <ol>
+ * <li>Todos los mostradores piden el mismo ejemplar en cada ronda, liberados
+ * a la vez por una barrera; debe haber exactamente un ganador por ronda.</li>
+ * <li>Los mostradores piden y devuelven ejemplares al azar de un catálogo
+ * chico; mientras un ejemplar está en poder de un mostrador, ningún otro
+ * puede obtenerlo.</li>
+ * </ol>
+ * Al final se revisa la ficha de cada ejemplar: un préstamo por cada préstamo
+ * concedido, todos devueltos, y los contadores de los socios en cero.
+ * Termina con código 1 si alguna verificación falla.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class PruebaPrestamosConcurrentes {
+    /** Cantidad de mostradores que piden libros a la vez. */
+    private static final int MOSTRADORES = 64;
+    /** Rondas de la primera etapa (todos contra un mismo ejemplar). */
+    private static final int RONDAS = 2000;
+    /** Ejemplares del catálogo de la segunda etapa. */
+    private static final int EJEMPLARES = 8;
+    /** Pedidos de cada mostrador en la segunda etapa. */
+    private static final int PEDIDOS = 20000;
+
+    /** Verificaciones que fallaron. */
+    private static final AtomicInteger fallas = new AtomicInteger();
+
+    /**
+     * Ejecuta las dos etapas de la prueba e informa el resultado.
+     *
+     * @param args No se utilizan.
+     * @throws Exception Si un mostrador falla de forma inesperada.
+     */
+    public static void main(String[] args) throws Exception {
+        Biblioteca biblioteca = new Biblioteca("Prueba");
+        Socio[] socios = new Socio[MOSTRADORES];
+        for (int i = 0; i < MOSTRADORES; i++) {
+            socios[i] = new Estudiante(1000 + i, "Mostrador " + i, "Prueba");
+            biblioteca.agregarSocio(socios[i]);
+        }
+        Libro disputado = new Libro("Disputado", 1, "Prueba", 2024);
+        biblioteca.agregarLibro(disputado);
+        Libro[] catalogo = new Libro[EJEMPLARES];
+        for (int i = 0; i < EJEMPLARES; i++) {
+            catalogo[i] = new Libro("Catálogo " + i, 1, "Prueba", 2024);
+            biblioteca.agregarLibro(catalogo[i]);
+        }
+
+        int ganadores = mismoEjemplar(biblioteca, socios, disputado);
+        verificar(ganadores == RONDAS, "Primera etapa: " + ganadores + " préstamos en " + RONDAS + " rondas");
+        verificarFicha(disputado, ganadores);
+
+        int[] concedidos = ejemplaresAlAzar(biblioteca, socios, catalogo);
+        for (int i = 0; i < EJEMPLARES; i++) {
+            verificarFicha(catalogo[i], concedidos[i]);
+        }
+        for (Socio unSocio : socios) {
+            verificar(unSocio.cantLibrosPrestados() == 0,
+                    unSocio.getNombre() + " conserva " + unSocio.cantLibrosPrestados() + " préstamos");
+        }
+
+        if (fallas.get() > 0) {
+            System.err.println("Prueba fallida: " + fallas.get() + " verificaciones");
+            System.exit(1);
+        }
+        System.out.println("Prueba superada: " + MOSTRADORES + " mostradores, " + ganadores
+                + " rondas sobre un mismo ejemplar y " + suma(concedidos) + " préstamos al azar");
+    }
+
+    /**
+     * Primera etapa: en cada ronda todos los mostradores piden el mismo
+     * ejemplar a la vez; al cerrarse la ronda se verifica que hubo un único
+     * ganador y se devuelve el ejemplar.
+     *
+     * @param p_biblioteca La biblioteca.
+     * @param p_socios     Un socio por mostrador.
+     * @param p_libro      El ejemplar disputado.
+     * @return La cantidad de préstamos concedidos.
+     * @throws InterruptedException Si se interrumpe la espera de los mostradores.
+     */
+    private static int mismoEjemplar(Biblioteca p_biblioteca, Socio[] p_socios, Libro p_libro)
+            throws InterruptedException {
+        AtomicInteger ganadoresRonda = new AtomicInteger();
+        AtomicInteger ganadores = new AtomicInteger();
+        int hoy = p_biblioteca.hoy();
+        // La acción de la barrera corre sola, entre una ronda y la siguiente
+        CyclicBarrier inicio = new CyclicBarrier(MOSTRADORES);
+        CyclicBarrier fin = new CyclicBarrier(MOSTRADORES, () -> {
+            int cantidad = ganadoresRonda.getAndSet(0);
+            verificar(cantidad == 1, "Ronda con " + cantidad + " ganadores");
+            ganadores.addAndGet(cantidad);
+            try {
+                p_biblioteca.devolverLibro(p_libro, hoy);
+            } catch (LibroNoPrestadoException e) {
+                verificar(false, "Ronda sin préstamo que devolver");
+            }
+        });
+        ejecutar(p_socios, unSocio -> {
+            for (int r = 0; r < RONDAS; r++) {
+                inicio.await();
+                if (p_biblioteca.prestarLibro(hoy, unSocio, p_libro)) {
+                    ganadoresRonda.incrementAndGet();
+                }
+                fin.await();
+            }
+        });
+        return ganadores.get();
+    }
+
+    /**
+     * Segunda etapa: cada mostrador pide un ejemplar al azar y, si lo obtiene,
+     * verifica que nadie más lo tenga antes de devolverlo.
+     *
+     * @param p_biblioteca La biblioteca.
+     * @param p_socios     Un socio por mostrador.
+     * @param p_catalogo   Los ejemplares que se piden.
+     * @return Los préstamos concedidos de cada ejemplar.
+     * @throws InterruptedException Si se interrumpe la espera de los mostradores.
+     */
+    private static int[] ejemplaresAlAzar(Biblioteca p_biblioteca, Socio[] p_socios, Libro[] p_catalogo)
+            throws InterruptedException {
+        AtomicIntegerArray enPoder = new AtomicIntegerArray(p_catalogo.length);
+        AtomicIntegerArray concedidos = new AtomicIntegerArray(p_catalogo.length);
+        int hoy = p_biblioteca.hoy();
+        ejecutar(p_socios, unSocio -> {
+            for (int p = 0; p < PEDIDOS; p++) {
+                int i = ThreadLocalRandom.current().nextInt(p_catalogo.length);
+                if (p_biblioteca.prestarLibro(hoy, unSocio, p_catalogo[i])) {
+                    int poseedores = enPoder.incrementAndGet(i);
+                    verificar(poseedores == 1, p_catalogo[i] + " en poder de " + poseedores + " mostradores");
+                    verificar(p_catalogo[i].getPrestamoActual().getSocio() == unSocio,
+                            p_catalogo[i] + " prestado a otro socio");
+                    concedidos.incrementAndGet(i);
+                    enPoder.decrementAndGet(i);
+                    p_biblioteca.devolverLibro(p_catalogo[i], hoy);
+                }
+            }
+        });
+        int[] resultado = new int[p_catalogo.length];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = concedidos.get(i);
+        }
+        return resultado;
+    }
+
+    /**
+     * Verifica la ficha de un ejemplar al terminar una etapa: un préstamo por
+     * cada préstamo concedido, todos devueltos, y el ejemplar disponible.
+     *
+     * @param p_libro      El ejemplar.
+     * @param p_concedidos Préstamos concedidos del ejemplar.
+     */
+    private static void verificarFicha(Libro p_libro, int p_concedidos) {
+        ArrayList<Prestamo> ficha = p_libro.getPrestamos();
+        verificar(ficha.size() == p_concedidos,
+                p_libro + ": " + ficha.size() + " préstamos en la ficha y " + p_concedidos + " concedidos");
+        for (Prestamo unPrestamo : ficha) {
+            verificar(unPrestamo.estaDevuelto(), p_libro + ": préstamo sin devolver en la ficha");
+        }
+        verificar(!p_libro.prestado(), p_libro + " sigue prestado");
+    }
+
+    /**
+     * Ejecuta una tarea en un hilo por mostrador y espera que terminen todos.
+     *
+     * @param p_socios Un socio por mostrador.
+     * @param p_tarea  Lo que hace cada mostrador con su socio.
+     * @throws InterruptedException Si se interrumpe la espera.
+     */
+    private static void ejecutar(Socio[] p_socios, Mostrador p_tarea) throws InterruptedException {
+        Thread[] hilos = new Thread[p_socios.length];
+        for (int i = 0; i < hilos.length; i++) {
+            Socio unSocio = p_socios[i];
+            hilos[i] = new Thread(() -> {
+                try {
+                    p_tarea.atender(unSocio);
+                } catch (Exception e) {
+                    verificar(false, "Mostrador de " + unSocio.getNombre() + ": " + e);
+                }
+            });
+            hilos[i].start();
+        }
+        for (Thread unHilo : hilos) {
+            unHilo.join();
+        }
+    }
+
+    /**
+     * Registra una verificación fallida.
+     *
+     * @param p_condicion La condición esperada.
+     * @param p_mensaje   Descripción de la falla.
+     */
+    private static void verificar(boolean p_condicion, String p_mensaje) {
+        if (!p_condicion) {
+            fallas.incrementAndGet();
+            System.err.println(p_mensaje);
+        }
+    }
+
+    /**
+     * Suma los elementos de un arreglo.
+     *
+     * @param p_valores Los valores.
+     * @return La suma.
+     */
+    private static int suma(int[] p_valores) {
+        int total = 0;
+        for (int unValor : p_valores) {
+            total += unValor;
+        }
+        return total;
+    }
+
+    /**
+     * Lo que hace un mostrador durante una etapa.
+     */
+    private interface Mostrador {
+        /**
+         * Atiende los pedidos del mostrador.
+         *
+         * @param p_socio El socio del mostrador.
+         * @throws LibroNoPrestadoException Si una devolución no encuentra el
+         *                                  préstamo.
+         * @throws InterruptedException     Si se interrumpe la espera de la
+         *                                  barrera.
+         * @throws BrokenBarrierException   Si otro mostrador falló durante la
+         *                                  ronda.
+         */
+        void atender(Socio p_socio)
+                throws LibroNoPrestadoException, InterruptedException, BrokenBarrierException;
+    }
+}
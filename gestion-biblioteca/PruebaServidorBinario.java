@@ -0,0 +1,218 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Prueba del protocolo binario de {@link ServidorBinario}: verifica el estado
+ * y los datos de cada respuesta, y que lleguen en el orden de los pedidos.
+ * <p>
+ * Se ejecuta desde BlueJ (o con {@code java PruebaServidorBinario}). Inicia
+ * el servidor en un puerto libre y envía, en una sola escritura y por una
+ * misma conexión, préstamos aceptados y rechazados, devoluciones, consultas
+ * de socios y una operación desconocida; luego lee las respuestas de a una.
+ * Termina con código 1 si alguna verificación falla.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class PruebaServidorBinario {
+    /** DNI que no corresponde a ningún socio. */
+    private static final int DNI_INEXISTENTE = 99;
+    /** Operación que el servidor no conoce. */
+    private static final byte OPERACION_DESCONOCIDA = 42;
+    /** Días de atraso del préstamo vencido del docente. */
+    private static final int ATRASO = 100;
+    /** Milisegundos máximos de espera de cada respuesta. */
+    private static final int ESPERA = 10000;
+
+    /** Verificaciones que fallaron. */
+    private static int fallas;
+
+    /**
+     * Ejecuta la prueba e informa el resultado.
+     *
+     * @param args No se utilizan.
+     * @throws Exception Si falla la preparación de la biblioteca o la conexión.
+     */
+    public static void main(String[] args) throws Exception {
+        Biblioteca biblioteca = new Biblioteca("Prueba");
+        Socio ana = new Estudiante(1, "Ana", "Prueba");
+        Socio bruno = new Estudiante(2, "Bruno", "Prueba");
+        Socio carla = new Docente(3, "Carla", "Prueba");
+        biblioteca.agregarSocio(ana);
+        biblioteca.agregarSocio(bruno);
+        biblioteca.agregarSocio(carla);
+        Libro rayuela = new Libro("Rayuela", 1, "Prueba", 1963);
+        Libro ficciones = new Libro("Ficciones", 1, "Prueba", 1944);
+        Libro aleph = new Libro("El Aleph", 1, "Prueba", 1949);
+        biblioteca.agregarLibro(rayuela);
+        biblioteca.agregarLibro(ficciones);
+        biblioteca.agregarLibro(aleph);
+        int hoy = biblioteca.hoy();
+
+        // Carla queda con un préstamo vencido al día de hoy
+        biblioteca.prestarLibro(hoy - ATRASO, carla, aleph);
+
+        // Todos los pedidos viajan juntos, sin esperar las respuestas
+        ByteArrayOutputStream pedidos = new ByteArrayOutputStream();
+        DataOutputStream salida = new DataOutputStream(pedidos);
+        pedido(salida, ServidorBinario.PRESTAR, ana.getDniSocio(), rayuela.getId());
+        pedido(salida, ServidorBinario.PRESTAR, bruno.getDniSocio(), rayuela.getId());
+        pedido(salida, ServidorBinario.PRESTAR, carla.getDniSocio(), ficciones.getId());
+        pedido(salida, ServidorBinario.PRESTAR, DNI_INEXISTENTE, ficciones.getId());
+        pedido(salida, ServidorBinario.DEVOLVER, rayuela.getId());
+        pedido(salida, ServidorBinario.DEVOLVER, rayuela.getId());
+        pedido(salida, ServidorBinario.BUSCAR_SOCIO, ana.getDniSocio());
+        pedido(salida, OPERACION_DESCONOCIDA, ana.getDniSocio());
+        pedido(salida, ServidorBinario.BUSCAR_SOCIO, DNI_INEXISTENTE);
+
+        ServidorBinario servidor = new ServidorBinario(biblioteca, 0);
+        servidor.iniciar();
+        try (Socket conexion = new Socket(InetAddress.getLoopbackAddress(), servidor.getPuerto())) {
+            conexion.setSoTimeout(ESPERA);
+            conexion.getOutputStream().write(pedidos.toByteArray());
+            conexion.getOutputStream().flush();
+            DataInputStream entrada = new DataInputStream(conexion.getInputStream());
+
+            DataInputStream respuesta = respuesta(entrada, "Préstamo a Ana", ServidorBinario.PRESTAR,
+                    ServidorBinario.OK);
+            int vencimiento = respuesta.readInt();
+            Prestamo prestamoAna = rayuela.ultimoPrestamo();
+            verificar(prestamoAna != null && prestamoAna.getSocio() == ana,
+                    "Préstamo a Ana: Rayuela no registra su préstamo");
+            verificar(prestamoAna == null || vencimiento == prestamoAna.getDiaVencimiento(),
+                    "Préstamo a Ana: se informó el vencimiento " + vencimiento);
+            verificar(vencimiento == hoy + ana.getDiasPrestamo(),
+                    "Préstamo a Ana: se esperaba el vencimiento " + (hoy + ana.getDiasPrestamo()));
+            sinMasDatos(respuesta, "Préstamo a Ana");
+
+            verificarMotivo(entrada, "Préstamo a Bruno", ServidorBinario.PRESTAR,
+                    ServidorBinario.MOTIVO_PRESTADO);
+            verificarMotivo(entrada, "Préstamo a Carla", ServidorBinario.PRESTAR,
+                    ServidorBinario.MOTIVO_SOCIO_INHABILITADO);
+            sinMasDatos(respuesta(entrada, "Préstamo a un socio inexistente", ServidorBinario.PRESTAR,
+                    ServidorBinario.NO_ENCONTRADO), "Préstamo a un socio inexistente");
+            sinMasDatos(respuesta(entrada, "Devolución de Rayuela", ServidorBinario.DEVOLVER,
+                    ServidorBinario.OK), "Devolución de Rayuela");
+            verificarMotivo(entrada, "Segunda devolución de Rayuela", ServidorBinario.DEVOLVER,
+                    ServidorBinario.MOTIVO_NO_PRESTADO);
+
+            respuesta = respuesta(entrada, "Consulta de Ana", ServidorBinario.BUSCAR_SOCIO, ServidorBinario.OK);
+            verificar(respuesta.readByte() == ana.getTipo().ordinal(), "Consulta de Ana: tipo de socio");
+            verificar(respuesta.readShort() == 0, "Consulta de Ana: libros prestados");
+            verificar(respuesta.readByte() == 1, "Consulta de Ana: no puede pedir");
+            byte[] nombre = new byte[respuesta.readShort()];
+            respuesta.readFully(nombre);
+            verificar(new String(nombre, StandardCharsets.UTF_8).equals(ana.getNombre()),
+                    "Consulta de Ana: nombre " + new String(nombre, StandardCharsets.UTF_8));
+            sinMasDatos(respuesta, "Consulta de Ana");
+
+            sinMasDatos(respuesta(entrada, "Operación desconocida", OPERACION_DESCONOCIDA,
+                    ServidorBinario.ERROR), "Operación desconocida");
+            sinMasDatos(respuesta(entrada, "Consulta de un socio inexistente", ServidorBinario.BUSCAR_SOCIO,
+                    ServidorBinario.NO_ENCONTRADO), "Consulta de un socio inexistente");
+        } finally {
+            servidor.detener();
+        }
+        verificar(!rayuela.prestado(), "Rayuela quedó prestado");
+        verificar(!ficciones.prestado(), "Ficciones quedó prestado");
+        verificar(ana.cantLibrosPrestados() == 0, "Ana tiene " + ana.cantLibrosPrestados() + " préstamos");
+        verificar(bruno.cantLibrosPrestados() == 0, "Bruno tiene " + bruno.cantLibrosPrestados() + " préstamos");
+
+        if (fallas > 0) {
+            System.err.println("Prueba fallida: " + fallas + " verificaciones");
+            System.exit(1);
+        }
+        System.out.println("Prueba superada: " + pedidos.size() + " bytes de pedidos por una misma conexión");
+    }
+
+    /**
+     * Escribe un pedido: longitud, operación y datos.
+     *
+     * @param p_salida    Destino del pedido.
+     * @param p_operacion La operación pedida.
+     * @param p_datos     Los enteros de los datos.
+     * @throws IOException No ocurre al escribir en memoria.
+     */
+    private static void pedido(DataOutputStream p_salida, byte p_operacion, int... p_datos) throws IOException {
+        p_salida.writeInt(1 + 4 * p_datos.length);
+        p_salida.writeByte(p_operacion);
+        for (int unDato : p_datos) {
+            p_salida.writeInt(unDato);
+        }
+    }
+
+    /**
+     * Lee la próxima respuesta y verifica su operación y su estado.
+     *
+     * @param p_entrada   La conexión con el servidor.
+     * @param p_pedido    Nombre del pedido, para informar las fallas.
+     * @param p_operacion La operación esperada.
+     * @param p_estado    El estado esperado.
+     * @return Los datos de la respuesta, a continuación del estado.
+     * @throws IOException Si la conexión falla o la respuesta no llega.
+     */
+    private static DataInputStream respuesta(DataInputStream p_entrada, String p_pedido, byte p_operacion,
+            byte p_estado) throws IOException {
+        byte[] mensaje = new byte[p_entrada.readInt()];
+        p_entrada.readFully(mensaje);
+        DataInputStream respuesta = new DataInputStream(new ByteArrayInputStream(mensaje));
+        byte operacion = respuesta.readByte();
+        byte estado = respuesta.readByte();
+        verificar(operacion == p_operacion,
+                p_pedido + ": respuesta de la operación " + operacion + " (fuera de orden)");
+        verificar(estado == p_estado, p_pedido + ": estado " + estado + ", se esperaba " + p_estado);
+        return respuesta;
+    }
+
+    /**
+     * Lee la próxima respuesta y verifica que sea un rechazo con el motivo
+     * indicado.
+     *
+     * @param p_entrada   La conexión con el servidor.
+     * @param p_pedido    Nombre del pedido, para informar las fallas.
+     * @param p_operacion La operación esperada.
+     * @param p_motivo    El motivo de rechazo esperado.
+     * @throws IOException Si la conexión falla o la respuesta no llega.
+     */
+    private static void verificarMotivo(DataInputStream p_entrada, String p_pedido, byte p_operacion,
+            byte p_motivo) throws IOException {
+        DataInputStream respuesta = respuesta(p_entrada, p_pedido, p_operacion, ServidorBinario.RECHAZADO);
+        byte motivo = respuesta.readByte();
+        verificar(motivo == p_motivo, p_pedido + ": motivo " + motivo + ", se esperaba " + p_motivo);
+        sinMasDatos(respuesta, p_pedido);
+    }
+
+    /**
+     * Verifica que la respuesta no tenga datos sin leer.
+     *
+     * @param p_respuesta Los datos de la respuesta.
+     * @param p_pedido    Nombre del pedido, para informar las fallas.
+     * @throws IOException No ocurre al leer de memoria.
+     */
+    private static void sinMasDatos(DataInputStream p_respuesta, String p_pedido) throws IOException {
+        verificar(p_respuesta.available() == 0, p_pedido + ": sobran " + p_respuesta.available() + " bytes");
+    }
+
+    /**
+     * Registra una verificación fallida.
+     *
+     * @param p_condicion La condición esperada.
+     * @param p_mensaje   Descripción de la falla.
+     */
+    private static void verificar(boolean p_condicion, String p_mensaje) {
+        if (!p_condicion) {
+            fallas++;
+            System.err.println(p_mensaje);
+        }
+    }
+}
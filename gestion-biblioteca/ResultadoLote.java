@@ -0,0 +1,52 @@
+/**
+ * Resultado de cada elemento de una operación por lotes de la
+ * {@link Biblioteca} (ej. {@link Biblioteca#devolverLibros}).
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public enum ResultadoLote {
+    /** La operación se realizó. */
+    REALIZADO("Operación realizada"),
+    /** No existe un socio con el DNI indicado. */
+    SOCIO_NO_ENCONTRADO("Socio no encontrado"),
+    /** No existe un libro con el título indicado. */
+    LIBRO_NO_ENCONTRADO("Libro no encontrado"),
+    /** Todos los ejemplares del título están prestados. */
+    LIBRO_PRESTADO("El libro ya está prestado"),
+    /** El socio no cumple los requisitos para pedir. */
+    SOCIO_INHABILITADO("El socio no cumple los requisitos para pedir (límite de libros o préstamos vencidos)"),
+    /** Ningún ejemplar del título está prestado. */
+    LIBRO_NO_PRESTADO("El libro se encuentra en la biblioteca"),
+    /** Ya existe un socio con el mismo DNI. */
+    SOCIO_EXISTENTE("Ya existe un socio con el mismo DNI"),
+    /** El ejemplar ya pertenece a la biblioteca. */
+    LIBRO_EXISTENTE("El ejemplar ya pertenece a la biblioteca"),
+    /** La operación no pudo registrarse en el diario y no se aplicó. */
+    ERROR_DIARIO("No se pudo registrar la operación en el diario");
+
+    /** Descripción del resultado, para informarlo. */
+    private final String descripcion;
+
+    /**
+     * Constructor del resultado.
+     *
+     * @param p_descripcion Descripción visible del resultado.
+     */
+    private ResultadoLote(String p_descripcion) {
+        this.descripcion = p_descripcion;
+    }
+
+    /**
+     * Obtiene la descripción del resultado.
+     *
+     * @return La descripción (ej. "Libro no encontrado").
+     */
+    public String getDescripcion() {
+        return this.descripcion;
+    }
+}
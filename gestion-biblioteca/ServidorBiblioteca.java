@@ -0,0 +1,855 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Servidor HTTP sin interfaz gráfica para la {@link Biblioteca}, pensado para
+ * terminales de autoservicio y el catálogo web. Se inicia desde
+ * {@link GestionBiblioteca#main} con la opción
+ * {@code --servidor [puerto [puertoBinario]]}.
+ * <p>
+ * Utiliza el servidor HTTP incluido en el JDK y atiende cada pedido en su
+ * propio hilo virtual (Java 21 o posterior), por lo que miles de conexiones
+ * simultáneas no quedan limitadas por el tamaño de un grupo de hilos. En un
+ * JDK sin hilos virtuales se usa un grupo de hilos que crece sin tope.
+ * La biblioteca admite operaciones concurrentes (ver {@link Biblioteca}).
+ * <p>
+ * Todas las respuestas son JSON. Recursos:
+ * <ul>
+ * <li>{@code GET /socios/{dni}}: un socio.</li>
+ * <li>{@code GET /socios/{dni}/historial}: los préstamos devueltos del
+ * socio, en orden de devolución, paginados con {@code desde} y
+ * {@code cantidad}.</li>
+ * <li>{@code GET /libros/{id}} o {@code GET /libros?titulo=...}: un ejemplar
+ * (por título, uno disponible si lo hay).</li>
+ * <li>{@code POST /prestamos?dni=...&libro={id}} (o {@code &titulo=...}):
+ * presta el ejemplar en el día de hoy.</li>
+ * <li>{@code POST /devoluciones?libro={id}} (o {@code ?titulo=...}): registra
+ * la devolución.</li>
+ * <li>{@code POST /prestamos/lote} y {@code POST /devoluciones/lote}: varios
+ * préstamos o devoluciones de una vez (ver {@link Biblioteca#prestarLibros}),
+ * numerados desde 0 en los parámetros: {@code dni.0=...&titulo.0=...&dni.1=...
+ * &libro.1=...}. Responden el resultado de cada pedido, en orden.</li>
+ * <li>{@code GET /reportes/socios}, {@code /reportes/libros},
+ * {@code /reportes/titulos}, {@code /reportes/vencidos} y
+ * {@code /reportes/responsables}: los informes de la biblioteca, paginados
+ * con {@code desde} y {@code cantidad}.</li>
+ * </ul>
+ * Los parámetros se aceptan en la URL o, en los POST, en el cuerpo
+ * ({@code application/x-www-form-urlencoded}).
+ * <p>
+ * Junto con el servidor HTTP se inicia el {@link ServidorBinario}, con un
+ * protocolo binario para los lectores de códigos de barras.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class ServidorBiblioteca {
+    /** Puerto en el que se escucha si no se indica otro. */
+    public static final int PUERTO_PREDETERMINADO = 8080;
+    /** Cantidad de filas de un informe si el pedido no la indica. */
+    private static final int CANTIDAD_PREDETERMINADA = 100;
+    /** Conexiones pendientes de aceptar que admite el sistema operativo. */
+    private static final int CONEXIONES_PENDIENTES = 4096;
+    /** Final de la ruta del historial de un socio ({@code /socios/{dni}/historial}). */
+    private static final String SUFIJO_HISTORIAL = "/historial";
+
+    /** La biblioteca que se atiende. */
+    private Biblioteca biblioteca;
+    /** Carga, diario y guardado de los datos de la biblioteca. */
+    private Almacenamiento almacenamiento;
+    /** Servidor HTTP del JDK. */
+    private HttpServer servidor;
+    /** Ejecutor de los pedidos (un hilo virtual por pedido, si se dispone). */
+    private ExecutorService hilos;
+    /** Servidor del protocolo binario de los lectores de códigos de barras. */
+    private ServidorBinario binario;
+
+    /**
+     * Crea el servidor e inicia la carga de los datos persistidos. El servidor
+     * no atiende pedidos hasta llamar a {@link #iniciar()}.
+     *
+     * @param p_puerto        El puerto TCP donde escuchar los pedidos HTTP.
+     * @param p_puertoBinario El puerto TCP del protocolo binario.
+     * @throws IOException Si no se puede abrir alguno de los puertos.
+     */
+    public ServidorBiblioteca(int p_puerto, int p_puertoBinario) throws IOException {
+        this.setBiblioteca(new Biblioteca("Biblioteca Central"));
+        this.setServidor(HttpServer.create(new InetSocketAddress(p_puerto), CONEXIONES_PENDIENTES));
+        this.setBinario(new ServidorBinario(this.getBiblioteca(), p_puertoBinario));
+        this.setAlmacenamiento(new Almacenamiento(this.getBiblioteca()));
+        this.setHilos(crearEjecutor());
+
+        this.getServidor().setExecutor(this.getHilos());
+        this.getServidor().createContext("/socios", p_pedido -> this.atender(p_pedido, this::socios));
+        this.getServidor().createContext("/libros", p_pedido -> this.atender(p_pedido, this::libros));
+        this.getServidor().createContext("/prestamos", p_pedido -> this.atender(p_pedido, this::prestamos));
+        this.getServidor().createContext("/devoluciones", p_pedido -> this.atender(p_pedido, this::devoluciones));
+        this.getServidor().createContext("/reportes", p_pedido -> this.atender(p_pedido, this::reportes));
+    }
+
+    /**
+     * Establece la biblioteca que se atiende.
+     *
+     * @param p_biblioteca La instancia de Biblioteca.
+     */
+    private void setBiblioteca(Biblioteca p_biblioteca) {
+        this.biblioteca = p_biblioteca;
+    }
+
+    /**
+     * Establece el almacenamiento de los datos de la biblioteca.
+     *
+     * @param p_almacenamiento La instancia de Almacenamiento.
+     */
+    private void setAlmacenamiento(Almacenamiento p_almacenamiento) {
+        this.almacenamiento = p_almacenamiento;
+    }
+
+    /**
+     * Establece el servidor HTTP.
+     *
+     * @param p_servidor El servidor HTTP del JDK.
+     */
+    private void setServidor(HttpServer p_servidor) {
+        this.servidor = p_servidor;
+    }
+
+    /**
+     * Establece el ejecutor de los pedidos.
+     *
+     * @param p_hilos El ejecutor.
+     */
+    private void setHilos(ExecutorService p_hilos) {
+        this.hilos = p_hilos;
+    }
+
+    /**
+     * Establece el servidor del protocolo binario.
+     *
+     * @param p_binario El servidor binario.
+     */
+    private void setBinario(ServidorBinario p_binario) {
+        this.binario = p_binario;
+    }
+
+    /**
+     * Obtiene la biblioteca que se atiende.
+     *
+     * @return La instancia de Biblioteca.
+     */
+    public Biblioteca getBiblioteca() {
+        return this.biblioteca;
+    }
+
+    /**
+     * Obtiene el almacenamiento de los datos de la biblioteca.
+     *
+     * @return La instancia de Almacenamiento.
+     */
+    public Almacenamiento getAlmacenamiento() {
+        return this.almacenamiento;
+    }
+
+    /**
+     * Obtiene el servidor HTTP.
+     *
+     * @return El servidor HTTP del JDK.
+     */
+    private HttpServer getServidor() {
+        return this.servidor;
+    }
+
+    /**
+     * Obtiene el ejecutor de los pedidos.
+     *
+     * @return El ejecutor.
+     */
+    private ExecutorService getHilos() {
+        return this.hilos;
+    }
+
+    /**
+     * Obtiene el servidor del protocolo binario.
+     *
+     * @return El servidor binario.
+     */
+    public ServidorBinario getBinario() {
+        return this.binario;
+    }
+
+    /**
+     * Crea el ejecutor de los pedidos: uno que inicia un hilo virtual por
+     * pedido si el JDK lo ofrece (se busca por reflexión, ya que el proyecto
+     * compila también con JDK anteriores al 21) o, si no, un grupo de hilos
+     * sin límite de tamaño.
+     *
+     * @return El ejecutor.
+     */
+    private static ExecutorService crearEjecutor() {
+        try {
+            Method virtuales = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtuales.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Hilos virtuales no disponibles, se usa un grupo de hilos sin tope.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    /**
+     * Espera a que terminen de cargarse los datos y comienza a atender
+     * pedidos.
+     *
+     * @throws IOException Si la carga de los datos falló (no se atiende con
+     *                     datos parciales).
+     */
+    public void iniciar() throws IOException {
+        if (!this.getAlmacenamiento().esperarCarga()) {
+            throw new IOException("No se pudieron cargar los datos de la biblioteca");
+        }
+        this.getServidor().start();
+        this.getBinario().iniciar();
+        System.out.println("Servidor de la biblioteca escuchando en el puerto "
+                + this.getServidor().getAddress().getPort() + " (HTTP) y " + this.getBinario().getPuerto()
+                + " (binario).");
+    }
+
+    /**
+     * Deja de atender pedidos (espera hasta un segundo a los que están en
+     * curso) y guarda los datos.
+     */
+    public void detener() {
+        this.getBinario().detener();
+        this.getServidor().stop(1);
+        this.getHilos().shutdown();
+        this.getAlmacenamiento().cerrar();
+    }
+
+    /**
+     * Atiende un pedido con un recurso y envía su respuesta JSON. Los errores
+     * del pedido se responden con su código HTTP y un objeto
+     * {@code {"error": ...}}.
+     *
+     * @param p_pedido  El intercambio HTTP.
+     * @param p_recurso El recurso que arma la respuesta.
+     */
+    private void atender(HttpExchange p_pedido, Recurso p_recurso) {
+        StringBuilder json = new StringBuilder(256);
+        int estado;
+        try {
+            String ruta = p_pedido.getRequestURI().getPath();
+            String resto = ruta.substring(p_pedido.getHttpContext().getPath().length());
+            HashMap<String, String> parametros = new HashMap<String, String>();
+            leerParametros(p_pedido.getRequestURI().getRawQuery(), parametros);
+            if ("POST".equals(p_pedido.getRequestMethod())) {
+                try (InputStream cuerpo = p_pedido.getRequestBody()) {
+                    leerParametros(new String(cuerpo.readAllBytes(), StandardCharsets.UTF_8), parametros);
+                }
+            }
+            estado = p_recurso.responder(p_pedido.getRequestMethod(), resto, parametros, json);
+        } catch (ErrorPedido e) {
+            estado = e.getEstado();
+            json.setLength(0);
+            json.append("{\"error\":");
+            texto(json, e.getMessage()).append('}');
+        } catch (Exception e) {
+            estado = 500;
+            json.setLength(0);
+            json.append("{\"error\":");
+            texto(json, "Error interno: " + e.getMessage()).append('}');
+        }
+
+        try {
+            byte[] cuerpo = json.toString().getBytes(StandardCharsets.UTF_8);
+            p_pedido.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            p_pedido.sendResponseHeaders(estado, cuerpo.length);
+            try (OutputStream salida = p_pedido.getResponseBody()) {
+                salida.write(cuerpo);
+            }
+        } catch (IOException e) {
+            // El cliente cerró la conexión: no hay a quién informar
+        } finally {
+            p_pedido.close();
+        }
+    }
+
+    /**
+     * Recurso {@code /socios/{dni}}: consulta un socio, o con
+     * {@code /socios/{dni}/historial} sus préstamos devueltos. El historial
+     * guardado se recorre en cada consulta (ver
+     * {@link Biblioteca#historialDePrestamos}), por lo que se pide a demanda
+     * y no forma parte de la consulta del socio.
+     *
+     * @param p_metodo     El método HTTP.
+     * @param p_resto      La ruta a continuación de {@code /socios}.
+     * @param p_parametros Los parámetros del pedido ({@code desde} y
+     *                     {@code cantidad} en el historial).
+     * @param p_json       Donde se escribe la respuesta.
+     * @return El código HTTP de la respuesta.
+     * @throws ErrorPedido Si el pedido no es válido o el socio no existe.
+     * @throws IOException Si no se puede leer el historial guardado.
+     */
+    private int socios(String p_metodo, String p_resto, HashMap<String, String> p_parametros,
+            StringBuilder p_json) throws ErrorPedido, IOException {
+        exigirMetodo(p_metodo, "GET");
+        boolean historial = p_resto.endsWith(SUFIJO_HISTORIAL);
+        String ruta = historial ? p_resto.substring(0, p_resto.length() - SUFIJO_HISTORIAL.length()) : p_resto;
+        int dni = entero(identificador(ruta, "DNI"), "DNI");
+        Socio socio = this.getBiblioteca().buscarSocio(dni);
+        if (socio == null) {
+            throw new ErrorPedido(404, "Socio no encontrado (DNI: " + dni + ")");
+        }
+        if (!historial) {
+            socio(p_json, socio);
+            return 200;
+        }
+
+        int desde = entero(p_parametros.getOrDefault("desde", "0"), "desde");
+        int cantidad = entero(p_parametros.getOrDefault("cantidad", String.valueOf(CANTIDAD_PREDETERMINADA)),
+                "cantidad");
+        if (desde < 0 || cantidad < 0) {
+            throw new ErrorPedido(400, "desde y cantidad no pueden ser negativos");
+        }
+        List<Prestamo> devueltos = pagina(this.getBiblioteca().historialDePrestamos(socio), desde, cantidad);
+        p_json.append('[');
+        for (int i = 0; i < devueltos.size(); i++) {
+            prestamo(separar(p_json, i), devueltos.get(i));
+        }
+        p_json.append(']');
+        return 200;
+    }
+
+    /**
+     * Recurso {@code /libros/{id}} o {@code /libros?titulo=...}: consulta un
+     * ejemplar.
+     *
+     * @param p_metodo     El método HTTP.
+     * @param p_resto      La ruta a continuación de {@code /libros}.
+     * @param p_parametros Los parámetros del pedido.
+     * @param p_json       Donde se escribe la respuesta.
+     * @return El código HTTP de la respuesta.
+     * @throws ErrorPedido Si el pedido no es válido o el libro no existe.
+     */
+    private int libros(String p_metodo, String p_resto, HashMap<String, String> p_parametros,
+            StringBuilder p_json) throws ErrorPedido {
+        exigirMetodo(p_metodo, "GET");
+        Libro libro;
+        if (p_resto.length() > 1) {
+            libro = this.libroPorId(entero(identificador(p_resto, "identificador"), "identificador"));
+        } else {
+            libro = this.libroPedido(p_parametros, true);
+        }
+        libro(p_json, libro);
+        return 200;
+    }
+
+    /**
+     * Recurso {@code POST /prestamos}: presta un ejemplar a un socio en el día
+     * de hoy.
+     *
+     * @param p_metodo     El método HTTP.
+     * @param p_resto      La ruta a continuación de {@code /prestamos}.
+     * @param p_parametros Los parámetros del pedido ({@code dni} y
+     *                     {@code libro} o {@code titulo}, o los mismos
+     *                     numerados en {@code /prestamos/lote}).
+     * @param p_json       Donde se escribe la respuesta.
+     * @return El código HTTP de la respuesta.
+     * @throws ErrorPedido Si el pedido no es válido o el préstamo no procede.
+     */
+    private int prestamos(String p_metodo, String p_resto, HashMap<String, String> p_parametros,
+            StringBuilder p_json) throws ErrorPedido {
+        exigirMetodo(p_metodo, "POST");
+        if (p_resto.equals("/lote")) {
+            ArrayList<PedidoCirculacion> pedidos = pedidosEnLote(p_parametros, true);
+            this.getBiblioteca().prestarLibros(pedidos, this.getBiblioteca().hoy());
+            resultados(p_json, pedidos);
+            return 200;
+        }
+        int dni = entero(requerido(p_parametros, "dni"), "DNI");
+        Socio socio = this.getBiblioteca().buscarSocio(dni);
+        if (socio == null) {
+            throw new ErrorPedido(404, "Socio no encontrado (DNI: " + dni + ")");
+        }
+        Libro libro = this.libroPedido(p_parametros, true);
+
+        int hoy = this.getBiblioteca().hoy();
+        if (!this.getBiblioteca().prestarLibro(Fechas.aCalendar(hoy), socio, libro)) {
+            if (libro.prestado()) {
+                throw new ErrorPedido(409, "El libro ya está prestado.");
+            }
+            if (!socio.puedePedir(hoy)) {
+                throw new ErrorPedido(409,
+                        "El socio no cumple los requisitos para pedir (límite de libros o préstamos vencidos).");
+            }
+            throw new ErrorPedido(409, "No se pudo realizar el préstamo.");
+        }
+        p_json.append("{\"prestado\":true,\"libro\":");
+        libro(p_json, libro).append('}');
+        return 201;
+    }
+
+    /**
+     * Recurso {@code POST /devoluciones}: registra la devolución de un
+     * ejemplar en el día de hoy.
+     *
+     * @param p_metodo     El método HTTP.
+     * @param p_resto      La ruta a continuación de {@code /devoluciones}.
+     * @param p_parametros Los parámetros del pedido ({@code libro} o
+     *                     {@code titulo}, o los mismos numerados en
+     *                     {@code /devoluciones/lote}).
+     * @param p_json       Donde se escribe la respuesta.
+     * @return El código HTTP de la respuesta.
+     * @throws ErrorPedido Si el pedido no es válido o el libro no está
+     *                     prestado.
+     */
+    private int devoluciones(String p_metodo, String p_resto, HashMap<String, String> p_parametros,
+            StringBuilder p_json) throws ErrorPedido {
+        exigirMetodo(p_metodo, "POST");
+        if (p_resto.equals("/lote")) {
+            ArrayList<PedidoCirculacion> pedidos = pedidosEnLote(p_parametros, false);
+            this.getBiblioteca().devolverLibros(pedidos, this.getBiblioteca().hoy());
+            resultados(p_json, pedidos);
+            return 200;
+        }
+        Libro libro = this.libroPedido(p_parametros, false);
+        try {
+            this.getBiblioteca().devolverLibro(libro);
+        } catch (LibroNoPrestadoException e) {
+            throw new ErrorPedido(409, e.getMessage());
+        }
+        p_json.append("{\"devuelto\":true,\"libro\":");
+        libro(p_json, libro).append('}');
+        return 200;
+    }
+
+    /**
+     * Recurso {@code /reportes/{informe}}: los informes de la biblioteca, como
+     * arreglos JSON paginados con {@code desde} y {@code cantidad}.
+     *
+     * @param p_metodo     El método HTTP.
+     * @param p_resto      La ruta a continuación de {@code /reportes}.
+     * @param p_parametros Los parámetros del pedido.
+     * @param p_json       Donde se escribe la respuesta.
+     * @return El código HTTP de la respuesta.
+     * @throws ErrorPedido Si el pedido no es válido o el informe no existe.
+     */
+    private int reportes(String p_metodo, String p_resto, HashMap<String, String> p_parametros,
+            StringBuilder p_json) throws ErrorPedido {
+        exigirMetodo(p_metodo, "GET");
+        int desde = entero(p_parametros.getOrDefault("desde", "0"), "desde");
+        int cantidad = entero(p_parametros.getOrDefault("cantidad", String.valueOf(CANTIDAD_PREDETERMINADA)),
+                "cantidad");
+        if (desde < 0 || cantidad < 0) {
+            throw new ErrorPedido(400, "desde y cantidad no pueden ser negativos");
+        }
+
+        String informe = identificador(p_resto, "informe");
+        p_json.append('[');
+        if (informe.equals("socios")) {
+            List<Socio> socios = this.getBiblioteca().getSocios(desde, cantidad);
+            for (int i = 0; i < socios.size(); i++) {
+                socio(separar(p_json, i), socios.get(i));
+            }
+        } else if (informe.equals("libros")) {
+            List<Libro> libros = this.getBiblioteca().getLibros(desde, cantidad);
+            for (int i = 0; i < libros.size(); i++) {
+                libro(separar(p_json, i), libros.get(i));
+            }
+        } else if (informe.equals("titulos")) {
+            List<String> titulos = this.getBiblioteca().getTitulos(desde, cantidad);
+            for (int i = 0; titulos != null && i < titulos.size(); i++) {
+                texto(separar(p_json, i), titulos.get(i));
+            }
+        } else if (informe.equals("vencidos")) {
+            List<Prestamo> vencidos = pagina(this.getBiblioteca().prestamosVencidos(), desde, cantidad);
+            for (int i = 0; i < vencidos.size(); i++) {
+                prestamo(separar(p_json, i), vencidos.get(i));
+            }
+        } else if (informe.equals("responsables")) {
+            List<Docente> docentes = pagina(this.getBiblioteca().docentesResponsables(), desde, cantidad);
+            for (int i = 0; i < docentes.size(); i++) {
+                socio(separar(p_json, i), docentes.get(i));
+            }
+        } else {
+            throw new ErrorPedido(404, "Informe desconocido: " + informe);
+        }
+        p_json.append(']');
+        return 200;
+    }
+
+    /**
+     * Busca el ejemplar indicado en un pedido, por identificador
+     * ({@code libro}) o por título ({@code titulo}).
+     *
+     * @param p_parametros Los parámetros del pedido.
+     * @param p_disponible true para preferir, por título, un ejemplar
+     *                     disponible; false para preferir uno prestado.
+     * @return El ejemplar.
+     * @throws ErrorPedido Si faltan los parámetros o el libro no existe.
+     */
+    private Libro libroPedido(HashMap<String, String> p_parametros, boolean p_disponible) throws ErrorPedido {
+        if (p_parametros.containsKey("libro")) {
+            return this.libroPorId(entero(p_parametros.get("libro"), "identificador"));
+        }
+        String titulo = requerido(p_parametros, "titulo");
+        Libro libro = p_disponible ? this.getBiblioteca().buscarLibroDisponible(titulo)
+                : this.getBiblioteca().buscarLibroPrestado(titulo);
+        if (libro == null) {
+            throw new ErrorPedido(404, "Libro no encontrado (Título: " + titulo + ")");
+        }
+        return libro;
+    }
+
+    /**
+     * Arma los pedidos de un lote a partir de los parámetros numerados
+     * ({@code dni.0}, {@code libro.0} o {@code titulo.0}, {@code dni.1}, ...).
+     * El lote termina en el primer número sin libro ni título.
+     *
+     * @param p_parametros Los parámetros del pedido.
+     * @param p_conSocio   true si cada pedido requiere el DNI del socio
+     *                     (préstamos).
+     * @return Los pedidos, en orden.
+     * @throws ErrorPedido Si el lote está vacío o un pedido está incompleto.
+     */
+    private static ArrayList<PedidoCirculacion> pedidosEnLote(HashMap<String, String> p_parametros,
+            boolean p_conSocio) throws ErrorPedido {
+        ArrayList<PedidoCirculacion> pedidos = new ArrayList<PedidoCirculacion>();
+        for (int i = 0;; i++) {
+            String libro = p_parametros.get("libro." + i);
+            String titulo = p_parametros.get("titulo." + i);
+            if (libro == null && titulo == null) {
+                break;
+            }
+            int dni = p_conSocio ? entero(requerido(p_parametros, "dni." + i), "DNI") : PedidoCirculacion.SIN_SOCIO;
+            if (libro != null) {
+                pedidos.add(new PedidoCirculacion(dni, entero(libro, "identificador")));
+            } else {
+                pedidos.add(new PedidoCirculacion(dni, requerido(p_parametros, "titulo." + i)));
+            }
+        }
+        if (pedidos.isEmpty()) {
+            throw new ErrorPedido(400, "El lote no tiene pedidos (falta libro.0 o titulo.0)");
+        }
+        return pedidos;
+    }
+
+    /**
+     * Busca un ejemplar por su identificador.
+     *
+     * @param p_id El identificador.
+     * @return El ejemplar.
+     * @throws ErrorPedido Si el libro no existe.
+     */
+    private Libro libroPorId(int p_id) throws ErrorPedido {
+        Libro libro = this.getBiblioteca().buscarLibroPorId(p_id);
+        if (libro == null) {
+            throw new ErrorPedido(404, "Libro no encontrado (identificador: " + p_id + ")");
+        }
+        return libro;
+    }
+
+    /**
+     * Verifica el método HTTP del pedido.
+     *
+     * @param p_metodo   El método del pedido.
+     * @param p_esperado El método que admite el recurso.
+     * @throws ErrorPedido Si no coinciden.
+     */
+    private static void exigirMetodo(String p_metodo, String p_esperado) throws ErrorPedido {
+        if (!p_esperado.equals(p_metodo)) {
+            throw new ErrorPedido(405, "Método no admitido: " + p_metodo + " (se espera " + p_esperado + ")");
+        }
+    }
+
+    /**
+     * Obtiene el segmento de la ruta que sigue al recurso (ej. el DNI en
+     * {@code /socios/30123456}).
+     *
+     * @param p_resto       La ruta a continuación del recurso.
+     * @param p_descripcion Qué se espera (para el mensaje de error).
+     * @return El segmento, sin la barra inicial.
+     * @throws ErrorPedido Si la ruta no tiene exactamente un segmento.
+     */
+    private static String identificador(String p_resto, String p_descripcion) throws ErrorPedido {
+        if (p_resto.length() <= 1 || p_resto.charAt(0) != '/' || p_resto.indexOf('/', 1) >= 0) {
+            throw new ErrorPedido(404, "Falta el " + p_descripcion + " en la ruta");
+        }
+        return p_resto.substring(1);
+    }
+
+    /**
+     * Obtiene un parámetro obligatorio del pedido.
+     *
+     * @param p_parametros Los parámetros del pedido.
+     * @param p_nombre     El nombre del parámetro.
+     * @return Su valor.
+     * @throws ErrorPedido Si el parámetro falta o está vacío.
+     */
+    private static String requerido(HashMap<String, String> p_parametros, String p_nombre) throws ErrorPedido {
+        String valor = p_parametros.get(p_nombre);
+        if (valor == null || valor.trim().isEmpty()) {
+            throw new ErrorPedido(400, "Falta el parámetro " + p_nombre);
+        }
+        return valor.trim();
+    }
+
+    /**
+     * Convierte un valor del pedido en entero.
+     *
+     * @param p_valor       El valor.
+     * @param p_descripcion Qué representa (para el mensaje de error).
+     * @return El entero.
+     * @throws ErrorPedido Si el valor no es un entero.
+     */
+    private static int entero(String p_valor, String p_descripcion) throws ErrorPedido {
+        try {
+            return Integer.parseInt(p_valor.trim());
+        } catch (NumberFormatException e) {
+            throw new ErrorPedido(400, "El " + p_descripcion + " debe ser un número: " + p_valor);
+        }
+    }
+
+    /**
+     * Agrega a un mapa los parámetros de una cadena
+     * {@code nombre=valor&nombre=valor} (URL o cuerpo de un formulario).
+     *
+     * @param p_cadena     La cadena codificada, o null.
+     * @param p_parametros El mapa donde se agregan.
+     */
+    private static void leerParametros(String p_cadena, HashMap<String, String> p_parametros) {
+        if (p_cadena == null || p_cadena.isEmpty()) {
+            return;
+        }
+        for (String unPar : p_cadena.split("&")) {
+            int igual = unPar.indexOf('=');
+            String nombre = igual < 0 ? unPar : unPar.substring(0, igual);
+            String valor = igual < 0 ? "" : unPar.substring(igual + 1);
+            p_parametros.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Obtiene una página de una lista.
+     *
+     * @param <T>        Tipo de los elementos.
+     * @param p_lista    La lista completa.
+     * @param p_desde    Posición del primer elemento.
+     * @param p_cantidad Cantidad máxima de elementos.
+     * @return La página (una vista de la lista).
+     */
+    private static <T> List<T> pagina(ArrayList<T> p_lista, int p_desde, int p_cantidad) {
+        int desde = Math.min(p_desde, p_lista.size());
+        int hasta = (int) Math.min((long) desde + p_cantidad, p_lista.size());
+        return p_lista.subList(desde, hasta);
+    }
+
+    /**
+     * Agrega la coma que separa los elementos de un arreglo JSON.
+     *
+     * @param p_json   El JSON en construcción.
+     * @param p_indice La posición del elemento que se va a escribir.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    private static StringBuilder separar(StringBuilder p_json, int p_indice) {
+        if (p_indice > 0) {
+            p_json.append(',');
+        }
+        return p_json;
+    }
+
+    /**
+     * Escribe una cadena JSON, con las comillas y los caracteres de control
+     * escapados.
+     *
+     * @param p_json  El JSON en construcción.
+     * @param p_texto El texto (null se escribe como {@code null}).
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    private static StringBuilder texto(StringBuilder p_json, String p_texto) {
+        if (p_texto == null) {
+            return p_json.append("null");
+        }
+        p_json.append('"');
+        for (int i = 0; i < p_texto.length(); i++) {
+            char c = p_texto.charAt(i);
+            if (c == '"' || c == '\\') {
+                p_json.append('\\').append(c);
+            } else if (c == '\n') {
+                p_json.append("\\n");
+            } else if (c < 0x20) {
+                p_json.append(String.format("\\u%04x", (int) c));
+            } else {
+                p_json.append(c);
+            }
+        }
+        return p_json.append('"');
+    }
+
+    /**
+     * Escribe un día época como fecha JSON ({@code "aaaa-mm-dd"}).
+     *
+     * @param p_json El JSON en construcción.
+     * @param p_dia  El día época.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    private static StringBuilder fecha(StringBuilder p_json, int p_dia) {
+        int compacta = Fechas.fechaCompacta(p_dia);
+        return p_json.append(String.format("\"%04d-%02d-%02d\"", compacta / 10000, (compacta / 100) % 100,
+                compacta % 100));
+    }
+
+    /**
+     * Escribe un socio como objeto JSON.
+     *
+     * @param p_json  El JSON en construcción.
+     * @param p_socio El socio.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    private StringBuilder socio(StringBuilder p_json, Socio p_socio) {
+        p_json.append("{\"dni\":").append(p_socio.getDniSocio());
+        texto(p_json.append(",\"nombre\":"), p_socio.getNombre());
+        texto(p_json.append(",\"tipo\":"), p_socio.soyDeLaClase());
+        if (p_socio instanceof Estudiante) {
+            texto(p_json.append(",\"carrera\":"), ((Estudiante) p_socio).getCarrera());
+        } else if (p_socio instanceof Docente) {
+            texto(p_json.append(",\"area\":"), ((Docente) p_socio).getArea());
+        }
+        p_json.append(",\"librosPrestados\":").append(p_socio.cantLibrosPrestados());
+        p_json.append(",\"puedePedir\":").append(p_socio.puedePedir(this.getBiblioteca().hoy()));
+        return p_json.append('}');
+    }
+
+    /**
+     * Escribe un ejemplar como objeto JSON, con su préstamo en curso si lo
+     * tiene.
+     *
+     * @param p_json  El JSON en construcción.
+     * @param p_libro El ejemplar.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    private static StringBuilder libro(StringBuilder p_json, Libro p_libro) {
+        p_json.append("{\"id\":").append(p_libro.getId());
+        texto(p_json.append(",\"titulo\":"), p_libro.getTitulo());
+        p_json.append(",\"edicion\":").append(p_libro.getEdicion());
+        texto(p_json.append(",\"editorial\":"), p_libro.getEditorial());
+        p_json.append(",\"anio\":").append(p_libro.getAnio());
+        Prestamo prestamoActual = p_libro.getPrestamoActual(); // Una sola lectura
+        p_json.append(",\"prestado\":").append(prestamoActual != null);
+        if (prestamoActual != null) {
+            p_json.append(",\"dniSocio\":").append(prestamoActual.getSocio().getDniSocio());
+            fecha(p_json.append(",\"retiro\":"), prestamoActual.getDiaRetiro());
+            fecha(p_json.append(",\"vencimiento\":"), prestamoActual.getDiaVencimiento());
+        }
+        return p_json.append('}');
+    }
+
+    /**
+     * Escribe un préstamo como objeto JSON, con su día de devolución si ya se
+     * devolvió.
+     *
+     * @param p_json     El JSON en construcción.
+     * @param p_prestamo El préstamo.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    private static StringBuilder prestamo(StringBuilder p_json, Prestamo p_prestamo) {
+        p_json.append("{\"dniSocio\":").append(p_prestamo.getSocio().getDniSocio());
+        texto(p_json.append(",\"nombre\":"), p_prestamo.getSocio().getNombre());
+        p_json.append(",\"libro\":").append(p_prestamo.getLibro().getId());
+        texto(p_json.append(",\"titulo\":"), p_prestamo.getLibro().getTitulo());
+        fecha(p_json.append(",\"retiro\":"), p_prestamo.getDiaRetiro());
+        fecha(p_json.append(",\"vencimiento\":"), p_prestamo.getDiaVencimiento());
+        if (p_prestamo.estaDevuelto()) {
+            fecha(p_json.append(",\"devolucion\":"), p_prestamo.getDiaDevolucion());
+        }
+        return p_json.append('}');
+    }
+
+    /**
+     * Escribe los resultados de un lote como arreglo JSON: por cada pedido,
+     * su resultado y el ejemplar prestado o devuelto (null si no se realizó).
+     *
+     * @param p_json    El JSON en construcción.
+     * @param p_pedidos Los pedidos ya procesados.
+     * @return El mismo StringBuilder, para encadenar llamadas.
+     */
+    private static StringBuilder resultados(StringBuilder p_json, List<PedidoCirculacion> p_pedidos) {
+        p_json.append('[');
+        for (int i = 0; i < p_pedidos.size(); i++) {
+            PedidoCirculacion unPedido = p_pedidos.get(i);
+            texto(separar(p_json, i).append("{\"resultado\":"), unPedido.getResultado().name());
+            texto(p_json.append(",\"descripcion\":"), unPedido.getResultado().getDescripcion());
+            p_json.append(",\"libro\":");
+            if (unPedido.getLibro() == null) {
+                p_json.append("null");
+            } else {
+                libro(p_json, unPedido.getLibro());
+            }
+            p_json.append('}');
+        }
+        return p_json.append(']');
+    }
+
+    /**
+     * Recurso del servidor: atiende un pedido y escribe su respuesta JSON.
+     */
+    private interface Recurso {
+        /**
+         * Atiende un pedido.
+         *
+         * @param p_metodo     El método HTTP.
+         * @param p_resto      La ruta a continuación del recurso (ej.
+         *                     {@code /30123456}), o vacía.
+         * @param p_parametros Los parámetros del pedido.
+         * @param p_json       Donde se escribe la respuesta.
+         * @return El código HTTP de la respuesta.
+         * @throws Exception Si el pedido no puede atenderse ({@link ErrorPedido}
+         *                   para errores del pedido).
+         */
+        int responder(String p_metodo, String p_resto, HashMap<String, String> p_parametros,
+                StringBuilder p_json) throws Exception;
+    }
+
+    /**
+     * Error de un pedido, que se responde con su código HTTP.
+     */
+    private static class ErrorPedido extends Exception {
+        /** Código HTTP de la respuesta. */
+        private final int estado;
+
+        /**
+         * Constructor del error.
+         *
+         * @param p_estado  Código HTTP de la respuesta.
+         * @param p_mensaje Mensaje para el cliente.
+         */
+        ErrorPedido(int p_estado, String p_mensaje) {
+            super(p_mensaje);
+            this.estado = p_estado;
+        }
+
+        /**
+         * Obtiene el código HTTP de la respuesta.
+         *
+         * @return El código HTTP.
+         */
+        int getEstado() {
+            return this.estado;
+        }
+    }
+}
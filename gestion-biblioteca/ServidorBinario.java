@@ -0,0 +1,438 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+/**
+ * Servidor de un protocolo binario compacto para los lectores de códigos de
+ * barras, donde el costo de HTTP y JSON por pedido es excesivo. Atiende todas
+ * las conexiones desde un único hilo con un {@link Selector} (E/S sin
+ * bloqueo) y se inicia junto con el {@link ServidorBiblioteca}.
+ * <p>
+ * Cada mensaje lleva un prefijo con su longitud (enteros en orden de red):
+ * <pre>
+ * pedido:    int longitud | byte operación | datos
+ * respuesta: int longitud | byte operación | byte estado | datos
+ * </pre>
+ * donde la longitud no incluye sus propios 4 bytes. Un cliente puede enviar
+ * varios pedidos seguidos sin esperar las respuestas (pipelining): se
+ * procesan en orden y las respuestas llegan en el mismo orden.
+ * <p>
+ * Operaciones:
+ * <ul>
+ * <li>{@link #PRESTAR} (int DNI, int identificador del ejemplar): presta el
+ * ejemplar en el día de hoy. Responde el día época de vencimiento (int), o
+ * {@link #RECHAZADO} con el motivo (byte).</li>
+ * <li>{@link #DEVOLVER} (int identificador del ejemplar): registra la
+ * devolución en el día de hoy.</li>
+ * <li>{@link #BUSCAR_SOCIO} (int DNI): responde el tipo
+ * ({@link TipoSocio#ordinal}, byte), los libros prestados (short), si puede
+ * pedir (byte 0/1) y el nombre (short longitud y bytes UTF-8).</li>
+ * </ul>
+ * Las respuestas se codifican directamente en un búfer directo de cada
+ * conexión, que se entrega al socket sin copias intermedias; los pedidos que
+ * llegan juntos se responden con una sola escritura.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class ServidorBinario {
+    /** Puerto en el que se escucha si no se indica otro. */
+    public static final int PUERTO_PREDETERMINADO = 8081;
+
+    /** Operación: prestar un ejemplar. */
+    public static final byte PRESTAR = 1;
+    /** Operación: devolver un ejemplar. */
+    public static final byte DEVOLVER = 2;
+    /** Operación: consultar un socio. */
+    public static final byte BUSCAR_SOCIO = 3;
+
+    /** Estado: la operación se realizó. */
+    public static final byte OK = 0;
+    /** Estado: el socio o el ejemplar no existen. */
+    public static final byte NO_ENCONTRADO = 1;
+    /** Estado: la operación no procede (sigue un byte con el motivo). */
+    public static final byte RECHAZADO = 2;
+    /** Estado: pedido mal formado u operación desconocida. */
+    public static final byte ERROR = 3;
+
+    /** Motivo de rechazo: el ejemplar ya está prestado. */
+    public static final byte MOTIVO_PRESTADO = 1;
+    /** Motivo de rechazo: el socio no cumple los requisitos para pedir. */
+    public static final byte MOTIVO_SOCIO_INHABILITADO = 2;
+    /** Motivo de rechazo: el ejemplar no está prestado. */
+    public static final byte MOTIVO_NO_PRESTADO = 3;
+
+    /** Tamaño de los búferes de entrada y salida de cada conexión. */
+    private static final int TAMANIO_BUFER = 64 * 1024;
+    /** Longitud máxima de un pedido (sin el prefijo). */
+    private static final int MAXIMO_PEDIDO = 1024;
+    /** Bytes máximos del nombre de un socio en una respuesta. */
+    private static final int MAXIMO_NOMBRE = 1024;
+    /** Longitud máxima de una respuesta, con su prefijo. */
+    private static final int MAXIMO_RESPUESTA = 16 + MAXIMO_NOMBRE;
+
+    /** La biblioteca que se atiende. */
+    private final Biblioteca biblioteca;
+    /** Selector de las conexiones. */
+    private final Selector selector;
+    /** Canal que acepta las conexiones. */
+    private final ServerSocketChannel aceptador;
+    /** Codificador de los nombres (solo lo usa el hilo del selector). */
+    private final CharsetEncoder codificador;
+    /** Hilo del selector, o null si el servidor no está en marcha. */
+    private volatile Thread hilo;
+
+    /**
+     * Abre el puerto del servidor. No atiende pedidos hasta llamar a
+     * {@link #iniciar()}.
+     *
+     * @param p_biblioteca La biblioteca que se atiende.
+     * @param p_puerto     El puerto TCP donde escuchar.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public ServidorBinario(Biblioteca p_biblioteca, int p_puerto) throws IOException {
+        this.biblioteca = p_biblioteca;
+        this.selector = Selector.open();
+        this.aceptador = ServerSocketChannel.open();
+        this.aceptador.bind(new InetSocketAddress(p_puerto), 4096);
+        this.aceptador.configureBlocking(false);
+        this.aceptador.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.codificador = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Obtiene el puerto en el que escucha el servidor.
+     *
+     * @return El puerto TCP.
+     * @throws IOException Si el canal está cerrado.
+     */
+    public int getPuerto() throws IOException {
+        return ((InetSocketAddress) this.aceptador.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Comienza a atender pedidos en un hilo propio.
+     */
+    public synchronized void iniciar() {
+        if (this.hilo != null) {
+            return;
+        }
+        this.hilo = new Thread(this::atender, "servidor-binario");
+        this.hilo.start();
+    }
+
+    /**
+     * Deja de atender pedidos y cierra todas las conexiones. Espera a que el
+     * hilo del selector termine el pedido en curso.
+     */
+    public void detener() {
+        Thread actual;
+        synchronized (this) {
+            actual = this.hilo;
+            this.hilo = null;
+        }
+        if (actual == null) {
+            return;
+        }
+        this.selector.wakeup();
+        try {
+            actual.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Ciclo del hilo del selector: acepta conexiones, lee pedidos, los procesa
+     * y escribe las respuestas hasta que el servidor se detiene.
+     */
+    private void atender() {
+        try {
+            while (this.hilo == Thread.currentThread()) {
+                this.selector.select();
+                Iterator<SelectionKey> listas = this.selector.selectedKeys().iterator();
+                while (listas.hasNext()) {
+                    SelectionKey clave = listas.next();
+                    listas.remove();
+                    try {
+                        if (!clave.isValid()) {
+                            continue;
+                        }
+                        if (clave.isAcceptable()) {
+                            this.aceptar();
+                        } else if (clave.isWritable()) {
+                            this.escribir(clave);
+                        } else if (clave.isReadable()) {
+                            this.leer(clave);
+                        }
+                    } catch (IOException e) {
+                        // Conexión caída o protocolo violado: solo se cierra esa conexión
+                        cerrar(clave);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error en el servidor binario: " + e.getMessage());
+        } finally {
+            for (SelectionKey unaClave : this.selector.keys()) {
+                cerrar(unaClave);
+            }
+            try {
+                this.selector.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el servidor binario: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Acepta una conexión pendiente y la registra para lectura.
+     *
+     * @throws IOException Si no se puede configurar la conexión.
+     */
+    private void aceptar() throws IOException {
+        SocketChannel canal = this.aceptador.accept();
+        if (canal == null) {
+            return;
+        }
+        canal.configureBlocking(false);
+        canal.socket().setTcpNoDelay(true); // Respuestas cortas: sin demora de Nagle
+        canal.register(this.selector, SelectionKey.OP_READ, new Conexion());
+    }
+
+    /**
+     * Lee lo disponible de una conexión, procesa los pedidos completos y
+     * envía sus respuestas.
+     *
+     * @param p_clave La clave de la conexión.
+     * @throws IOException Si la conexión se cerró o envió un pedido inválido.
+     */
+    private void leer(SelectionKey p_clave) throws IOException {
+        Conexion conexion = (Conexion) p_clave.attachment();
+        if (((SocketChannel) p_clave.channel()).read(conexion.entrada) < 0) {
+            throw new IOException("Conexión cerrada por el cliente");
+        }
+        this.procesarYEnviar(p_clave, conexion);
+    }
+
+    /**
+     * Envía las respuestas pendientes de una conexión que estaba esperando
+     * poder escribir y, si se vació, continúa con los pedidos que quedaron
+     * sin procesar.
+     *
+     * @param p_clave La clave de la conexión.
+     * @throws IOException Si la conexión falla.
+     */
+    private void escribir(SelectionKey p_clave) throws IOException {
+        Conexion conexion = (Conexion) p_clave.attachment();
+        if (this.vaciar(p_clave, conexion)) {
+            this.procesarYEnviar(p_clave, conexion);
+        }
+    }
+
+    /**
+     * Procesa los pedidos completos del búfer de entrada y envía las
+     * respuestas. Si el socket no acepta más datos, deja de leer la conexión
+     * hasta poder escribir (los pedidos restantes esperan en el búfer).
+     *
+     * @param p_clave    La clave de la conexión.
+     * @param p_conexion El estado de la conexión.
+     * @throws IOException Si llega un pedido inválido o la conexión falla.
+     */
+    private void procesarYEnviar(SelectionKey p_clave, Conexion p_conexion) throws IOException {
+        ByteBuffer entrada = p_conexion.entrada;
+        entrada.flip();
+        try {
+            while (entrada.remaining() >= 4) {
+                int inicio = entrada.position();
+                int longitud = entrada.getInt(inicio);
+                if (longitud < 1 || longitud > MAXIMO_PEDIDO) {
+                    throw new IOException("Longitud de pedido inválida: " + longitud);
+                }
+                if (entrada.remaining() < 4 + longitud) {
+                    break; // Pedido incompleto: se espera el resto
+                }
+                if (p_conexion.salida.remaining() < MAXIMO_RESPUESTA && !this.vaciar(p_clave, p_conexion)) {
+                    break; // Socket lleno: se continúa al poder escribir
+                }
+                entrada.position(inicio + 5);
+                this.responder(entrada.get(inicio + 4), entrada, longitud - 1, p_conexion.salida);
+                entrada.position(inicio + 4 + longitud);
+            }
+        } finally {
+            entrada.compact();
+        }
+        this.vaciar(p_clave, p_conexion);
+    }
+
+    /**
+     * Escribe en el socket las respuestas acumuladas en el búfer de salida.
+     * Si no se pueden escribir todas, la conexión pasa a esperar escritura y
+     * deja de leerse; si se escribieron todas, vuelve a leerse.
+     *
+     * @param p_clave    La clave de la conexión.
+     * @param p_conexion El estado de la conexión.
+     * @return true si el búfer de salida quedó vacío.
+     * @throws IOException Si la conexión falla.
+     */
+    private boolean vaciar(SelectionKey p_clave, Conexion p_conexion) throws IOException {
+        ByteBuffer salida = p_conexion.salida;
+        salida.flip();
+        try {
+            if (salida.hasRemaining()) {
+                ((SocketChannel) p_clave.channel()).write(salida);
+            }
+            boolean vacio = !salida.hasRemaining();
+            p_clave.interestOps(vacio ? SelectionKey.OP_READ : SelectionKey.OP_WRITE);
+            return vacio;
+        } finally {
+            salida.compact();
+        }
+    }
+
+    /**
+     * Procesa un pedido y codifica su respuesta en el búfer de salida.
+     *
+     * @param p_operacion La operación pedida.
+     * @param p_datos     El búfer de entrada, posicionado en los datos.
+     * @param p_largo     La longitud de los datos.
+     * @param p_salida    El búfer de salida (con lugar para una respuesta).
+     */
+    private void responder(byte p_operacion, ByteBuffer p_datos, int p_largo, ByteBuffer p_salida) {
+        int inicio = p_salida.position();
+        p_salida.putInt(0); // Longitud: se completa al final
+        p_salida.put(p_operacion);
+        try {
+            if (p_operacion == PRESTAR && p_largo == 8) {
+                this.prestar(p_datos.getInt(), p_datos.getInt(), p_salida);
+            } else if (p_operacion == DEVOLVER && p_largo == 4) {
+                this.devolver(p_datos.getInt(), p_salida);
+            } else if (p_operacion == BUSCAR_SOCIO && p_largo == 4) {
+                this.buscarSocio(p_datos.getInt(), p_salida);
+            } else {
+                p_salida.put(ERROR);
+            }
+        } catch (RuntimeException e) {
+            // Falla de la operación: se descarta lo escrito y se informa el error
+            System.err.println("Error al atender un pedido binario: " + e);
+            p_salida.position(inicio + 5);
+            p_salida.put(ERROR);
+        }
+        p_salida.putInt(inicio, p_salida.position() - inicio - 4);
+    }
+
+    /**
+     * Operación {@link #PRESTAR}.
+     *
+     * @param p_dni     DNI del socio.
+     * @param p_idLibro Identificador del ejemplar.
+     * @param p_salida  El búfer de salida.
+     */
+    private void prestar(int p_dni, int p_idLibro, ByteBuffer p_salida) {
+        Socio socio = this.biblioteca.buscarSocio(p_dni);
+        Libro libro = this.biblioteca.buscarLibroPorId(p_idLibro);
+        if (socio == null || libro == null) {
+            p_salida.put(NO_ENCONTRADO);
+            return;
+        }
+        Prestamo prestamo = new Prestamo(this.biblioteca.hoy(), socio, libro);
+        ResultadoLote resultado = this.biblioteca.solicitarPrestamo(prestamo);
+        if (resultado == ResultadoLote.REALIZADO) {
+            p_salida.put(OK).putInt(prestamo.getDiaVencimiento());
+        } else if (resultado == ResultadoLote.LIBRO_PRESTADO) {
+            p_salida.put(RECHAZADO).put(MOTIVO_PRESTADO);
+        } else if (resultado == ResultadoLote.SOCIO_INHABILITADO) {
+            p_salida.put(RECHAZADO).put(MOTIVO_SOCIO_INHABILITADO);
+        } else {
+            p_salida.put(NO_ENCONTRADO); // Se dio de baja mientras se atendía el pedido
+        }
+    }
+
+    /**
+     * Operación {@link #DEVOLVER}.
+     *
+     * @param p_idLibro Identificador del ejemplar.
+     * @param p_salida  El búfer de salida.
+     */
+    private void devolver(int p_idLibro, ByteBuffer p_salida) {
+        Libro libro = this.biblioteca.buscarLibroPorId(p_idLibro);
+        if (libro == null) {
+            p_salida.put(NO_ENCONTRADO);
+            return;
+        }
+        try {
+            this.biblioteca.devolverLibro(libro);
+            p_salida.put(OK);
+        } catch (LibroNoPrestadoException e) {
+            p_salida.put(RECHAZADO).put(MOTIVO_NO_PRESTADO);
+        }
+    }
+
+    /**
+     * Operación {@link #BUSCAR_SOCIO}. El nombre se codifica directamente en
+     * el búfer de salida, truncado a {@link #MAXIMO_NOMBRE} bytes.
+     *
+     * @param p_dni    DNI del socio.
+     * @param p_salida El búfer de salida.
+     */
+    private void buscarSocio(int p_dni, ByteBuffer p_salida) {
+        Socio socio = this.biblioteca.buscarSocio(p_dni);
+        if (socio == null) {
+            p_salida.put(NO_ENCONTRADO);
+            return;
+        }
+        p_salida.put(OK);
+        p_salida.put((byte) socio.getTipo().ordinal());
+        p_salida.putShort((short) Math.min(socio.cantLibrosPrestados(), Short.MAX_VALUE));
+        p_salida.put((byte) (socio.puedePedir(this.biblioteca.hoy()) ? 1 : 0));
+
+        int inicioNombre = p_salida.position();
+        int limite = p_salida.limit();
+        p_salida.position(inicioNombre + 2);
+        p_salida.limit(inicioNombre + 2 + MAXIMO_NOMBRE);
+        this.codificador.reset();
+        this.codificador.encode(CharBuffer.wrap(socio.getNombre()), p_salida, true); // Se detiene si no cabe
+        p_salida.limit(limite);
+        p_salida.putShort(inicioNombre, (short) (p_salida.position() - inicioNombre - 2));
+    }
+
+    /**
+     * Cierra una conexión (o el canal que acepta conexiones).
+     *
+     * @param p_clave La clave del canal.
+     */
+    private static void cerrar(SelectionKey p_clave) {
+        p_clave.cancel();
+        try {
+            p_clave.channel().close();
+        } catch (IOException e) {
+            // Ya estaba cerrada
+        }
+    }
+
+    /**
+     * Estado de una conexión: los pedidos recibidos aún no procesados y las
+     * respuestas aún no enviadas.
+     */
+    private static class Conexion {
+        /** Pedidos recibidos (en modo escritura entre lecturas). */
+        private final ByteBuffer entrada = ByteBuffer.allocate(TAMANIO_BUFER);
+        /** Respuestas por enviar (en modo escritura entre envíos). */
+        private final ByteBuffer salida = ByteBuffer.allocateDirect(TAMANIO_BUFER);
+    }
+}
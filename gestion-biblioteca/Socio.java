@@ -24,6 +24,13 @@ public abstract class Socio {
     private int diasPrestamo;
     /** Colección de todos los préstamos históricos y actuales del socio. */
     private ArrayList<Prestamo> prestamos;
+    /** Préstamos que el socio tiene actualmente en su poder (no devueltos). */
+    private ArrayList<Prestamo> prestamosActivos;
+    /**
+     * Día época de vencimiento del préstamo activo que vence primero, o
+     * {@link Integer#MAX_VALUE} si no tiene préstamos activos.
+     */
+    private int vencimientoMasProximo;
 
     /**
      * Constructor para un nuevo socio sin préstamos iniciales.
@@ -37,6 +44,8 @@ public abstract class Socio {
         this.setNombre(p_nombre);
         this.setDiasPrestamo(p_diasPrestamo);
         this.setPrestamos(new ArrayList<Prestamo>());
+        this.setPrestamosActivos(new ArrayList<Prestamo>());
+        this.setVencimientoMasProximo(Integer.MAX_VALUE);
     }
 
     /**
@@ -53,6 +62,8 @@ public abstract class Socio {
         this.setNombre(p_nombre);
         this.setDiasPrestamo(p_diasPrestamo);
         this.setPrestamos(new ArrayList<Prestamo>());
+        this.setPrestamosActivos(new ArrayList<Prestamo>());
+        this.setVencimientoMasProximo(Integer.MAX_VALUE);
         // Nota: El parámetro p_prestamo no se agrega a la lista en este constructor.
     }
 
@@ -70,6 +81,14 @@ public abstract class Socio {
         this.setNombre(p_nombre);
         this.setDiasPrestamo(p_diasPrestamo);
         this.setPrestamos(p_prestamos);
+        this.setPrestamosActivos(new ArrayList<Prestamo>());
+        this.setVencimientoMasProximo(Integer.MAX_VALUE);
+        for (Prestamo unPrestamo : p_prestamos) {
+            if (!unPrestamo.estaDevuelto()) {
+                this.getPrestamosActivos().add(unPrestamo);
+            }
+        }
+        this.recalcularVencimientoMasProximo();
     }
 
     /**
@@ -109,6 +128,24 @@ public abstract class Socio {
         this.prestamos = p_prestamos;
     }
 
+    /**
+     * Establece la colección de préstamos activos del socio.
+     *
+     * @param p_prestamosActivos Lista de préstamos no devueltos.
+     */
+    private void setPrestamosActivos(ArrayList<Prestamo> p_prestamosActivos) {
+        this.prestamosActivos = p_prestamosActivos;
+    }
+
+    /**
+     * Establece el vencimiento del préstamo activo que vence primero.
+     *
+     * @param p_vencimientoMasProximo Día época de vencimiento.
+     */
+    private void setVencimientoMasProximo(int p_vencimientoMasProximo) {
+        this.vencimientoMasProximo = p_vencimientoMasProximo;
+    }
+
     /**
      * Obtiene el DNI del socio.
      *
@@ -145,6 +182,25 @@ public abstract class Socio {
         return this.prestamos;
     }
 
+    /**
+     * Obtiene los préstamos que el socio tiene actualmente en su poder.
+     *
+     * @return Un ArrayList con los préstamos no devueltos.
+     */
+    public ArrayList<Prestamo> getPrestamosActivos() {
+        return this.prestamosActivos;
+    }
+
+    /**
+     * Obtiene el vencimiento del préstamo activo que vence primero.
+     *
+     * @return El día época de vencimiento, o {@link Integer#MAX_VALUE} si el
+     *         socio no tiene préstamos activos.
+     */
+    public int getVencimientoMasProximo() {
+        return this.vencimientoMasProximo;
+    }
+
     /**
      * Añade un nuevo préstamo al historial del socio.
      *
@@ -162,24 +218,69 @@ public abstract class Socio {
      * @return true si la eliminación fue exitosa (definido por ArrayList.remove).
      */
     public boolean quitarPrestamos(Prestamo p_prestamo) {
+        if (this.getPrestamosActivos().remove(p_prestamo)) {
+            this.recalcularVencimientoMasProximo();
+        }
         return this.getPrestamos().remove(p_prestamo);
     }
 
     /**
-     * Calcula la cantidad de libros que el socio tiene actualmente en su poder
+     * Registra un nuevo préstamo en curso: lo asienta en el historial y lo
+     * suma a los préstamos activos del socio.
+     *
+     * @param p_prestamo El préstamo abierto.
+     */
+    public void abrirPrestamo(Prestamo p_prestamo) {
+        this.agregarPrestamo(p_prestamo);
+        this.getPrestamosActivos().add(p_prestamo);
+        if (p_prestamo.getDiaVencimiento() < this.getVencimientoMasProximo()) {
+            this.setVencimientoMasProximo(p_prestamo.getDiaVencimiento());
+        }
+    }
+
+    /**
+     * Quita un préstamo de los activos del socio al ser devuelto.
+     * El préstamo permanece en el historial.
+     *
+     * @param p_prestamo El préstamo devuelto.
+     */
+    public void cerrarPrestamo(Prestamo p_prestamo) {
+        if (this.getPrestamosActivos().remove(p_prestamo)) {
+            this.recalcularVencimientoMasProximo();
+        }
+    }
+
+    /**
+     * Recalcula el vencimiento más próximo a partir de los préstamos activos.
+     * Solo recorre los préstamos en poder del socio, no el historial.
+     */
+    private void recalcularVencimientoMasProximo() {
+        int minimo = Integer.MAX_VALUE;
+        for (Prestamo unPrestamo : this.getPrestamosActivos()) {
+            minimo = Math.min(minimo, unPrestamo.getDiaVencimiento());
+        }
+        this.setVencimientoMasProximo(minimo);
+    }
+
+    /**
+     * Obtiene la cantidad de libros que el socio tiene actualmente en su poder
      * (es decir, préstamos sin fecha de devolución registrada).
      *
      * @return El número de préstamos activos.
      */
     public int cantLibrosPrestados() {
-        int count = 0;
-        for (Prestamo unPrestamo : this.getPrestamos()) {
-            // Cuenta solo los préstamos que no han sido devueltos
-            if (unPrestamo.getFechaDevolucion() == null) {
-                count++;
-            }
-        }
-        return count;
+        return this.getPrestamosActivos().size();
+    }
+
+    /**
+     * Verifica si el socio tiene algún préstamo activo vencido en un día.
+     *
+     * @param p_dia Día época de referencia.
+     * @return true si algún préstamo activo está vencido ese día.
+     */
+    public boolean tienePrestamosVencidos(int p_dia) {
+        // Basta con el que vence primero: si ese no venció, ninguno lo hizo
+        return p_dia >= this.getVencimientoMasProximo();
     }
 
     /**
@@ -205,19 +306,15 @@ public abstract class Socio {
      * La regla base, aplicable a todos los socios, es no tener préstamos vencidos
      * que aún no hayan sido devueltos.
      * Este método está diseñado para ser extendido por las subclases.
+     * El día de referencia es el "hoy" de la {@link Biblioteca} (ver
+     * {@link Biblioteca#hoy}), no el del reloj del sistema.
      *
-     * @return true si el socio no tiene préstamos activos vencidos, false en caso
-     *         contrario.
+     * @param p_hoy Día época de referencia.
+     * @return true si el socio no tiene préstamos activos vencidos ese día,
+     *         false en caso contrario.
      */
-    public boolean puedePedir() {
-        Calendar hoy = Calendar.getInstance();
-        for (Prestamo unPrestamo : this.getPrestamos()) {
-            // Verifica solo los préstamos activos (no devueltos)
-            if (unPrestamo.getFechaDevolucion() == null && unPrestamo.vencido(hoy)) {
-                return false; // Encontró un préstamo activo y vencido
-            }
-        }
-        return true; // No se encontraron préstamos activos vencidos
+    public boolean puedePedir(int p_hoy) {
+        return !this.tienePrestamosVencidos(p_hoy);
     }
 
     /**
@@ -228,4 +325,12 @@ public abstract class Socio {
      * @return Un String que representa el tipo de socio (ej. "Docente").
      */
     public abstract String soyDeLaClase();
+
+    /**
+     * Método abstracto que identifica el tipo concreto de socio mediante
+     * {@link TipoSocio}.
+     *
+     * @return El tipo de socio (ej. {@link TipoSocio#DOCENTE}).
+     */
+    public abstract TipoSocio getTipo();
 }
\ No newline at end of file
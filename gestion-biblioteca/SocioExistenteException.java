@@ -0,0 +1,22 @@
+/**
+ * Excepción personalizada utilizada para señalar que se intentó registrar
+ * un socio cuyo DNI ya pertenece a otro socio de la biblioteca.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public class SocioExistenteException extends Exception {
+
+    /**
+     * Constructor que acepta un mensaje detallado sobre el error.
+     *
+     * @param message El mensaje de error descriptivo.
+     */
+    public SocioExistenteException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Enumera los tipos concretos de {@link Socio} que admite la biblioteca.
+ * Permite consultar y contar socios por tipo sin comparar cadenas.
+ *
+ * @author Jensen, Lucas
+ * @author Romero Lencinas, Santiago
+ * @author Larrazet, Tomás
+ * @author Lencinas, Mauricio
+ * @author Kruchowski, Juan Ignacio
+ * @version 1.1
+ */
+public enum TipoSocio {
+    /** Socio de tipo {@link Estudiante}. */
+    ESTUDIANTE("Estudiante"),
+    /** Socio de tipo {@link Docente}. */
+    DOCENTE("Docente");
+
+    /** Nombre del tipo, tal como lo devuelve {@link Socio#soyDeLaClase}. */
+    private final String nombre;
+
+    /**
+     * Constructor del tipo de socio.
+     *
+     * @param p_nombre Nombre visible del tipo.
+     */
+    private TipoSocio(String p_nombre) {
+        this.nombre = p_nombre;
+    }
+
+    /**
+     * Obtiene el nombre visible del tipo.
+     *
+     * @return El nombre del tipo (ej. "Docente").
+     */
+    public String getNombre() {
+        return this.nombre;
+    }
+
+    /**
+     * Busca el tipo de socio correspondiente a un nombre.
+     * La comparación es insensible a mayúsculas y minúsculas.
+     *
+     * @param p_nombre El nombre del tipo (Ej: "Estudiante" o "Docente").
+     * @return El {@link TipoSocio} correspondiente, o null si no existe.
+     */
+    public static TipoSocio desdeNombre(String p_nombre) {
+        for (TipoSocio unTipo : TipoSocio.values()) {
+            if (unTipo.getNombre().equalsIgnoreCase(p_nombre)) {
+                return unTipo;
+            }
+        }
+        return null;
+    }
+}
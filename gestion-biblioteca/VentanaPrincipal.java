@@ -1,14 +1,13 @@
 import javax.swing.JFrame;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.*;
-import java.util.*;
 
 /**
  * Ventana principal (JFrame) de la aplicación de gestión de biblioteca.
  * Actúa como el contenedor central que gestiona la lógica de la
  * {@link Biblioteca},
- * la persistencia de datos (guardado y carga en archivos) y la navegación
+ * la persistencia de datos (guardado y carga en archivos, mediante el
+ * {@link Almacenamiento}) y la navegación
  * entre los paneles principales ({@link LoginPanel} y {@link PortalPanel}).
  *
  * @author Jensen, Lucas
@@ -27,26 +26,25 @@ public class VentanaPrincipal extends JFrame {
      * Panel que gestiona la interfaz principal de la aplicación (menú y reportes).
      */
     private PortalPanel panelPortal;
+    /** Carga, diario y guardado de los datos de la biblioteca. */
+    private Almacenamiento almacenamiento;
 
     /** Color de fondo base para el contenedor principal. */
     private final Color colorFondoBase = new Color(0x1F2937);
 
-    // Nombres de archivos para la persistencia de datos
-    private final String ARCHIVO_SOCIOS = "socios.dat";
-    private final String ARCHIVO_LIBROS = "libros.dat";
-    private final String ARCHIVO_PRESTAMOS = "prestamos.dat";
-
     /**
      * Constructor de la VentanaPrincipal.
-     * Inicializa la biblioteca, los paneles de Login y Portal, carga los
-     * datos persistidos desde archivos y configura las propiedades de la ventana.
+     * Inicializa la biblioteca, los paneles de Login y Portal, inicia la carga
+     * de los datos persistidos (en segundo plano) y configura las propiedades
+     * de la ventana.
      */
     public VentanaPrincipal() {
         this.setBiblioteca(new Biblioteca("Biblioteca Central"));
         this.setPanelLogin(new LoginPanel(this));
         this.setPanelPortal(new PortalPanel(this));
 
-        this.cargarDatosDesdeArchivos(); // Carga el estado anterior
+        // La ventana se muestra sin esperar a los datos
+        this.setAlmacenamiento(new Almacenamiento(this.getBiblioteca()));
 
         this.setTitle("Gestión de Biblioteca");
         this.setSize(1200, 800);
@@ -57,14 +55,18 @@ public class VentanaPrincipal extends JFrame {
         this.setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         this.addWindowListener(new WindowAdapter() {
             /**
-             * Intercepta el evento de cierre de ventana para ejecutar el guardado
-             * antes de finalizar la aplicación.
+             * Intercepta el evento de cierre de ventana para terminar las
+             * operaciones pendientes del portal y ejecutar el guardado antes de
+             * finalizar la aplicación.
              * 
              * @param e El evento de ventana.
              */
             @Override
             public void windowClosing(WindowEvent e) {
-                guardarDatosEnArchivos();
+                if (!getPanelPortal().detener()) {
+                    System.err.println("Se cerró la aplicación con operaciones pendientes sin registrar.");
+                }
+                getAlmacenamiento().cerrar();
                 System.exit(0); // Cierra la aplicación
             }
         });
@@ -101,6 +103,54 @@ public class VentanaPrincipal extends JFrame {
         this.panelPortal = p_panelPortal;
     }
 
+    /**
+     * Establece el almacenamiento de los datos de la biblioteca.
+     *
+     * @param p_almacenamiento La instancia de Almacenamiento.
+     */
+    private void setAlmacenamiento(Almacenamiento p_almacenamiento) {
+        this.almacenamiento = p_almacenamiento;
+    }
+
+    /**
+     * Obtiene el almacenamiento de los datos de la biblioteca.
+     *
+     * @return La instancia de Almacenamiento.
+     */
+    public Almacenamiento getAlmacenamiento() {
+        return this.almacenamiento;
+    }
+
+    /**
+     * Indica si terminó la carga de los datos persistidos.
+     *
+     * @return true si la carga terminó (correctamente o no).
+     */
+    public boolean estaCargada() {
+        return this.getAlmacenamiento().estaCargada();
+    }
+
+    /**
+     * Espera a que termine la carga de los datos persistidos. Las acciones que
+     * consultan o modifican la biblioteca deben llamarlo antes de operar
+     * (fuera del EDT).
+     *
+     * @return true si la carga terminó correctamente; false si falló (el error
+     *         ya fue informado).
+     */
+    public boolean esperarCarga() {
+        return this.getAlmacenamiento().esperarCarga();
+    }
+
+    /**
+     * Obtiene el compactador de los datos persistidos.
+     *
+     * @return La instancia de Compactador.
+     */
+    public Compactador getCompactador() {
+        return this.getAlmacenamiento().getCompactador();
+    }
+
     /**
      * Obtiene la instancia central de la biblioteca.
      *
@@ -128,128 +178,6 @@ public class VentanaPrincipal extends JFrame {
         return this.panelPortal;
     }
 
-    /**
-     * Guarda el estado actual de la biblioteca (Socios, Libros y Préstamos activos)
-     * en archivos binarios (.dat) para persistencia.
-     */
-    private void guardarDatosEnArchivos() {
-
-        // --- Guardar Socios ---
-        try (DataOutputStream dosSocios = new DataOutputStream(new FileOutputStream(ARCHIVO_SOCIOS))) {
-            for (Socio unSocio : this.getBiblioteca().getSocios()) {
-                dosSocios.writeUTF(unSocio.soyDeLaClase()); // Identificador de tipo
-                dosSocios.writeInt(unSocio.getDniSocio());
-                dosSocios.writeUTF(unSocio.getNombre());
-
-                // Guarda el atributo específico de la subclase
-                if (unSocio instanceof Estudiante) {
-                    dosSocios.writeUTF(((Estudiante) unSocio).getCarrera());
-                } else if (unSocio instanceof Docente) {
-                    dosSocios.writeUTF(((Docente) unSocio).getArea());
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error al guardar socios: " + e.getMessage());
-        }
-
-        // --- Guardar Libros ---
-        try (DataOutputStream dosLibros = new DataOutputStream(new FileOutputStream(ARCHIVO_LIBROS))) {
-            for (Libro unLibro : this.getBiblioteca().getLibros()) {
-                dosLibros.writeUTF(unLibro.getTitulo());
-                dosLibros.writeInt(unLibro.getEdicion());
-                dosLibros.writeUTF(unLibro.getEditorial());
-                dosLibros.writeInt(unLibro.getAnio());
-            }
-        } catch (IOException e) {
-            System.err.println("Error al guardar libros: " + e.getMessage());
-        }
-
-        // --- Guardar Préstamos Activos ---
-        try (DataOutputStream dosPrestamos = new DataOutputStream(new FileOutputStream(ARCHIVO_PRESTAMOS))) {
-            for (Socio unSocio : this.getBiblioteca().getSocios()) {
-                for (Prestamo unPrestamo : unSocio.getPrestamos()) {
-                    // Solo guarda préstamos que no han sido devueltos
-                    if (unPrestamo.getFechaDevolucion() == null) {
-                        dosPrestamos.writeInt(unSocio.getDniSocio()); // DNI para vincular al Socio
-                        dosPrestamos.writeUTF(unPrestamo.getLibro().getTitulo()); // Título para vincular al Libro
-                        dosPrestamos.writeLong(unPrestamo.getFechaRetiro().getTimeInMillis()); // Fecha como long
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error al guardar préstamos: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Carga el estado de la biblioteca desde los archivos binarios (.dat).
-     * Reconstruye los objetos Socio, Libro y Prestamo.
-     * Maneja {@link FileNotFoundException} si es la primera ejecución.
-     */
-    private void cargarDatosDesdeArchivos() {
-
-        // --- Cargar Socios ---
-        try (DataInputStream disSocios = new DataInputStream(new FileInputStream(ARCHIVO_SOCIOS))) {
-            while (disSocios.available() > 0) {
-                String tipo = disSocios.readUTF();
-                int dni = disSocios.readInt();
-                String nombre = disSocios.readUTF();
-
-                if (tipo.equals("Estudiante")) {
-                    String carrera = disSocios.readUTF();
-                    this.getBiblioteca().nuevoSocioEstudiante(dni, nombre, carrera);
-                } else if (tipo.equals("Docente")) {
-                    String area = disSocios.readUTF();
-                    this.getBiblioteca().nuevoSocioDocente(dni, nombre, area);
-                }
-            }
-        } catch (FileNotFoundException e) {
-            System.out.println("No se encontró " + ARCHIVO_SOCIOS + ", se creará uno nuevo al cerrar.");
-        } catch (IOException e) {
-            System.err.println("Error al cargar socios: " + e.getMessage());
-        }
-
-        // --- Cargar Libros ---
-        try (DataInputStream disLibros = new DataInputStream(new FileInputStream(ARCHIVO_LIBROS))) {
-            while (disLibros.available() > 0) {
-                String titulo = disLibros.readUTF();
-                int edicion = disLibros.readInt();
-                String editorial = disLibros.readUTF();
-                int anio = disLibros.readInt();
-                this.getBiblioteca().nuevoLibro(titulo, edicion, editorial, anio);
-            }
-        } catch (FileNotFoundException e) {
-            System.out.println("No se encontró " + ARCHIVO_LIBROS + ", se creará uno nuevo al cerrar.");
-        } catch (IOException e) {
-            System.err.println("Error al cargar libros: " + e.getMessage());
-        }
-
-        // --- Cargar Préstamos Activos ---
-        // (Debe ejecutarse después de cargar Socios y Libros)
-        try (DataInputStream disPrestamos = new DataInputStream(new FileInputStream(ARCHIVO_PRESTAMOS))) {
-            while (disPrestamos.available() > 0) {
-                int dniSocio = disPrestamos.readInt();
-                String tituloLibro = disPrestamos.readUTF();
-                long fechaMillis = disPrestamos.readLong();
-
-                Socio unSocio = this.getBiblioteca().buscarSocio(dniSocio);
-                Libro unLibro = this.buscarLibroPorTitulo(tituloLibro); // Usa el método de esta clase
-
-                if (unSocio != null && unLibro != null) {
-                    Calendar fechaRetiro = new GregorianCalendar();
-                    fechaRetiro.setTimeInMillis(fechaMillis);
-
-                    // Re-crea el préstamo
-                    this.getBiblioteca().prestarLibro(fechaRetiro, unSocio, unLibro);
-                }
-            }
-        } catch (FileNotFoundException e) {
-            System.out.println("No se encontró " + ARCHIVO_PRESTAMOS + ", se creará uno nuevo al cerrar.");
-        } catch (IOException e) {
-            System.err.println("Error al cargar préstamos: " + e.getMessage());
-        }
-    }
-
     /**
      * Cambia el panel visible del contenedor principal al {@link PortalPanel}.
      * Se invoca tras un inicio de sesión exitoso.
@@ -277,17 +205,13 @@ public class VentanaPrincipal extends JFrame {
 
     /**
      * Método de búsqueda auxiliar para encontrar un libro por su título.
-     * La búsqueda es insensible a mayúsculas/minúsculas.
+     * La búsqueda es insensible a mayúsculas/minúsculas y se delega en el
+     * índice de títulos de la {@link Biblioteca}.
      *
      * @param p_titulo El título del libro a buscar.
      * @return El objeto {@link Libro} si se encuentra, o null si no existe.
      */
     public Libro buscarLibroPorTitulo(String p_titulo) {
-        for (Libro unLibro : this.getBiblioteca().getLibros()) {
-            if (unLibro.getTitulo().equalsIgnoreCase(p_titulo)) {
-                return unLibro;
-            }
-        }
-        return null; // No encontrado
+        return this.getBiblioteca().buscarLibroPorTitulo(p_titulo);
     }
 }
\ No newline at end of file